@@ -0,0 +1,32 @@
+package com.example.demo.config;
+
+import com.example.demo.service.IncidentImportService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+/**
+ * Backfills historical incidents at startup, e.g.
+ *   java -jar demo.jar --poliz.import.file=history.csv
+ * Re-running with the same file resumes after the last committed chunk
+ * (set poliz.import.resume=false to start over).
+ */
+@Configuration
+@ConditionalOnProperty(name = "poliz.import.file")
+public class IncidentImportRunner {
+
+    @Bean
+    CommandLineRunner importIncidents(
+            IncidentImportService importService,
+            @Value("${poliz.import.file}") String file,
+            @Value("${poliz.import.resume:true}") boolean resume,
+            @Value("${poliz.import.chunk-size:1000}") int chunkSize,
+            @Value("${poliz.import.parallelism:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}") int parallelism
+    ) {
+        return args -> importService.importFile(Path.of(file), resume, chunkSize, parallelism);
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.demo.config;
+
+import com.example.demo.service.MessageRollupService;
+import com.example.demo.service.MessageTimestampBackfill;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Backfills Message.sentAtMs from the legacy time string at startup, then builds the daily
+ * messaging rollups if there are none yet. A no-op once both are done;
+ * disable with poliz.messages.backfill=false.
+ *
+ * Runs once all singletons exist but before the web server starts (unlike a CommandLineRunner),
+ * so no send can record a rollup while the rebuild replays the messages table.
+ */
+@Configuration
+@ConditionalOnProperty(name = "poliz.messages.backfill", havingValue = "true", matchIfMissing = true)
+public class MessageTimestampBackfillRunner {
+
+    @Bean
+    SmartInitializingSingleton backfillMessageTimestamps(MessageTimestampBackfill backfill, MessageRollupService rollups) {
+        return () -> {
+            backfill.backfill();
+            rollups.rebuildIfEmpty(); // after the backfill, so legacy rows are counted too
+        };
+    }
+}
@@ -6,6 +6,7 @@ import com.example.demo.model.User;
 import com.example.demo.repository.ChatRepository;
 import com.example.demo.repository.MessageRepository;
 import com.example.demo.repository.UserRepository;
+import com.example.demo.service.MessageRollupService;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
@@ -19,13 +20,16 @@ public class ChatController {
     private final UserRepository userRepo;
     private final ChatRepository chatRepo;
     private final MessageRepository msgRepo;
+    private final MessageRollupService rollups;
 
     public ChatController(UserRepository userRepo,
                           ChatRepository chatRepo,
-                          MessageRepository msgRepo) {
+                          MessageRepository msgRepo,
+                          MessageRollupService rollups) {
         this.userRepo = userRepo;
         this.chatRepo = chatRepo;
         this.msgRepo = msgRepo;
+        this.rollups = rollups;
     }
 
     // ---------- LOGIN ----------
@@ -116,11 +120,13 @@ public class ChatController {
             chat = new Chat(sender, receiver);
 
         Message msg = new Message(sender, receiver, text, time);
+        msg.setSentAtMs(System.currentTimeMillis()); // typed timestamp set here, not by the client
         msg.setChat(chat);
         chat.addMessage(msg);
 
         chatRepo.save(chat);
         msgRepo.save(msg); // เผื่อกรณี cascade ยังไม่ทำงาน
+        rollups.recordMessage(msg); // สถิติรายวัน, same transaction as the message
 
         return msg;
     }
@@ -1,11 +1,19 @@
 package com.example.demo.controller;
 
 import com.example.demo.model.CrimeIncidentDto;
+import com.example.demo.model.HeatmapCell;
 import com.example.demo.model.Incident;
+import com.example.demo.model.IncidentPage;
+import com.example.demo.service.IncidentDataVersion;
+import com.example.demo.service.IncidentHeatmap;
 import com.example.demo.service.IncidentService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
 
 @RestController
@@ -14,38 +22,142 @@ import java.util.List;
 public class CrimeIncidentController {
 
     private final IncidentService incidentService;
+    private final IncidentHeatmap heatmap;
+    private final IncidentDataVersion dataVersion;
 
-    public CrimeIncidentController(IncidentService incidentService) {
+    public CrimeIncidentController(IncidentService incidentService, IncidentHeatmap heatmap,
+                                   IncidentDataVersion dataVersion) {
         this.incidentService = incidentService;
+        this.heatmap = heatmap;
+        this.dataVersion = dataVersion;
     }
 
     /**
      * GET /api/v1/crime-incidents
      * Optional: ?type=Traffic%20Accident
+     * Several types: ?type=Fire&type=Traffic%20Accident (or ?type=Fire,Traffic%20Accident)
      * This now returns incidents from the Incident table,
-     * formatted as CrimeIncidentDto for the dashboard.
+     * selected straight into CrimeIncidentDto for the dashboard (no entity hydration).
+     * The type filter runs in the database on the indexed type_key column.
+     * Sends the data version as ETag; a matching If-None-Match gets 304 without a query.
      */
     @GetMapping
     public ResponseEntity<List<CrimeIncidentDto>> getCrimeIncidents(
-            @RequestParam(required = false) String type
+            @RequestParam(required = false) String type,
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch
     ) {
-        List<Incident> incidents = incidentService.getAllIncidents();
+        String etag = dataVersion.etag();
+        if (IncidentDataVersion.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        List<CrimeIncidentDto> body = incidentService.getCrimeIncidents(parseTypes(type));
+        return ResponseEntity.ok().eTag(etag).body(body);
+    }
+
+    /**
+     * GET /api/v1/crime-incidents?limit=50&cursor=...&type=...
+     * Keyset-paginated variant, newest first. Pass the returned "next"
+     * as cursor to get the following page; next is null on the last page.
+     */
+    @GetMapping(params = {"limit", "!bbox"})
+    public ResponseEntity<IncidentPage<CrimeIncidentDto>> getCrimeIncidentPage(
+            @RequestParam int limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String type,
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch
+    ) {
+        String etag = dataVersion.etag();
+        if (IncidentDataVersion.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        IncidentPage<Incident> page;
+        try {
+            page = incidentService.getIncidentPage(cursor, limit, parseTypes(type));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
 
-        // Optional in-memory filter by type
-        if (type != null && !type.isBlank()
-                && !"All Types".equalsIgnoreCase(type)) {
+        List<CrimeIncidentDto> body = page.items().stream()
+                .map(CrimeIncidentDto::fromIncident)
+                .toList();
 
-            String normalizedType = type.trim().toLowerCase();
-            incidents = incidents.stream()
-                    .filter(i -> i.getType() != null
-                            && i.getType().trim().toLowerCase().equals(normalizedType))
-                    .toList();
+        return ResponseEntity.ok().eTag(etag).body(new IncidentPage<>(body, page.next()));
+    }
+
+    /**
+     * GET /api/v1/crime-incidents?bbox=minLat,minLon,maxLat,maxLon[&type=...]
+     * Only the incidents inside the visible map viewport (geohash index lookup).
+     */
+    @GetMapping(params = "bbox")
+    public ResponseEntity<List<CrimeIncidentDto>> getCrimeIncidentsInBox(
+            @RequestParam String bbox,
+            @RequestParam(required = false) String type,
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch
+    ) {
+        String etag = dataVersion.etag();
+        if (IncidentDataVersion.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        List<Incident> incidents;
+        try {
+            String[] parts = bbox.split(",");
+            if (parts.length != 4) {
+                return ResponseEntity.badRequest().build();
+            }
+            incidents = incidentService.getIncidentsInBox(
+                    Double.parseDouble(parts[0].trim()), Double.parseDouble(parts[1].trim()),
+                    Double.parseDouble(parts[2].trim()), Double.parseDouble(parts[3].trim()),
+                    parseTypes(type));
+        } catch (IllegalArgumentException e) { // also NumberFormatException
+            return ResponseEntity.badRequest().build();
         }
 
         List<CrimeIncidentDto> body = incidents.stream()
                 .map(CrimeIncidentDto::fromIncident)
                 .toList();
 
-        return ResponseEntity.ok(body);
+        return ResponseEntity.ok().eTag(etag).body(body);
+    }
+
+    /**
+     * GET /api/v1/crime-incidents/heatmap?zoom=12&bbox=minLat,minLon,maxLat,maxLon
+     *     [&from=2025-01-01T00:00&to=2025-01-08T00:00]
+     * Incident counts per map tile and rankLevel, from the in-memory heatmap.
+     * Without bbox the whole world is used (only possible at low zoom).
+     */
+    @GetMapping("/heatmap")
+    public ResponseEntity<List<HeatmapCell>> getHeatmap(
+            @RequestParam int zoom,
+            @RequestParam(required = false) String bbox,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to
+    ) {
+        try {
+            double[] box = {-90, -180, 90, 180};
+            if (bbox != null) {
+                String[] parts = bbox.split(",");
+                if (parts.length != 4) {
+                    return ResponseEntity.badRequest().build();
+                }
+                for (int n = 0; n < 4; n++) box[n] = Double.parseDouble(parts[n].trim());
+            }
+            return ResponseEntity.ok(heatmap.getTiles(zoom, box[0], box[1], box[2], box[3], from, to));
+        } catch (IllegalArgumentException e) { // also NumberFormatException
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Splits the comma-separated type parameter (repeated ?type= values arrive joined by commas).
+     * Blank entries and "All Types" mean no filter; an empty result = all types.
+     */
+    private static List<String> parseTypes(String type) {
+        if (type == null || type.isBlank()) return List.of();
+        List<String> types = Arrays.stream(type.split(","))
+                .map(String::trim)
+                .filter(t -> !t.isEmpty())
+                .toList();
+        if (types.stream().anyMatch("All Types"::equalsIgnoreCase)) return List.of();
+        return types;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,138 @@
+package com.example.demo.controller;
+
+import com.example.demo.service.ExportService;
+import com.example.demo.service.ExportService.Format;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Full extracts for auditors, streamed row by row instead of one JSON list in memory.
+ * ?format=ndjson (default) or csv; gzip-compressed on the fly when the client sends
+ * Accept-Encoding: gzip (e.g. curl --compressed).
+ */
+@RestController
+@RequestMapping("/api/v1/export")
+@CrossOrigin
+public class ExportController {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv;charset=UTF-8");
+
+    private final ExportService exportService;
+
+    public ExportController(ExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    // GET /api/v1/export/incidents?from=2025-11-01&to=2025-11-30&type=Fire,Traffic%20Accident&format=csv
+    // from / to: local days of the incident time, both optional
+    @GetMapping("/incidents")
+    public ResponseEntity<StreamingResponseBody> exportIncidents(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
+    ) {
+        Format f;
+        try {
+            f = Format.parse(format);
+            ExportService.validateRange(from, to);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<String> types = parseTypes(type);
+        return stream("incidents", f, acceptEncoding,
+                out -> exportService.writeIncidents(out, f, from, to, types));
+    }
+
+    // GET /api/v1/export/messages?from=2025-11-01&to=2025-11-30&officer=Pim&format=ndjson
+    // from / to: UTC days of the send time, both optional; officer = sender or receiver
+    @GetMapping("/messages")
+    public ResponseEntity<StreamingResponseBody> exportMessages(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String officer,
+            @RequestParam(required = false) String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
+    ) {
+        Format f;
+        try {
+            f = Format.parse(format);
+            ExportService.validateRange(from, to);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return stream("messages", f, acceptEncoding,
+                out -> exportService.writeMessages(out, f, from, to, officer));
+    }
+
+    private static ResponseEntity<StreamingResponseBody> stream(String name, Format format, String acceptEncoding,
+                                                                StreamingResponseBody rows) {
+        boolean gzip = acceptsGzip(acceptEncoding);
+        String file = name + (format == Format.CSV ? ".csv" : ".ndjson");
+
+        StreamingResponseBody body = !gzip ? rows : out -> {
+            try (GZIPOutputStream zipped = new GZIPOutputStream(out, 64 * 1024)) {
+                rows.writeTo(zipped);
+            }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(format == Format.CSV ? CSV : NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file + "\"")
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        return response.body(body);
+    }
+
+    /**
+     * Whether an Accept-Encoding header allows gzip: the "gzip" coding (any case) with q > 0,
+     * or else "*" with q > 0. "gzip;q=0" refuses it; "x-gzip" is not taken as a request for it.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) return false;
+        Double gzip = null, any = null;
+        for (String element : acceptEncoding.split(",")) {
+            String[] parts = element.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            if (!coding.equals("gzip") && !coding.equals("*")) continue;
+            double q = 1;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.length() > 1 && (param.charAt(0) == 'q' || param.charAt(0) == 'Q')
+                        && param.substring(1).trim().startsWith("=")) {
+                    try {
+                        q = Double.parseDouble(param.substring(param.indexOf('=') + 1).trim());
+                    } catch (NumberFormatException e) {
+                        q = 0; // malformed weight: do not compress
+                    }
+                }
+            }
+            if (coding.equals("gzip")) gzip = q;
+            else any = q;
+        }
+        if (gzip != null) return gzip > 0;
+        return any != null && any > 0;
+    }
+
+    private static List<String> parseTypes(String type) {
+        if (type == null || type.isBlank()) return List.of();
+        List<String> types = Arrays.stream(type.split(","))
+                .map(String::trim)
+                .filter(t -> !t.isEmpty())
+                .toList();
+        if (types.stream().anyMatch("All Types"::equalsIgnoreCase)) return List.of();
+        return types;
+    }
+}
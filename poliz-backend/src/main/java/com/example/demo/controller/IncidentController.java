@@ -1,9 +1,23 @@
 package com.example.demo.controller;
 
 import com.example.demo.model.Incident;
+import com.example.demo.model.IncidentBatchResult;
+import com.example.demo.model.IncidentPage;
+import com.example.demo.model.IngestStatus;
+import com.example.demo.model.NearbyIncident;
+import com.example.demo.service.IncidentDataVersion;
+import com.example.demo.service.IncidentEventStream;
+import com.example.demo.service.IncidentIngestQueue;
+import com.example.demo.service.IncidentLocationIndex;
+import com.example.demo.service.IncidentReadService;
 import com.example.demo.service.IncidentService;
+import com.example.demo.service.OfficerActionLog;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import java.util.List;
 
 @RestController
@@ -11,9 +25,27 @@ import java.util.List;
 public class IncidentController {
 
     private final IncidentService service;
+    private final IncidentIngestQueue ingestQueue;
+    private final IncidentLocationIndex locationIndex;
+    private final IncidentEventStream eventStream;
+    private final IncidentReadService readService;
+    private final IncidentDataVersion dataVersion;
+    private final OfficerActionLog actionLog;
+    private final int maxBatch;
 
-    public IncidentController(IncidentService service) {
+    public IncidentController(IncidentService service, IncidentIngestQueue ingestQueue,
+                              IncidentLocationIndex locationIndex, IncidentEventStream eventStream,
+                              IncidentReadService readService, IncidentDataVersion dataVersion,
+                              OfficerActionLog actionLog,
+                              @Value("${poliz.incidents.max-batch:1000}") int maxBatch) {
         this.service = service;
+        this.ingestQueue = ingestQueue;
+        this.locationIndex = locationIndex;
+        this.eventStream = eventStream;
+        this.readService = readService;
+        this.dataVersion = dataVersion;
+        this.actionLog = actionLog;
+        this.maxBatch = maxBatch;
     }
 
     // POST: Add Incident (ใช้สำหรับปุ่ม Add & Rank)
@@ -23,22 +55,119 @@ public class IncidentController {
         return ResponseEntity.ok(savedIncident);
     }
 
+    // POST: Add many incidents in one call (CAD bridge bursts), saved with batched inserts
+    // more than poliz.incidents.max-batch in one request -> 413 (one transaction + one fan-out per batch)
+    @PostMapping("/batch")
+    public ResponseEntity<IncidentBatchResult> addIncidents(@RequestBody List<Incident> incidents) {
+        if (incidents.size() > maxBatch) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+        return ResponseEntity.ok(service.addNewIncidents(incidents));
+    }
+
+    // POST: Queue an incident and return 202 + tracking id right away (field units on slow links)
+    @PostMapping("/ingest")
+    public ResponseEntity<IngestStatus> ingestIncident(@RequestBody Incident incident) {
+        return ingestQueue.submit(incident)
+                .map(status -> ResponseEntity.status(HttpStatus.ACCEPTED).body(status))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build());
+    }
+
+    // GET: Status of a queued incident
+    @GetMapping("/ingest/{trackingId}")
+    public ResponseEntity<IngestStatus> getIngestStatus(@PathVariable String trackingId) {
+        return ingestQueue.getStatus(trackingId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
     // GET: Get Notification Count (ใช้สำหรับ Badge เลขสีแดง)
+    // ?officer=<username> -> that officer's unread count (per-officer read watermark)
     @GetMapping("/new/count")
-    public ResponseEntity<Integer> getNewIncidentCount() {
-        int count = service.getNewIncidentCount();
+    public ResponseEntity<Integer> getNewIncidentCount(@RequestParam(required = false) String officer) {
+        int count = (officer == null || officer.isBlank())
+                ? service.getNewIncidentCount()
+                : readService.getUnreadCount(officer);
         return ResponseEntity.ok(count);
     }
+
+    // GET: Live stream of new incidents + badge count (SSE), instead of polling /new/count
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamIncidents(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId
+    ) {
+        return eventStream.subscribe(lastEventId);
+    }
+
     // GET: Get All Incidents (ใช้สำหรับหน้า List)
+    // ETag = data version; If-None-Match with the current one -> 304 without touching the DB
+    // ?officer=<username> -> counted as incidents viewed for the performance summary (200 only)
     @GetMapping
-    public ResponseEntity<List<Incident>> getAllIncidents() {
-        return ResponseEntity.ok(service.getAllIncidents());
+    public ResponseEntity<List<Incident>> getAllIncidents(
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch,
+            @RequestParam(required = false) String officer
+    ) {
+        String etag = dataVersion.etag();
+        if (IncidentDataVersion.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        List<Incident> incidents = service.getAllIncidents();
+        actionLog.incidentsViewed(officer, incidents.size());
+        return ResponseEntity.ok().eTag(etag).body(incidents);
+    }
+
+    // GET: One page of incidents, newest first (?limit=50&cursor=<next from previous page>[&officer=<username>])
+    @GetMapping(params = "limit")
+    public ResponseEntity<IncidentPage<Incident>> getIncidentPage(
+            @RequestParam int limit,
+            @RequestParam(required = false) String cursor,
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch,
+            @RequestParam(required = false) String officer
+    ) {
+        String etag = dataVersion.etag();
+        if (IncidentDataVersion.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        try {
+            IncidentPage<Incident> page = service.getIncidentPage(cursor, limit, null);
+            actionLog.incidentsViewed(officer, page.items().size());
+            return ResponseEntity.ok().eTag(etag).body(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // GET: k nearest incidents to a point (?lat=13.75&lon=100.5&k=10&maxKm=5&rankLevel=HIGH)
+    @GetMapping("/nearby")
+    public ResponseEntity<List<NearbyIncident>> getNearbyIncidents(
+            @RequestParam double lat,
+            @RequestParam double lon,
+            @RequestParam(defaultValue = "10") int k,
+            @RequestParam(required = false) Double maxKm,
+            @RequestParam(required = false) String rankLevel
+    ) {
+        // NaN ("lat=NaN" parses as a double) fails every comparison, so it is rejected explicitly
+        if (Double.isNaN(lat) || Double.isNaN(lon)
+                || lat < -90 || lat > 90 || lon < -180 || lon > 180 || k < 1 || k > 100
+                || (maxKm != null && !(maxKm >= 0))) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(locationIndex.findNearby(lat, lon, k, maxKm, rankLevel));
     }
 
     // POST: Mark All As Read (ใช้เมื่อเข้าหน้า Notification)
+    // ?officer=<username>[&upToId=<newest incident shown>] -> only for that officer (one-row upsert);
+    // without officer the old shared isNew flags are cleared for everyone
     @PostMapping("/mark-as-read")
-    public ResponseEntity<Void> markAllAsRead() {
-        service.markAllAsRead();
+    public ResponseEntity<Void> markAllAsRead(
+            @RequestParam(required = false) String officer,
+            @RequestParam(required = false) Long upToId
+    ) {
+        if (officer == null || officer.isBlank()) {
+            service.markAllAsRead();
+        } else {
+            readService.markAllAsRead(officer, upToId);
+        }
         return ResponseEntity.noContent().build();
     }
 }
\ No newline at end of file
@@ -1,9 +1,15 @@
 package com.example.demo.controller;
 
 import com.example.demo.model.PerformanceSummary;
+import com.example.demo.model.PerformanceTimeseries;
+import com.example.demo.model.SummaryCacheStats;
+import com.example.demo.model.TeamPerformance;
 import com.example.demo.service.PerformanceService;
+import com.example.demo.service.PerformanceSummaryCache;
+import com.example.demo.service.PerformanceTimeseriesService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.Instant;
@@ -17,6 +23,8 @@ import java.time.ZoneOffset;
 public class PerformanceController {
 
     private final PerformanceService performanceService;
+    private final PerformanceSummaryCache summaryCache;
+    private final PerformanceTimeseriesService timeseriesService;
 
     // Example:
     // GET /api/v1/performance/summary?from=2025-11-01&to=2025-11-30
@@ -28,6 +36,50 @@ public class PerformanceController {
     ) {
         Instant fromUtc = from.atStartOfDay().toInstant(ZoneOffset.UTC);
         Instant toUtc   = to.plusDays(1).atStartOfDay().toInstant(ZoneOffset.UTC).minusMillis(1);
-        return performanceService.getSummary(fromUtc, toUtc, officer);
+        return summaryCache.getSummary(fromUtc, toUtc, officer);
     }
-}
\ No newline at end of file
+
+    // Chart series, one value per UTC hour or day (replaces one /summary call per day)
+    // GET /api/v1/performance/timeseries?from=2025-11-01&to=2025-11-30&bucket=day&officer=Pim
+    @GetMapping("/timeseries")
+    public ResponseEntity<PerformanceTimeseries> getTimeseries(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "day") String bucket,
+            @RequestParam(required = false) String officer
+    ) {
+        Instant fromUtc = from.atStartOfDay().toInstant(ZoneOffset.UTC);
+        Instant toUtc   = to.plusDays(1).atStartOfDay().toInstant(ZoneOffset.UTC).minusMillis(1);
+        try {
+            return ResponseEntity.ok(timeseriesService.getTimeseries(fromUtc, toUtc, bucket, officer));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Hit/miss counters of the summary cache
+    @GetMapping("/cache")
+    public SummaryCacheStats getCacheStats() {
+        return summaryCache.getStats();
+    }
+
+    // Leaderboard: every officer's messaging stats in one request
+    // GET /api/v1/performance/team?from=2025-11-01&to=2025-11-30&sort=messagesSent&page=0&size=50
+    // sort: messagesSent | messagesReceived | conversations | activeDays | firstResponseTime | responseTime | officer
+    @GetMapping("/team")
+    public ResponseEntity<TeamPerformance> getTeam(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "messagesSent") String sort,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size
+    ) {
+        Instant fromUtc = from.atStartOfDay().toInstant(ZoneOffset.UTC);
+        Instant toUtc   = to.plusDays(1).atStartOfDay().toInstant(ZoneOffset.UTC).minusMillis(1);
+        try {
+            return ResponseEntity.ok(performanceService.getTeam(fromUtc, toUtc, sort, page, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
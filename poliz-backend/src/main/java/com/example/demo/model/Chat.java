@@ -25,6 +25,12 @@ public class Chat {
     private int unreadForA = 0;
     private int unreadForB = 0;
 
+    // ----------- รอตอบกลับ (reply latency) -----------
+    // awaitingReplyFrom = ใครยังไม่ได้ตอบ; awaitingSinceMs = first unanswered message, lastIncomingMs = latest one
+    private String awaitingReplyFrom;
+    private Long awaitingSinceMs;
+    private Long lastIncomingMs;
+
     // mappedBy = "chat" => ให้ Message เป็นเจ้าของ foreign key (chat_id)
     @OneToMany(
             mappedBy = "chat",
@@ -66,6 +72,10 @@ public class Chat {
 
     public List<Message> getMessages() { return messages; }
 
+    public String getAwaitingReplyFrom() { return awaitingReplyFrom; }
+    public Long getAwaitingSinceMs() { return awaitingSinceMs; }
+    public Long getLastIncomingMs() { return lastIncomingMs; }
+
     // ---------- Logic: เวลาเพิ่มข้อความใหม่ ----------
     public void addMessage(Message msg) {
         msg.setChat(this);
@@ -79,6 +89,27 @@ public class Chat {
         }
     }
 
+    // ---------- Logic: reply latency ----------
+    /**
+     * Tracks who owes a reply in this chat. When sender was the one awaited, returns
+     * {ms since the first unanswered message, ms since the latest one}; otherwise null.
+     */
+    public long[] recordSend(String sender, String receiver, long atMs) {
+        if (sender == null || receiver == null || sender.equalsIgnoreCase(receiver)) return null;
+
+        long[] latency = null;
+        if (awaitingReplyFrom != null && awaitingReplyFrom.equalsIgnoreCase(sender)) {
+            latency = new long[]{atMs - awaitingSinceMs, atMs - lastIncomingMs};
+            awaitingReplyFrom = null;
+        }
+        if (awaitingReplyFrom == null) {
+            awaitingReplyFrom = receiver;
+            awaitingSinceMs = atMs;
+        }
+        lastIncomingMs = atMs; // receiver is (still) the one awaited
+        return latency;
+    }
+
     // ---------- Helper ----------
     public int getUnreadCountFor(String username) {
         if (username.equalsIgnoreCase(userA)) {
@@ -1,6 +1,6 @@
 package com.example.demo.model;
 
-import java.time.format.DateTimeFormatter;
+import java.time.LocalDateTime;
 
 public record CrimeIncidentDto(
         Long id,
@@ -13,31 +13,42 @@ public record CrimeIncidentDto(
         Double longitude
 ) {
 
-    private static final DateTimeFormatter TIME_FMT =
-            DateTimeFormatter.ofPattern("HH:mm");
+    /**
+     * Built straight from the selected columns (JPQL "select new", see IncidentRepository)
+     * and by fromIncident, so both paths format time and status the same way.
+     */
+    public CrimeIncidentDto(Long id, String type, String placeName, LocalDateTime time, String description,
+                            String rankLevel, boolean isNew, Double latitude, Double longitude) {
+        this(id, type, placeName, formatTime(time), description, status(rankLevel, isNew), latitude, longitude);
+    }
 
     public static CrimeIncidentDto fromIncident(Incident i) {
-        String timeStr = null;
-        if (i.getTime() != null) {
-            // Use only the time part for dashboard display
-            timeStr = i.getTime().toLocalTime().format(TIME_FMT);
-        }
-
-        // Use rankLevel as dashboard "status". Fall back if missing.
-        String status = i.getRankLevel();
-        if (status == null || status.isBlank()) {
-            status = i.isNew() ? "NEW" : "NORMAL";
-        }
-
         return new CrimeIncidentDto(
                 i.getId(),
                 i.getType(),
                 i.getPlace(),     // placeName in JSON
-                timeStr,
+                i.getTime(),
                 i.getNotes(),
-                status,
+                i.getRankLevel(),
+                i.isNew(),
                 i.getLatitude(),
                 i.getLongitude()
         );
     }
+
+    // Use only the time part for dashboard display; "HH:mm" without a DateTimeFormatter per row
+    private static String formatTime(LocalDateTime time) {
+        if (time == null) return null;
+        int h = time.getHour(), m = time.getMinute();
+        return new String(new char[]{
+                (char) ('0' + h / 10), (char) ('0' + h % 10), ':', (char) ('0' + m / 10), (char) ('0' + m % 10)});
+    }
+
+    // Use rankLevel as dashboard "status". Fall back if missing.
+    private static String status(String rankLevel, boolean isNew) {
+        if (rankLevel == null || rankLevel.isBlank()) {
+            return isNew ? "NEW" : "NORMAL";
+        }
+        return rankLevel;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,121 @@
+package com.example.demo.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Geohash encoding (base32, interleaved lon/lat bits) and bounding-box cover.
+ *
+ * All points inside one geohash cell share its prefix, and cells that are
+ * next to each other in Z-order are next to each other as strings, so a
+ * bounding box becomes a few string ranges [lo, hi) on an indexed column.
+ */
+public final class Geohash {
+
+    public static final int PRECISION = 9; // ~5 m x 5 m cells
+
+    /** Max cells used to cover a bounding box; coarser cells are used for larger boxes. */
+    private static final int MAX_COVER_CELLS = 16;
+
+    private static final char[] BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+    private static final char AFTER_LAST = '{'; // sorts right after 'z'
+
+    public record Range(String lo, String hiExclusive) {}
+
+    private Geohash() {}
+
+    public static String encode(double lat, double lon) {
+        return encode(lat, lon, PRECISION);
+    }
+
+    public static String encode(double lat, double lon, int precision) {
+        return toString(cellIndex(lat, lon, precision * 5), precision);
+    }
+
+    /**
+     * String ranges on a geohash column that together cover the box.
+     * They may include points just outside the box, so callers still filter on lat/lon.
+     */
+    public static List<Range> cover(double minLat, double minLon, double maxLat, double maxLon) {
+        int precision = PRECISION;
+        while (precision > 1 && cellCount(minLat, minLon, maxLat, maxLon, precision) > MAX_COVER_CELLS) {
+            precision--;
+        }
+
+        int bits = precision * 5;
+        int lonBits = (bits + 1) / 2;
+        int latBits = bits / 2;
+        long latLo = axisIndex(minLat, -90, 90, latBits), latHi = axisIndex(maxLat, -90, 90, latBits);
+        long lonLo = axisIndex(minLon, -180, 180, lonBits), lonHi = axisIndex(maxLon, -180, 180, lonBits);
+
+        TreeSet<Long> cells = new TreeSet<>();
+        for (long la = latLo; la <= latHi; la++) {
+            for (long lo = lonLo; lo <= lonHi; lo++) {
+                cells.add(interleave(lo, la, bits));
+            }
+        }
+
+        // merge runs of consecutive cells into one range
+        List<Range> ranges = new ArrayList<>();
+        Long runStart = null, prev = null;
+        for (long cell : cells) {
+            if (prev != null && cell == prev + 1) {
+                prev = cell;
+                continue;
+            }
+            if (runStart != null) ranges.add(range(runStart, prev, precision));
+            runStart = cell;
+            prev = cell;
+        }
+        if (runStart != null) ranges.add(range(runStart, prev, precision));
+        return ranges;
+    }
+
+    private static Range range(long first, long last, int precision) {
+        return new Range(toString(first, precision), toString(last, precision) + AFTER_LAST);
+    }
+
+    private static long cellCount(double minLat, double minLon, double maxLat, double maxLon, int precision) {
+        int bits = precision * 5;
+        int lonBits = (bits + 1) / 2;
+        int latBits = bits / 2;
+        long lat = axisIndex(maxLat, -90, 90, latBits) - axisIndex(minLat, -90, 90, latBits) + 1;
+        long lon = axisIndex(maxLon, -180, 180, lonBits) - axisIndex(minLon, -180, 180, lonBits) + 1;
+        return lat * lon;
+    }
+
+    private static long cellIndex(double lat, double lon, int bits) {
+        int lonBits = (bits + 1) / 2;
+        int latBits = bits / 2;
+        return interleave(axisIndex(lon, -180, 180, lonBits), axisIndex(lat, -90, 90, latBits), bits);
+    }
+
+    private static long axisIndex(double value, double min, double max, int bits) {
+        long cells = 1L << bits;
+        long idx = (long) Math.floor((value - min) / (max - min) * cells);
+        return Math.max(0, Math.min(cells - 1, idx));
+    }
+
+    /** Geohash bit order: the first (most significant) bit is longitude, then alternating. */
+    private static long interleave(long lonIdx, long latIdx, int bits) {
+        int lonBits = (bits + 1) / 2;
+        int latBits = bits / 2;
+        long out = 0;
+        int lonPos = lonBits - 1, latPos = latBits - 1;
+        for (int b = 0; b < bits; b++) {
+            long bit = (b % 2 == 0) ? (lonIdx >> lonPos--) & 1 : (latIdx >> latPos--) & 1;
+            out = (out << 1) | bit;
+        }
+        return out;
+    }
+
+    private static String toString(long cell, int precision) {
+        char[] chars = new char[precision];
+        for (int c = precision - 1; c >= 0; c--) {
+            chars[c] = BASE32[(int) (cell & 31)];
+            cell >>= 5;
+        }
+        return new String(chars);
+    }
+}
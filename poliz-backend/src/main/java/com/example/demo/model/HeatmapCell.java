@@ -0,0 +1,18 @@
+package com.example.demo.model;
+
+/**
+ * One tile of GET /api/v1/crime-incidents/heatmap (slippy-map tile x/y at the requested zoom),
+ * with incident counts per rankLevel. total also counts incidents without a known rankLevel.
+ */
+public record HeatmapCell(
+        int x,
+        int y,
+        double latitude,    // tile centre
+        double longitude,
+        int critical,
+        int high,
+        int medium,
+        int low,
+        int total
+) {
+}
@@ -1,21 +1,43 @@
 package com.example.demo.model; // เปลี่ยน demo เป็น Artifact name ของคุณ
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
 import lombok.Data;
 import java.time.LocalDateTime;
+import java.util.Locale;
 
 @Entity
 @Data
+@Table(indexes = {
+        @Index(name = "idx_incident_time_id", columnList = "time, id"),           // keyset pagination
+        @Index(name = "idx_incident_type_key", columnList = "type_key, time, id"), // type filter (+ paging)
+        @Index(name = "idx_incident_geohash", columnList = "geohash"),           // bounding-box queries
+        @Index(name = "idx_incident_time_rank", columnList = "time, rank_level"), // rank counts per window
+        @Index(name = "idx_incident_feed_seq", columnList = "feed_seq")           // per-officer unread counts
+})
 public class Incident {
 
+    // Pooled sequence (not IDENTITY) so Hibernate can batch inserts; 50 ids per round trip
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "incident_seq")
+    @SequenceGenerator(name = "incident_seq", sequenceName = "incident_seq", allocationSize = 50)
     private Long id;
 
     private String type;
+
+    // type trimmed + lower-cased, kept in sync on every write; used for indexed type filtering
+    @JsonIgnore
+    private String typeKey;
+
     private String place;
     private LocalDateTime time;
     private String notes;
@@ -23,10 +45,36 @@ public class Incident {
     private boolean isNew = true;
     private boolean isRanked = false;
 
+    // isNew at insert time; unlike isNew it survives "mark all as read" (imported history: false)
+    @JsonIgnore
+    private Boolean arrivedNew;
+
+    // commit-ordered position among incidents that arrived as new, stamped by IncidentFeedSequence;
+    // officer read marks are positions in this order (ids can commit out of order)
+    @JsonIgnore
+    private Long feedSeq;
+
     private int score;
     private String rankLevel;
 
     private Double latitude;
     private Double longitude;
 
+    // Geohash of (latitude, longitude), kept in sync on every write; used for bounding-box queries
+    @JsonIgnore
+    @Column(length = Geohash.PRECISION)
+    private String geohash;
+
+    @PrePersist
+    @PreUpdate
+    void fillDerivedColumns() {
+        if (arrivedNew == null) arrivedNew = isNew;
+        this.typeKey = normalizeType(type);
+        this.geohash = (latitude == null || longitude == null) ? null : Geohash.encode(latitude, longitude);
+    }
+
+    /** Canonical form used for type lookups: "  Traffic ACCIDENT " -> "traffic accident". */
+    public static String normalizeType(String type) {
+        return type == null ? null : type.trim().toLowerCase(Locale.ROOT);
+    }
 }
\ No newline at end of file
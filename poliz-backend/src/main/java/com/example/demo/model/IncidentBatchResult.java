@@ -0,0 +1,34 @@
+package com.example.demo.model;
+
+import java.util.List;
+
+/**
+ * Response of POST /api/v1/events/batch.
+ * One ItemResult per submitted incident, in request order.
+ */
+public record IncidentBatchResult(
+        int submitted,
+        int saved,
+        int failed,
+        long elapsedMs,
+        double incidentsPerSecond,
+        List<ItemResult> items
+) {
+
+    public record ItemResult(
+            int index,
+            Long id,
+            Integer score,
+            String rankLevel,
+            String error      // null when the incident was saved
+    ) {
+
+        public static ItemResult saved(int index, Incident i) {
+            return new ItemResult(index, i.getId(), i.getScore(), i.getRankLevel(), null);
+        }
+
+        public static ItemResult failed(int index, String error) {
+            return new ItemResult(index, null, null, null, error);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.demo.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * One incident in an audit export (GET /api/v1/export/incidents), selected straight from
+ * the columns ("select new", see IncidentRepository.streamForExport); never a managed entity.
+ */
+public record IncidentExportRow(
+        Long id,
+        String type,
+        String place,
+        LocalDateTime time,   // local time, as stored
+        String notes,
+        String rankLevel,
+        int score,
+        boolean isNew,
+        Double latitude,
+        Double longitude
+) {
+}
@@ -0,0 +1,13 @@
+package com.example.demo.model;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated incident listing.
+ * next = opaque cursor for the following page, or null on the last page.
+ */
+public record IncidentPage<T>(
+        List<T> items,
+        String next
+) {
+}
@@ -0,0 +1,31 @@
+package com.example.demo.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Per-officer read state: every incident with feedSeq <= lastSeenSeq counts as read for that officer.
+ * "Mark all as read" moves this one row instead of updating every incident.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "incident_read_marks")
+public class IncidentReadMark {
+
+    @Id
+    private String officer; // username
+
+    private Long lastSeenSeq; // Incident.feedSeq
+    private LocalDateTime updatedAt;
+
+    public IncidentReadMark(String officer, Long lastSeenSeq) {
+        this.officer = officer;
+        this.lastSeenSeq = lastSeenSeq;
+        this.updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.demo.model;
+
+/**
+ * Tracking record for an incident submitted to POST /api/v1/events/ingest.
+ * state: QUEUED -> SAVED | FAILED
+ */
+public record IngestStatus(
+        String trackingId,
+        String state,
+        Long incidentId,
+        Integer score,
+        String rankLevel,
+        String error
+) {
+
+    public static final String QUEUED = "QUEUED";
+    public static final String SAVED = "SAVED";
+    public static final String FAILED = "FAILED";
+
+    public static IngestStatus queued(String trackingId) {
+        return new IngestStatus(trackingId, QUEUED, null, null, null, null);
+    }
+
+    public static IngestStatus from(String trackingId, IncidentBatchResult.ItemResult item) {
+        if (item.error() != null) {
+            return failed(trackingId, item.error());
+        }
+        return new IngestStatus(trackingId, SAVED, item.id(), item.score(), item.rankLevel(), null);
+    }
+
+    public static IngestStatus failed(String trackingId, String error) {
+        return new IngestStatus(trackingId, FAILED, null, null, null, error);
+    }
+}
@@ -4,7 +4,9 @@ import com.fasterxml.jackson.annotation.JsonBackReference;
 import jakarta.persistence.*;
 
 @Entity
-@Table(name = "messages")
+@Table(name = "messages", indexes = {
+        @Index(name = "idx_message_sent_at", columnList = "sent_at_ms") // date-window queries
+})
 public class Message {
 
     @Id
@@ -17,7 +19,11 @@ public class Message {
 
     // ----------- เนื้อหาข้อความ -----------
     private String text;
-    private String time;
+    private String time;          // display time as sent by the client (free-form, e.g. "12:30 PM")
+
+    // server-side send time, epoch milliseconds (UTC); backfilled from time for older rows
+    @Column(name = "sent_at_ms")
+    private Long sentAtMs;
 
     // ----------- ความสัมพันธ์กับ Chat -----------
 
@@ -51,6 +57,9 @@ public class Message {
     public String getTime() { return time; }
     public void setTime(String time) { this.time = time; }
 
+    public Long getSentAtMs() { return sentAtMs; }
+    public void setSentAtMs(Long sentAtMs) { this.sentAtMs = sentAtMs; }
+
     public Chat getChat() { return chat; }
     public void setChat(Chat chat) { this.chat = chat; }
 
@@ -63,6 +72,7 @@ public class Message {
                 ", receiver='" + receiver + '\'' +
                 ", text='" + text + '\'' +
                 ", time='" + time + '\'' +
+                ", sentAtMs=" + sentAtMs +
                 '}';
     }
 }
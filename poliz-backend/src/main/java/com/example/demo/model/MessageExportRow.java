@@ -0,0 +1,16 @@
+package com.example.demo.model;
+
+/**
+ * One message in an audit export (GET /api/v1/export/messages), selected straight from
+ * the columns ("select new", see MessageRepository.streamForExport); never a managed entity.
+ */
+public record MessageExportRow(
+        Long id,
+        Long chatId,
+        String sender,
+        String receiver,
+        String text,
+        String time,      // display time as sent by the client
+        Long sentAtMs     // epoch milliseconds (UTC); null if it could not be backfilled
+) {
+}
@@ -0,0 +1,10 @@
+package com.example.demo.model;
+
+/**
+ * Item of GET /api/v1/events/nearby: an incident and its great-circle distance from the officer.
+ */
+public record NearbyIncident(
+        Incident incident,
+        double distanceKm
+) {
+}
@@ -0,0 +1,41 @@
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Append-only log of officer actions (incidents viewed, alerts cleared), written in batches
+ * by OfficerActionLog and summed per range by PerformanceService.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "officer_actions", indexes = {
+        @Index(name = "idx_officer_action_time", columnList = "occurred_at_ms") // range sums
+})
+public class OfficerAction {
+
+    public static final String INCIDENTS_VIEWED = "INCIDENTS_VIEWED";
+    public static final String ALERTS_CLEARED = "ALERTS_CLEARED";
+
+    // Pooled sequence (not IDENTITY) so the flusher's saveAll goes out as JDBC batches; 50 ids per round trip
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "officer_action_seq")
+    @SequenceGenerator(name = "officer_action_seq", sequenceName = "officer_action_seq", allocationSize = 50)
+    private Long id;
+
+    private String officer;
+    private String action;   // INCIDENTS_VIEWED / ALERTS_CLEARED
+    @Column(name = "action_count") // COUNT is reserved
+    private int count;       // incidents shown / alerts cleared by this one action
+    @Column(name = "occurred_at_ms")
+    private long occurredAtMs; // epoch milliseconds (UTC), when the officer acted
+
+    public OfficerAction(String officer, String action, int count, long occurredAtMs) {
+        this.officer = officer;
+        this.action = action;
+        this.count = count;
+        this.occurredAtMs = occurredAtMs;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Messaging rollup: reply-time sketches for one officer on one UTC day (the day of the reply).
+ * firstResponse = since the first unanswered message, response = since the latest one.
+ * Bytes are LatencySketch encodings (bounded size, mergeable across days and officers).
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "officer_daily_latency", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_officer_daily_latency", columnNames = {"officer", "stat_day"})
+})
+public class OfficerDailyLatency {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String officer;
+    @Column(name = "stat_day") // DAY is reserved in H2
+    private LocalDate day;   // UTC
+
+    @Column(length = 8192)
+    private byte[] firstResponse;
+
+    @Column(length = 8192)
+    private byte[] response;
+
+    public OfficerDailyLatency(String officer, LocalDate day) {
+        this.officer = officer;
+        this.day = day;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Messaging rollup: officer exchanged at least one message with peer on this UTC day.
+ * One row per (officer, day, peer), so distinct peers over any range of days is a COUNT(DISTINCT).
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "officer_daily_peers", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_officer_daily_peer", columnNames = {"officer", "stat_day", "peer"})
+})
+public class OfficerDailyPeer {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String officer;
+    @Column(name = "stat_day") // DAY is reserved in H2
+    private LocalDate day;   // UTC
+    private String peer;
+
+    public OfficerDailyPeer(String officer, LocalDate day, String peer) {
+        this.officer = officer;
+        this.day = day;
+        this.peer = peer;
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Messaging rollup: how many messages one officer sent and received on one UTC day.
+ * Kept up to date by MessageRollupService in the send transaction.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "officer_daily_stats", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_officer_daily_stats", columnNames = {"officer", "stat_day"})
+})
+public class OfficerDailyStats {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String officer;
+    @Column(name = "stat_day") // DAY is reserved in H2
+    private LocalDate day;   // UTC
+    private long sent;
+    private long received;
+
+    public OfficerDailyStats(String officer, LocalDate day, long sent, long received) {
+        this.officer = officer;
+        this.day = day;
+        this.sent = sent;
+        this.received = received;
+    }
+}
@@ -7,7 +7,7 @@ import lombok.NoArgsConstructor;
 
 /**
  * DTO for performance summary.
- * v1 focuses on simple counts; response-time and incident fields remain placeholders.
+ * v1 focuses on simple counts and reply-time percentiles; some incident fields remain placeholders.
  */
 @Data
 @Builder
@@ -39,8 +39,8 @@ public class PerformanceSummary {
         private int conversations;
         private int messagesSent;
         private int messagesReceived;
-        private Percentiles firstResponseTimeMs; // reserved (zeros)
-        private Percentiles avgResponseTimeMs;   // reserved (zeros)
+        private Percentiles firstResponseTimeMs; // reply time since the first unanswered message
+        private Percentiles avgResponseTimeMs;   // reply time since the latest unanswered message
         private int activeDays;
         private int unreadClearedCount;          // not tracked yet
     }
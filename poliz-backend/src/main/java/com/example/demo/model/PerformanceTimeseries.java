@@ -0,0 +1,21 @@
+package com.example.demo.model;
+
+import java.util.List;
+
+/**
+ * Bucketed series for GET /api/v1/performance/timeseries, column-oriented for charts:
+ * every array has one value per entry of buckets (bucket start, ISO instant, UTC).
+ * Team series (officer = null) count every message once in both sent and received, like /summary.
+ */
+public record PerformanceTimeseries(
+        String bucket,          // "hour" | "day"
+        String officer,
+        List<String> buckets,
+        long[] messagesSent,
+        long[] messagesReceived,
+        long[] critical,
+        long[] high,
+        long[] medium,
+        long[] low
+) {
+}
@@ -0,0 +1,16 @@
+package com.example.demo.model;
+
+/**
+ * Counters of the performance summary cache (GET /api/v1/performance/cache).
+ * invalidations = entries dropped because a message or incident was written into their window.
+ */
+public record SummaryCacheStats(
+        long hits,
+        long misses,
+        double hitRate,
+        long evictions,
+        long invalidations,
+        int size,
+        int maxEntries
+) {
+}
@@ -0,0 +1,22 @@
+package com.example.demo.model;
+
+import com.example.demo.model.PerformanceSummary.MessagingStats;
+import com.example.demo.model.PerformanceSummary.RangeDTO;
+
+import java.util.List;
+
+/**
+ * One page of the team leaderboard (GET /api/v1/performance/team).
+ * totalOfficers = officers on all pages; officers = this page, in sort order.
+ */
+public record TeamPerformance(
+        RangeDTO range,
+        String sort,
+        int page,
+        int size,
+        int totalOfficers,
+        List<OfficerPerformance> officers
+) {
+    public record OfficerPerformance(String officer, MessagingStats messaging) {
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.demo.repository;
+
+/** One row of OfficerActionRepository.sumByAction: total count of one action type. */
+public interface ActionTotal {
+    String getAction();
+    long getTotal();
+}
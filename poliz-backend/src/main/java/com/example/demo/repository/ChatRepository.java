@@ -2,10 +2,17 @@ package com.example.demo.repository;
 
 import com.example.demo.model.Chat;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import java.util.List;
 
 public interface ChatRepository extends JpaRepository<Chat, Long> {
     List<Chat> findByUserAOrUserB(String userA, String userB);
     Chat findByUserAAndUserB(String userA, String userB);
     Chat findByUserBAndUserA(String userB, String userA);
+
+    // rollup rebuild replays every message from the start: nobody awaits a reply yet
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Chat c set c.awaitingReplyFrom = null, c.awaitingSinceMs = null, c.lastIncomingMs = null")
+    int resetReplyState();
 }
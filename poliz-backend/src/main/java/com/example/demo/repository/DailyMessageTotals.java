@@ -0,0 +1,10 @@
+package com.example.demo.repository;
+
+import java.time.LocalDate;
+
+/** One row of OfficerDailyStatsRepository.sumByDay: a UTC day's sent / received totals. */
+public interface DailyMessageTotals {
+    LocalDate getDay();
+    long getSent();
+    long getReceived();
+}
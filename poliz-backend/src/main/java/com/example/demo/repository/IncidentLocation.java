@@ -0,0 +1,15 @@
+package com.example.demo.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection with just what the in-memory location indexes (k-NN, heatmap) need,
+ * so rebuilding them does not hydrate full Incident entities.
+ */
+public interface IncidentLocation {
+    Long getId();
+    Double getLatitude();
+    Double getLongitude();
+    String getRankLevel();
+    LocalDateTime getTime();
+}
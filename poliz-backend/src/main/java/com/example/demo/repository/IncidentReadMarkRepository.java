@@ -0,0 +1,16 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.IncidentReadMark;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+
+import java.util.Optional;
+
+public interface IncidentReadMarkRepository extends JpaRepository<IncidentReadMark, String> {
+
+    // read-modify-write of the mark: lock the row so concurrent marks cannot move it backwards
+    // (locks nothing while the row is missing: IncidentReadService creates it first)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<IncidentReadMark> findByOfficer(String officer);
+}
@@ -1,13 +1,166 @@
 package com.example.demo.repository;
 
+import com.example.demo.model.CrimeIncidentDto;
 import com.example.demo.model.Incident;
+import com.example.demo.model.IncidentExportRow;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
-import java.util.List;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface IncidentRepository extends JpaRepository<Incident, Long> {
 
-    List<Incident> findByIsNewTrue();
-    List<Incident> findByTimeGreaterThanEqualAndTimeLessThan(LocalDateTime from, LocalDateTime toExclusive);
-}
\ No newline at end of file
+    long countByIsNewTrue();
+
+    // mark-all-as-read in one statement; returns the rows this call actually flipped,
+    // so overlapping calls never subtract the same incident twice
+    @Modifying(clearAutomatically = true)
+    @Query("update Incident i set i.isNew = false where i.isNew = true")
+    int markAllAsRead();
+
+    // per-officer unread count: incidents stamped after the officer's read mark
+    long countByFeedSeqGreaterThan(Long feedSeq);
+
+    // alerts cleared by moving a read mark from afterSeq to upToSeq
+    long countByFeedSeqGreaterThanAndFeedSeqLessThanEqual(Long afterSeq, Long upToSeq);
+
+    @Query("select max(i.feedSeq) from Incident i")
+    Long findMaxFeedSeq();
+
+    @Query("select i.feedSeq from Incident i where i.id = :id")
+    Long findFeedSeqById(@Param("id") Long id);
+
+    @Query("select max(i.feedSeq) from Incident i where i.id <= :id")
+    Long findMaxFeedSeqUpToId(@Param("id") Long id);
+
+    @Query("select min(i.id) from Incident i where i.arrivedNew = true and i.feedSeq is null")
+    Long findMinUnstampedId();
+
+    // feed positions keep the id order inside one stamp: id + offset, offset chosen above the last stamp
+    @Modifying
+    @Query("update Incident i set i.feedSeq = i.id + :offset where i.id in :ids and i.feedSeq is null")
+    int stampFeedSeq(@Param("ids") Collection<Long> ids, @Param("offset") long offset);
+
+    @Modifying
+    @Query("update Incident i set i.feedSeq = i.id + :offset where i.arrivedNew = true and i.feedSeq is null")
+    int stampAllUnstamped(@Param("offset") long offset);
+
+    // rankLevel counts in [from, toExclusive), one row per distinct rankLevel; served by idx_incident_time_rank
+    @Query("""
+            select i.rankLevel as rankLevel, count(i) as total
+            from Incident i
+            where i.time >= :from and i.time < :toExclusive and i.rankLevel is not null
+            group by i.rankLevel
+            """)
+    List<RankLevelCount> countByRankLevel(@Param("from") LocalDateTime from,
+                                          @Param("toExclusive") LocalDateTime toExclusive);
+
+    // time series: just time + rankLevel in [from, toExclusive), also served by idx_incident_time_rank
+    @Query("""
+            select i.time as time, i.rankLevel as rankLevel
+            from Incident i
+            where i.time >= :from and i.time < :toExclusive and i.rankLevel is not null
+            """)
+    List<IncidentTimeRank> findTimeAndRank(@Param("from") LocalDateTime from,
+                                           @Param("toExclusive") LocalDateTime toExclusive);
+
+    List<Incident> findByTypeKeyIn(Collection<String> typeKeys);
+
+    // ---------- Dashboard rows selected straight into CrimeIncidentDto (no entities, no persistence context) ----------
+
+    @Query("""
+            select new com.example.demo.model.CrimeIncidentDto(
+                i.id, i.type, i.place, i.time, i.notes, i.rankLevel, i.isNew, i.latitude, i.longitude)
+            from Incident i
+            """)
+    List<CrimeIncidentDto> findAllCrimeIncidentDtos();
+
+    @Query("""
+            select new com.example.demo.model.CrimeIncidentDto(
+                i.id, i.type, i.place, i.time, i.notes, i.rankLevel, i.isNew, i.latitude, i.longitude)
+            from Incident i
+            where i.typeKey in :typeKeys
+            """)
+    List<CrimeIncidentDto> findCrimeIncidentDtosByTypeKeyIn(@Param("typeKeys") Collection<String> typeKeys);
+
+    // locations for the in-memory nearest-incident index
+    List<IncidentLocation> findByLatitudeIsNotNullAndLongitudeIsNotNull();
+
+    // heatmap tiles counted from the database (fine zoom, old windows): one geohash range of the
+    // viewport, trimmed to the box and to [from, toExclusive) (null = open; any window skips untimed rows)
+    @Query("""
+            select i.id as id, i.latitude as latitude, i.longitude as longitude,
+                   i.rankLevel as rankLevel, i.time as time
+            from Incident i
+            where i.geohash >= :geohashFrom and i.geohash < :geohashToExclusive
+              and i.latitude between :minLat and :maxLat and i.longitude between :minLon and :maxLon
+              and (:from is null or i.time >= :from)
+              and (:toExclusive is null or i.time < :toExclusive)
+            """)
+    List<IncidentLocation> findHeatmapPoints(@Param("geohashFrom") String geohashFrom,
+                                             @Param("geohashToExclusive") String geohashToExclusive,
+                                             @Param("minLat") Double minLat, @Param("maxLat") Double maxLat,
+                                             @Param("minLon") Double minLon, @Param("maxLon") Double maxLon,
+                                             @Param("from") LocalDateTime from,
+                                             @Param("toExclusive") LocalDateTime toExclusive);
+
+    // one geohash range of a bounding-box cover, trimmed to the exact box
+    List<Incident> findByGeohashGreaterThanEqualAndGeohashLessThanAndLatitudeBetweenAndLongitudeBetween(
+            String geohashFrom, String geohashToExclusive,
+            Double minLat, Double maxLat, Double minLon, Double maxLon);
+
+    // ---------- Keyset pagination, newest first: (time desc, id desc), untimed rows last ----------
+    // allTypes = true ignores typeKeys (pass a non-empty placeholder list)
+
+    @Query("""
+            select i from Incident i
+            where i.time is not null
+              and (:allTypes = true or i.typeKey in :typeKeys)
+            order by i.time desc, i.id desc""")
+    List<Incident> findFirstTimedPage(@Param("allTypes") boolean allTypes,
+                                      @Param("typeKeys") Collection<String> typeKeys, Limit limit);
+
+    @Query("""
+            select i from Incident i
+            where (i.time < :time or (i.time = :time and i.id < :id))
+              and (:allTypes = true or i.typeKey in :typeKeys)
+            order by i.time desc, i.id desc""")
+    List<Incident> findTimedPageAfter(@Param("time") LocalDateTime time, @Param("id") Long id,
+                                      @Param("allTypes") boolean allTypes,
+                                      @Param("typeKeys") Collection<String> typeKeys, Limit limit);
+
+    @Query("""
+            select i from Incident i
+            where i.time is null
+              and (:id is null or i.id < :id)
+              and (:allTypes = true or i.typeKey in :typeKeys)
+            order by i.id desc""")
+    List<Incident> findUntimedPageAfter(@Param("id") Long id,
+                                        @Param("allTypes") boolean allTypes,
+                                        @Param("typeKeys") Collection<String> typeKeys, Limit limit);
+
+    // ---------- Audit export: rows streamed over a cursor, fetch-size rows per round trip ----------
+    // null from / toExclusive = open end; allTypes = true ignores typeKeys (as above)
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+            select new com.example.demo.model.IncidentExportRow(
+                i.id, i.type, i.place, i.time, i.notes, i.rankLevel, i.score, i.isNew, i.latitude, i.longitude)
+            from Incident i
+            where (:from is null or i.time >= :from)
+              and (:toExclusive is null or i.time < :toExclusive)
+              and (:allTypes = true or i.typeKey in :typeKeys)
+            order by i.id""")
+    Stream<IncidentExportRow> streamForExport(@Param("from") LocalDateTime from,
+                                              @Param("toExclusive") LocalDateTime toExclusive,
+                                              @Param("allTypes") boolean allTypes,
+                                              @Param("typeKeys") Collection<String> typeKeys);
+}
@@ -0,0 +1,9 @@
+package com.example.demo.repository;
+
+import java.time.LocalDateTime;
+
+/** Time and rankLevel of an incident (IncidentRepository.findTimeAndRank). */
+public interface IncidentTimeRank {
+    LocalDateTime getTime();
+    String getRankLevel();
+}
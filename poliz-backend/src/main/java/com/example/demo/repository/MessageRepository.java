@@ -1,12 +1,49 @@
 package com.example.demo.repository;
 
 import com.example.demo.model.Message;
+import com.example.demo.model.MessageExportRow;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface MessageRepository extends JpaRepository<Message, Long> {
     List<Message> findByChatId(Long chatId);
-}
\ No newline at end of file
+
+    // hourly time series: send time and parties only, via idx_message_sent_at; officer = null for the whole team
+    @Query("""
+            select m.sentAtMs as sentAtMs, m.sender as sender, m.receiver as receiver
+            from Message m
+            where m.sentAtMs between :fromMs and :toMs
+              and (:officer is null or m.sender = :officer or m.receiver = :officer)
+            """)
+    List<MessageTimeRow> findTimeRows(@Param("fromMs") Long fromMs, @Param("toMs") Long toMs,
+                                      @Param("officer") String officer);
+
+    // backfill: rows without a typed timestamp yet, in id order, one chunk at a time
+    List<Message> findTop500BySentAtMsIsNullAndIdGreaterThanOrderByIdAsc(Long afterId);
+
+    // rollup rebuild: timestamped rows in id order, one chunk at a time
+    List<Message> findTop500BySentAtMsIsNotNullAndIdGreaterThanOrderByIdAsc(Long afterId);
+
+    // audit export: rows streamed over a cursor, fetch-size rows per round trip;
+    // null fromMs / toMs = no range (includes messages without sentAtMs); officer = sender or receiver
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+            select new com.example.demo.model.MessageExportRow(
+                m.id, m.chat.id, m.sender, m.receiver, m.text, m.time, m.sentAtMs)
+            from Message m
+            where (:fromMs is null or m.sentAtMs >= :fromMs)
+              and (:toMs is null or m.sentAtMs <= :toMs)
+              and (:officer is null or m.sender = :officer or m.receiver = :officer)
+            order by m.id""")
+    Stream<MessageExportRow> streamForExport(@Param("fromMs") Long fromMs, @Param("toMs") Long toMs,
+                                             @Param("officer") String officer);
+}
@@ -0,0 +1,8 @@
+package com.example.demo.repository;
+
+/** Send time and parties of a message, without its text (MessageRepository.findTimeRows). */
+public interface MessageTimeRow {
+    Long getSentAtMs();
+    String getSender();
+    String getReceiver();
+}
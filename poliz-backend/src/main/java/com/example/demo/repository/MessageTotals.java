@@ -0,0 +1,8 @@
+package com.example.demo.repository;
+
+/** Sums over OfficerDailyStats rows for a range of days. */
+public interface MessageTotals {
+    long getSent();
+    long getReceived();
+    long getActiveDays();
+}
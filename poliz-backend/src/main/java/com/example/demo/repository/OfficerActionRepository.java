@@ -0,0 +1,22 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.OfficerAction;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface OfficerActionRepository extends JpaRepository<OfficerAction, Long> {
+
+    // counts per action type in [fromMs, toMs]; officer null = whole team; served by idx_officer_action_time
+    @Query("""
+            select a.action as action, sum(a.count) as total
+            from OfficerAction a
+            where a.occurredAtMs between :fromMs and :toMs
+              and (:officer is null or a.officer = :officer)
+            group by a.action
+            """)
+    List<ActionTotal> sumByAction(@Param("fromMs") long fromMs, @Param("toMs") long toMs,
+                                  @Param("officer") String officer);
+}
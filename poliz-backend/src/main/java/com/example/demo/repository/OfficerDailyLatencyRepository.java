@@ -0,0 +1,22 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.OfficerDailyLatency;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+public interface OfficerDailyLatencyRepository extends JpaRepository<OfficerDailyLatency, Long> {
+
+    // read-modify-write of the sketch: lock the row so concurrent replies are not lost
+    // (locks nothing while the row is missing: MessageRollupService creates it first)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<OfficerDailyLatency> findByOfficerAndDay(String officer, LocalDate day);
+
+    List<OfficerDailyLatency> findByOfficerAndDayBetween(String officer, LocalDate from, LocalDate to);
+
+    List<OfficerDailyLatency> findByDayBetween(LocalDate from, LocalDate to);
+}
@@ -0,0 +1,34 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.OfficerDailyPeer;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface OfficerDailyPeerRepository extends JpaRepository<OfficerDailyPeer, Long> {
+
+    boolean existsByOfficerAndDayAndPeer(String officer, LocalDate day, String peer);
+
+    @Query("""
+            select count(distinct p.peer) from OfficerDailyPeer p
+            where p.officer = :officer and p.day between :from and :to
+            """)
+    long countPeers(@Param("officer") String officer, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // team: distinct unordered pairs; both directions are stored, keep the officer <= peer one
+    @Query("""
+            select count(distinct concat(p.officer, '|', p.peer)) from OfficerDailyPeer p
+            where p.officer <= p.peer and p.day between :from and :to
+            """)
+    long countPairs(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("""
+            select p.officer as officer, count(distinct p.peer) as peers from OfficerDailyPeer p
+            where p.day between :from and :to
+            group by p.officer
+            """)
+    List<OfficerPeerCount> countPeersByOfficer(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
@@ -0,0 +1,61 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.OfficerDailyStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface OfficerDailyStatsRepository extends JpaRepository<OfficerDailyStats, Long> {
+
+    // in-place increment, so concurrent sends for the same officer/day do not lose updates
+    @Modifying
+    @Query("""
+            update OfficerDailyStats s
+            set s.sent = s.sent + :sent, s.received = s.received + :received
+            where s.officer = :officer and s.day = :day
+            """)
+    int increment(@Param("officer") String officer, @Param("day") LocalDate day,
+                  @Param("sent") long sent, @Param("received") long received);
+
+    @Query("""
+            select coalesce(sum(s.sent), 0) as sent, coalesce(sum(s.received), 0) as received,
+                   count(distinct s.day) as activeDays
+            from OfficerDailyStats s
+            where s.officer = :officer and s.day between :from and :to
+            """)
+    MessageTotals sumForOfficer(@Param("officer") String officer,
+                                @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // team: every message adds one "sent" row-count, so sum(sent) = number of messages
+    @Query("""
+            select coalesce(sum(s.sent), 0) as sent, coalesce(sum(s.received), 0) as received,
+                   count(distinct s.day) as activeDays
+            from OfficerDailyStats s
+            where s.day between :from and :to
+            """)
+    MessageTotals sumForTeam(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // leaderboard: every officer's totals in one grouped query
+    @Query("""
+            select s.officer as officer, sum(s.sent) as sent, sum(s.received) as received,
+                   count(distinct s.day) as activeDays
+            from OfficerDailyStats s
+            where s.day between :from and :to
+            group by s.officer
+            """)
+    List<OfficerMessageTotals> sumByOfficer(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // daily time series: one row per UTC day; officer = null for the whole team
+    @Query("""
+            select s.day as day, sum(s.sent) as sent, sum(s.received) as received
+            from OfficerDailyStats s
+            where s.day between :from and :to and (:officer is null or s.officer = :officer)
+            group by s.day
+            """)
+    List<DailyMessageTotals> sumByDay(@Param("from") LocalDate from, @Param("to") LocalDate to,
+                                      @Param("officer") String officer);
+}
@@ -0,0 +1,6 @@
+package com.example.demo.repository;
+
+/** One row of OfficerDailyStatsRepository.sumByOfficer: an officer's MessageTotals. */
+public interface OfficerMessageTotals extends MessageTotals {
+    String getOfficer();
+}
@@ -0,0 +1,7 @@
+package com.example.demo.repository;
+
+/** One row of OfficerDailyPeerRepository.countPeersByOfficer: distinct peers of an officer. */
+public interface OfficerPeerCount {
+    String getOfficer();
+    long getPeers();
+}
@@ -0,0 +1,7 @@
+package com.example.demo.repository;
+
+/** One row of IncidentRepository.countByRankLevel: a rankLevel and how many incidents have it. */
+public interface RankLevelCount {
+    String getRankLevel();
+    long getTotal();
+}
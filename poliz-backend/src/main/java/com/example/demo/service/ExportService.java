@@ -0,0 +1,171 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Incident;
+import com.example.demo.model.IncidentExportRow;
+import com.example.demo.model.MessageExportRow;
+import com.example.demo.repository.IncidentRepository;
+import com.example.demo.repository.MessageRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Audit exports of incidents and messages as NDJSON or CSV, written row by row.
+ *
+ * Rows come from a repository Stream (cursor, 500 rows per fetch) selected straight into
+ * export records, so nothing accumulates in the persistence context; each row is written
+ * and dropped. Heap use does not depend on the number of rows.
+ *
+ *   - incidents: from / to are local days of Incident.time (incidents without a time only
+ *     without a range); type filters on the indexed type_key like the dashboard
+ *   - messages: from / to are UTC days of sentAtMs; officer = sender or receiver
+ *
+ * The read transaction stays open while the caller's OutputStream consumes the rows.
+ */
+@Service
+public class ExportService {
+
+    public enum Format {
+        NDJSON, CSV;
+
+        /** "ndjson" / "csv" (any case); null = NDJSON. */
+        public static Format parse(String value) {
+            if (value == null || value.isBlank()) return NDJSON;
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown format: " + value + " (use ndjson or csv)");
+            }
+        }
+    }
+
+    private static final List<String> INCIDENT_COLUMNS = List.of(
+            "id", "type", "place", "time", "notes", "rankLevel", "score", "isNew", "latitude", "longitude");
+    private static final List<String> MESSAGE_COLUMNS = List.of(
+            "id", "chatId", "sender", "receiver", "text", "time", "sentAtMs");
+
+    private final IncidentRepository incidentRepository;
+    private final MessageRepository messageRepository;
+    private final ObjectMapper objectMapper;
+
+    public ExportService(IncidentRepository incidentRepository, MessageRepository messageRepository,
+                         ObjectMapper objectMapper) {
+        this.incidentRepository = incidentRepository;
+        this.messageRepository = messageRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /** Checks an export range before the response starts: both ends optional, from <= to. */
+    public static void validateRange(LocalDate from, LocalDate to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("from is after to");
+        }
+    }
+
+    /**
+     * Writes the matching incidents in id order. Does not close out.
+     *
+     * @return number of rows written
+     */
+    @Transactional(readOnly = true)
+    public long writeIncidents(OutputStream out, Format format, LocalDate from, LocalDate to,
+                               Collection<String> types) throws IOException {
+        validateRange(from, to);
+        List<String> keys = (types == null) ? List.of() : types.stream()
+                .map(Incident::normalizeType)
+                .filter(t -> t != null && !t.isEmpty())
+                .distinct()
+                .toList();
+        boolean allTypes = keys.isEmpty();
+        if (allTypes) keys = List.of(""); // IN () is not valid SQL; ignored when allTypes
+
+        LocalDateTime start = (from == null) ? null : from.atStartOfDay();
+        LocalDateTime endExclusive = (to == null) ? null : to.plusDays(1).atStartOfDay();
+
+        long started = System.nanoTime();
+        try (Stream<IncidentExportRow> rows = incidentRepository.streamForExport(start, endExclusive, allTypes, keys)) {
+            long n = write(out, format, INCIDENT_COLUMNS, rows.iterator(), r -> new Object[]{
+                    r.id(), r.type(), r.place(), r.time(), r.notes(), r.rankLevel(), r.score(), r.isNew(),
+                    r.latitude(), r.longitude()});
+            System.out.println("LOG: Exported " + n + " incidents (" + format + ") in "
+                    + (System.nanoTime() - started) / 1_000_000 + " ms");
+            return n;
+        }
+    }
+
+    /**
+     * Writes the matching messages in id order. Does not close out.
+     *
+     * @return number of rows written
+     */
+    @Transactional(readOnly = true)
+    public long writeMessages(OutputStream out, Format format, LocalDate from, LocalDate to,
+                              String officer) throws IOException {
+        validateRange(from, to);
+        Long fromMs = (from == null) ? null : from.atStartOfDay().toInstant(ZoneOffset.UTC).toEpochMilli();
+        Long toMs = (to == null) ? null : to.plusDays(1).atStartOfDay().toInstant(ZoneOffset.UTC).toEpochMilli() - 1;
+        String party = (officer == null || officer.isBlank()) ? null : officer;
+
+        long started = System.nanoTime();
+        try (Stream<MessageExportRow> rows = messageRepository.streamForExport(fromMs, toMs, party)) {
+            long n = write(out, format, MESSAGE_COLUMNS, rows.iterator(), r -> new Object[]{
+                    r.id(), r.chatId(), r.sender(), r.receiver(), r.text(), r.time(), r.sentAtMs()});
+            System.out.println("LOG: Exported " + n + " messages (" + format + ") in "
+                    + (System.nanoTime() - started) / 1_000_000 + " ms");
+            return n;
+        }
+    }
+
+    private <T> long write(OutputStream out, Format format, List<String> columns, Iterator<T> rows,
+                           Function<T, Object[]> values) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        long n = 0;
+        if (format == Format.CSV) writeCsvLine(writer, columns.toArray());
+        while (rows.hasNext()) {
+            T row = rows.next();
+            if (format == Format.CSV) {
+                writeCsvLine(writer, values.apply(row));
+            } else {
+                writer.write(objectMapper.writeValueAsString(row));
+                writer.write('\n');
+            }
+            n++;
+        }
+        writer.flush();
+        return n;
+    }
+
+    // RFC 4180: fields with a comma, quote or line break are quoted, quotes doubled; null = empty
+    private static void writeCsvLine(Writer writer, Object[] fields) throws IOException {
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) writer.write(',');
+            Object field = fields[i];
+            if (field == null) continue;
+            String s = field.toString();
+            if (s.indexOf(',') < 0 && s.indexOf('"') < 0 && s.indexOf('\n') < 0 && s.indexOf('\r') < 0) {
+                writer.write(s);
+            } else {
+                writer.write('"');
+                writer.write(s.replace("\"", "\"\""));
+                writer.write('"');
+            }
+        }
+        writer.write("\r\n");
+    }
+}
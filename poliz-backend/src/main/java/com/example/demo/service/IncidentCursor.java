@@ -0,0 +1,32 @@
+package com.example.demo.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Position of the last incident on a page, ordered by (time desc, id desc).
+ * Incidents without a time come after all timed ones, ordered by id desc.
+ * Encoded as an opaque URL-safe string for clients.
+ */
+record IncidentCursor(LocalDateTime time, long id) {
+
+    private static final String NO_TIME = "-";
+
+    String encode() {
+        String raw = (time == null ? NO_TIME : time.toString()) + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static IncidentCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.lastIndexOf('|');
+            String t = raw.substring(0, sep);
+            long id = Long.parseLong(raw.substring(sep + 1));
+            return new IncidentCursor(NO_TIME.equals(t) ? null : LocalDateTime.parse(t), id);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.demo.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monotonic version of the incident data, bumped after every committed IncidentService write
+ * (IncidentsSavedEvent / IncidentsReadEvent). The list endpoints send it as ETag and answer
+ * 304 Not Modified when the client already has it, without querying or serializing.
+ *
+ * Read the ETag before loading the data: a write that lands in between then only causes
+ * one extra download later, never a stale cache entry.
+ */
+@Component
+public class IncidentDataVersion {
+
+    // starts at boot time (ms) so versions from before a restart are never reused
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis());
+
+    public long current() {
+        return version.get();
+    }
+
+    public String etag() {
+        return "\"incidents-" + version.get() + "\"";
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onIncidentsSaved(IncidentsSavedEvent event) {
+        version.incrementAndGet();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onIncidentsRead(IncidentsReadEvent event) {
+        version.incrementAndGet();
+    }
+
+    /** If-None-Match check: "*" or any listed tag (weak or strong) equal to etag. */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) return false;
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.startsWith("W/")) tag = tag.substring(2);
+            if (tag.equals("*") || tag.equals(etag)) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,341 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Incident;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Server-sent events for GET /api/v1/events/stream (replaces badge polling).
+ *
+ * Events:
+ *   "incident" - a newly saved (isNew) incident as JSON, id = sequence number
+ *   "count"    - current new-incident count, sent on connect and after every change
+ *   "resync"   - Last-Event-ID is too old to replay; the client should reload its list
+ * plus a ":heartbeat" comment every heartbeat-ms so proxies keep the connection open.
+ *
+ * Every client has a bounded outbox drained by a small sender pool; a client whose
+ * outbox overflows is disconnected and catches up by reconnecting with Last-Event-ID
+ * (the last replay-size incidents are kept). Writers never wait on a slow client.
+ * A client whose send blocks longer than send-timeout-ms (stalled TCP window) is dropped
+ * as well; while that send is still stuck the pool gets one extra thread, so stalled
+ * clients never take the senders of healthy ones.
+ *
+ * The count is read once per change (coalesced), never per client, and only after
+ * NewIncidentCounter has applied the change (NewIncidentCountChangedEvent).
+ */
+@Component
+public class IncidentEventStream {
+
+    private record Replay(long id, String json) {}
+
+    /** One queued SSE frame; built per send because SseEventBuilder is not reusable. */
+    private record Frame(Long id, String name, String data, String comment) {
+        SseEmitter.SseEventBuilder toEvent() {
+            SseEmitter.SseEventBuilder event = SseEmitter.event();
+            if (comment != null) return event.comment(comment);
+            if (id != null) event.id(Long.toString(id));
+            return event.name(name).data(data); // already JSON / plain text
+        }
+    }
+
+    private final IncidentService incidentService;
+    private final ObjectMapper objectMapper;
+    private final Executor senders;
+    private final int replaySize;
+    private final int clientBuffer;
+    private final long heartbeatMs;
+    private final long timeoutMs;
+    private final long sendTimeoutMs;
+
+    private final Set<Client> clients = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean countRefreshPending = new AtomicBoolean();
+    private final AtomicInteger newCount = new AtomicInteger();
+    private final AtomicInteger stuckSenders = new AtomicInteger();
+
+    // guarded by this: sequence + replay buffer + fan-out, so every client sees one order
+    private final ArrayDeque<Replay> replay = new ArrayDeque<>();
+    // starts at boot time (ms) so ids from before a restart are always older than the buffer
+    private long lastId = System.currentTimeMillis();
+
+    private ScheduledExecutorService heartbeat;
+
+    @Autowired
+    public IncidentEventStream(
+            IncidentService incidentService,
+            ObjectMapper objectMapper,
+            @Value("${poliz.stream.sender-threads:4}") int senderThreads,
+            @Value("${poliz.stream.replay-size:500}") int replaySize,
+            @Value("${poliz.stream.client-buffer:64}") int clientBuffer,
+            @Value("${poliz.stream.heartbeat-ms:15000}") long heartbeatMs,
+            @Value("${poliz.stream.timeout-ms:1800000}") long timeoutMs,
+            @Value("${poliz.stream.send-timeout-ms:10000}") long sendTimeoutMs
+    ) {
+        this(incidentService, objectMapper, Executors.newFixedThreadPool(senderThreads, r -> {
+            Thread t = new Thread(r, "incident-stream");
+            t.setDaemon(true);
+            return t;
+        }), replaySize, clientBuffer, heartbeatMs, timeoutMs, sendTimeoutMs);
+    }
+
+    IncidentEventStream(IncidentService incidentService, ObjectMapper objectMapper, Executor senders,
+                        int replaySize, int clientBuffer, long heartbeatMs, long timeoutMs, long sendTimeoutMs) {
+        this.incidentService = incidentService;
+        this.objectMapper = objectMapper;
+        this.senders = senders;
+        this.replaySize = replaySize;
+        this.clientBuffer = clientBuffer;
+        this.heartbeatMs = heartbeatMs;
+        this.timeoutMs = timeoutMs;
+        this.sendTimeoutMs = sendTimeoutMs;
+    }
+
+    @PostConstruct
+    public void start() {
+        heartbeat = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "incident-stream-heartbeat");
+            t.setDaemon(true);
+            return t;
+        });
+        heartbeat.scheduleAtFixedRate(this::sendHeartbeat, heartbeatMs, heartbeatMs, TimeUnit.MILLISECONDS);
+        long checkMs = Math.max(1, sendTimeoutMs / 2);
+        heartbeat.scheduleAtFixedRate(this::dropStalledClients, checkMs, checkMs, TimeUnit.MILLISECONDS);
+        requestCountRefresh();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (heartbeat != null) heartbeat.shutdownNow();
+        clients.forEach(Client::complete);
+        if (senders instanceof ExecutorService pool) pool.shutdownNow();
+    }
+
+    /**
+     * Opens a stream. With lastEventId, incidents saved after that id are replayed first
+     * (or a "resync" event is sent if they are no longer buffered).
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        SseEmitter emitter = newEmitter(timeoutMs);
+        Client client = new Client(emitter);
+        emitter.onCompletion(client::close);
+        emitter.onTimeout(client::close);
+        emitter.onError(e -> client.close());
+
+        synchronized (this) {
+            clients.add(client);
+            Long after = parseId(lastEventId);
+            if (after != null && after < lastId) {
+                if (replay.isEmpty() || replay.peekFirst().id() > after + 1) {
+                    client.enqueue(new Frame(lastId, "resync", "reload", null));
+                } else {
+                    for (Replay r : replay) {
+                        if (r.id() > after) client.enqueue(new Frame(r.id(), "incident", r.json(), null));
+                    }
+                }
+            } else if (after != null && after > lastId) { // id from another server run
+                client.enqueue(new Frame(lastId, "resync", "reload", null));
+            }
+            client.enqueue(new Frame(lastId, "count", Integer.toString(newCount.get()), null));
+        }
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return clients.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onIncidentsSaved(IncidentsSavedEvent event) {
+        for (Incident incident : event.incidents()) {
+            if (!incident.isNew()) continue; // imported history is not news
+            String json;
+            try {
+                json = objectMapper.writeValueAsString(incident); // once, not per client
+            } catch (JsonProcessingException e) {
+                System.out.println("LOG: Stream skipped incident " + incident.getId() + ": " + e.getMessage());
+                continue;
+            }
+            synchronized (this) {
+                long id = ++lastId;
+                replay.addLast(new Replay(id, json));
+                if (replay.size() > replaySize) replay.removeFirst();
+                broadcast(new Frame(id, "incident", json, null));
+            }
+        }
+    }
+
+    @EventListener
+    public void onNewIncidentCountChanged(NewIncidentCountChangedEvent event) {
+        requestCountRefresh();
+    }
+
+    SseEmitter newEmitter(long timeoutMs) {
+        return new SseEmitter(timeoutMs);
+    }
+
+    void sendHeartbeat() {
+        broadcast(new Frame(null, null, null, "heartbeat"));
+    }
+
+    /** Drops clients whose current send has blocked longer than send-timeout-ms. */
+    void dropStalledClients() {
+        long now = System.nanoTime();
+        for (Client client : clients) {
+            long since = client.sendingSince;
+            if (since != 0 && now - since > TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs)) {
+                System.out.println("LOG: Stream client send blocked over " + sendTimeoutMs + " ms, disconnecting");
+                client.stall();
+            }
+        }
+    }
+
+    // one extra sender per stuck send, so the others keep poliz.stream.sender-threads working
+    private void resizeSenders(int delta) {
+        if (!(senders instanceof ThreadPoolExecutor pool)) return;
+        synchronized (pool) {
+            int size = pool.getCorePoolSize() + delta;
+            if (delta > 0) {
+                pool.setMaximumPoolSize(size);
+                pool.setCorePoolSize(size);
+            } else {
+                pool.setCorePoolSize(size);
+                pool.setMaximumPoolSize(size);
+            }
+        }
+    }
+
+    int getStuckSenders() {
+        return stuckSenders.get();
+    }
+
+    /** Re-reads the count on a sender thread; a burst of saves causes one query. */
+    private void requestCountRefresh() {
+        if (!countRefreshPending.compareAndSet(false, true)) return;
+        senders.execute(() -> {
+            countRefreshPending.set(false); // later changes schedule another refresh
+            int count;
+            try {
+                count = incidentService.getNewIncidentCount();
+            } catch (RuntimeException e) {
+                System.out.println("LOG: Stream count refresh failed: " + e.getMessage());
+                return;
+            }
+            newCount.set(count);
+            synchronized (this) {
+                broadcast(new Frame(lastId, "count", Integer.toString(count), null));
+            }
+        });
+    }
+
+    private void broadcast(Frame frame) {
+        for (Client client : clients) client.enqueue(frame);
+    }
+
+    private static Long parseId(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) return null;
+        try {
+            return Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private final class Client {
+        private final SseEmitter emitter;
+        private final BlockingQueue<Frame> outbox = new ArrayBlockingQueue<>(clientBuffer);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean stalled = new AtomicBoolean();
+        private volatile boolean closed;
+        private volatile long sendingSince;      // System.nanoTime() of the send in progress, 0 = idle
+        private volatile Thread sender;
+
+        Client(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void enqueue(Frame frame) {
+            if (closed) return;
+            if (!outbox.offer(frame)) {
+                System.out.println("LOG: Stream client too slow, disconnecting (" + clientBuffer + " events pending)");
+                complete();
+                return;
+            }
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) senders.execute(this::drain);
+        }
+
+        private void drain() {
+            sender = Thread.currentThread();
+            try {
+                Frame frame;
+                while (!closed && (frame = outbox.poll()) != null) {
+                    sendingSince = System.nanoTime() | 1;
+                    emitter.send(frame.toEvent());
+                    sendingSince = 0;
+                }
+            } catch (IOException | IllegalStateException e) { // client went away
+                close();
+            } finally {
+                sendingSince = 0;
+                sender = null;
+                if (stalled.get()) {
+                    Thread.interrupted();         // our interrupt, not the pool's
+                    stuckSenders.decrementAndGet();
+                    resizeSenders(-1);
+                }
+                draining.set(false);
+            }
+            if (!closed && !outbox.isEmpty()) scheduleDrain();
+        }
+
+        /** The send in progress is stuck: stop feeding this client and free its sender. */
+        void stall() {
+            Thread stuck = sender;
+            if (stuck == null || !stalled.compareAndSet(false, true)) return;
+            close();
+            stuckSenders.incrementAndGet();
+            resizeSenders(1);
+            stuck.interrupt();                    // may unblock the write; the extra thread covers it if not
+        }
+
+        void complete() {
+            close();
+            try {
+                emitter.complete();
+            } catch (RuntimeException ignored) {
+                // already completed
+            }
+        }
+
+        void close() {
+            closed = true;
+            clients.remove(this);
+            outbox.clear();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Incident;
+import com.example.demo.repository.IncidentRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Commit-ordered positions (Incident.feedSeq) for incidents that arrived as new; the basis
+ * of the per-officer read marks in IncidentReadService.
+ *
+ * Ids come from a pooled sequence, so a lower id can commit after a higher one and a mark
+ * at the higher id would skip it for good. Instead every saved batch is stamped after its
+ * transaction commits, one batch at a time under a lock, above everything stamped before.
+ * A row that is not stamped yet when a mark is taken therefore always lands above the mark.
+ * Imported history (isNew = false on arrival) is never stamped, so it is never unread.
+ *
+ * Rows left unstamped (crash between commit and stamp) are stamped at startup.
+ */
+@Component
+public class IncidentFeedSequence {
+
+    private final IncidentRepository repository;
+    private final TransactionTemplate requiresNew;
+    private long last; // guarded by this: highest position stamped
+
+    public IncidentFeedSequence(IncidentRepository repository, PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        // runs after the saving transaction committed; joining it would never commit
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @PostConstruct
+    public synchronized void stampStragglers() {
+        last = Optional.ofNullable(repository.findMaxFeedSeq()).orElse(0L);
+        Long minId = repository.findMinUnstampedId();
+        if (minId == null) return;
+        long offset = last + 1 - minId;
+        int stamped = requiresNew.execute(s -> repository.stampAllUnstamped(offset));
+        last = Optional.ofNullable(repository.findMaxFeedSeq()).orElse(last);
+        System.out.println("LOG: Stamped " + stamped + " unstamped new incident(s) into the read feed");
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onIncidentsSaved(IncidentsSavedEvent event) {
+        List<Long> ids = event.incidents().stream()
+                .filter(i -> Boolean.TRUE.equals(i.getArrivedNew()))
+                .map(Incident::getId)
+                .filter(Objects::nonNull)
+                .toList();
+        if (!ids.isEmpty()) stamp(ids);
+    }
+
+    // the stamp commits inside the lock, so positions become visible in increasing order
+    private synchronized void stamp(List<Long> ids) {
+        long minId = ids.stream().mapToLong(Long::longValue).min().getAsLong();
+        long maxId = ids.stream().mapToLong(Long::longValue).max().getAsLong();
+        long offset = last + 1 - minId;
+        requiresNew.executeWithoutResult(s -> repository.stampFeedSeq(ids, offset));
+        last = maxId + offset;
+    }
+}
@@ -0,0 +1,290 @@
+package com.example.demo.service;
+
+import com.example.demo.model.HeatmapCell;
+import com.example.demo.model.Incident;
+import com.example.demo.repository.IncidentLocation;
+import com.example.demo.repository.IncidentRepository;
+import com.example.demo.model.Geohash;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pre-aggregated heatmap for the crime dashboard.
+ *
+ * Zoom levels 0..MEMORY_ZOOM are kept in memory: every located incident is counted in its
+ * slippy-map tile per rankLevel, as an all-time total plus hour buckets for the last
+ * retention-days. Memory is bounded by occupied coarse tiles x retained hours, not by the
+ * number of incidents. A query walks only the tiles of the viewport at the requested zoom.
+ *
+ * Finer zooms (small viewports) and windows starting before the retention cutoff are counted
+ * from the database instead: the viewport's geohash ranges, trimmed to the box and window.
+ *
+ * Rebuilt from the Incident table at startup and updated on every IncidentsSavedEvent.
+ */
+@Component
+public class IncidentHeatmap {
+
+    public static final int MAX_ZOOM = 16;
+    static final int MEMORY_ZOOM = 10;        // ~40 km tiles; finer levels come from the database
+    public static final int MAX_CELLS = 4096; // tiles per request
+    private static final double MAX_MERCATOR_LAT = 85.05112878;
+
+    private static final List<String> RANKS = List.of("CRITICAL", "HIGH", "MEDIUM", "LOW");
+    private static final int OTHER = RANKS.size();
+
+    private final IncidentRepository repository;
+    private final Clock clock;
+    private final long retentionHours;
+    // per in-memory zoom level: (x << 32 | y) -> counts
+    private final List<Map<Long, Tile>> levels = new ArrayList<>();
+    private long prunedBefore = Long.MIN_VALUE; // guarded by this
+
+    /** Counts of one tile: [rank] in total (timed or not), and per retained hour bucket. */
+    private static final class Tile {
+        final int[] total = new int[OTHER + 1];
+        final NavigableMap<Long, int[]> byHour = new TreeMap<>();
+
+        synchronized void add(Long hour, int rank, long cutoffHour) {
+            total[rank]++;
+            if (hour != null && hour >= cutoffHour) {
+                byHour.computeIfAbsent(hour, h -> new int[OTHER + 1])[rank]++;
+            }
+        }
+
+        synchronized void prune(long cutoffHour) {
+            byHour.headMap(cutoffHour, false).clear();
+        }
+
+        synchronized void sumInto(Long fromHour, Long toHour, int[] out) {
+            if (fromHour == null && toHour == null) {
+                addAll(total, out);
+                return;
+            }
+            NavigableMap<Long, int[]> window = byHour;
+            if (fromHour != null) window = window.tailMap(fromHour, true);
+            if (toHour != null) window = window.headMap(toHour, false);
+            for (int[] counts : window.values()) addAll(counts, out);
+        }
+
+        private static void addAll(int[] counts, int[] out) {
+            for (int r = 0; r < counts.length; r++) out[r] += counts[r];
+        }
+    }
+
+    @Autowired
+    public IncidentHeatmap(IncidentRepository repository,
+                           @Value("${poliz.heatmap.retention-days:30}") int retentionDays) {
+        this(repository, Clock.systemDefaultZone(), retentionDays);
+    }
+
+    IncidentHeatmap(IncidentRepository repository, Clock clock, int retentionDays) {
+        this.repository = repository;
+        this.clock = clock;
+        this.retentionHours = retentionDays * 24L;
+        for (int z = 0; z <= MEMORY_ZOOM; z++) levels.add(new ConcurrentHashMap<>());
+    }
+
+    @PostConstruct
+    public void load() {
+        levels.forEach(Map::clear);
+        List<IncidentLocation> rows = repository.findByLatitudeIsNotNullAndLongitudeIsNotNull();
+        for (IncidentLocation row : rows) {
+            add(row.getLatitude(), row.getLongitude(), row.getTime(), row.getRankLevel());
+        }
+        System.out.println("LOG: Heatmap loaded " + rows.size() + " incident(s)");
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onIncidentsSaved(IncidentsSavedEvent event) {
+        for (Incident i : event.incidents()) {
+            if (i.getLatitude() != null && i.getLongitude() != null) {
+                add(i.getLatitude(), i.getLongitude(), i.getTime(), i.getRankLevel());
+            }
+        }
+    }
+
+    void add(double lat, double lon, LocalDateTime time, String rankLevel) {
+        Long hour = (time == null) ? null : hourOf(time);
+        int rank = rankOf(rankLevel);
+        long cutoff = cutoffHour();
+        double tx = tileX(lon), ty = tileY(lat);
+        for (int z = 0; z <= MEMORY_ZOOM; z++) {
+            int n = 1 << z;
+            int x = clamp((int) (tx * n), n), y = clamp((int) (ty * n), n);
+            levels.get(z).computeIfAbsent(key(x, y), k -> new Tile()).add(hour, rank, cutoff);
+        }
+    }
+
+    /**
+     * Non-empty tiles of the viewport at the given zoom.
+     * from/to = optional window [from, to) at hour resolution (from rounded down, to rounded up);
+     * incidents without a time are only counted when there is no window.
+     *
+     * @throws IllegalArgumentException bad zoom or box, or more than MAX_CELLS tiles in the viewport
+     */
+    public List<HeatmapCell> getTiles(int zoom, double minLat, double minLon, double maxLat, double maxLon,
+                                      LocalDateTime from, LocalDateTime to) {
+        if (zoom < 0 || zoom > MAX_ZOOM) {
+            throw new IllegalArgumentException("zoom must be between 0 and " + MAX_ZOOM);
+        }
+        if (!(minLat <= maxLat && minLon <= maxLon)
+                || minLat < -90 || maxLat > 90 || minLon < -180 || maxLon > 180) {
+            throw new IllegalArgumentException("Invalid bounding box");
+        }
+        int n = 1 << zoom;
+        int x0 = clamp((int) (tileX(minLon) * n), n), x1 = clamp((int) (tileX(maxLon) * n), n);
+        int y0 = clamp((int) (tileY(maxLat) * n), n), y1 = clamp((int) (tileY(minLat) * n), n); // y grows southwards
+        long viewportCells = (long) (x1 - x0 + 1) * (y1 - y0 + 1);
+        if (viewportCells > MAX_CELLS) {
+            throw new IllegalArgumentException("Viewport covers " + viewportCells + " tiles (max " + MAX_CELLS + ")");
+        }
+
+        Long fromHour = (from == null) ? null : hourOf(from);
+        Long toHour = (to == null) ? null : hourOf(to.plusHours(1).minusNanos(1));
+
+        boolean inMemory = zoom <= MEMORY_ZOOM
+                && ((fromHour == null && toHour == null) || (fromHour != null && fromHour >= cutoffHour()));
+        if (!inMemory) {
+            return countFromDatabase(zoom, minLat, minLon, maxLat, maxLon, x0, x1, y0, y1, fromHour, toHour);
+        }
+
+        Map<Long, Tile> level = levels.get(zoom);
+        List<HeatmapCell> cells = new ArrayList<>();
+        if (viewportCells <= level.size()) {
+            for (int x = x0; x <= x1; x++) {
+                for (int y = y0; y <= y1; y++) {
+                    addCell(cells, zoom, x, y, level.get(key(x, y)), fromHour, toHour);
+                }
+            }
+        } else { // sparse level: fewer occupied tiles than tiles in view
+            for (Map.Entry<Long, Tile> e : level.entrySet()) {
+                int x = (int) (e.getKey() >>> 32), y = (int) (long) e.getKey();
+                if (x >= x0 && x <= x1 && y >= y0 && y <= y1) {
+                    addCell(cells, zoom, x, y, e.getValue(), fromHour, toHour);
+                }
+            }
+        }
+        return cells;
+    }
+
+    /** Viewport tiles counted from the incidents in the box's geohash ranges and the window. */
+    private List<HeatmapCell> countFromDatabase(int zoom, double minLat, double minLon, double maxLat, double maxLon,
+                                                int x0, int x1, int y0, int y1, Long fromHour, Long toHour) {
+        LocalDateTime from = (fromHour == null) ? null : LocalDateTime.ofEpochSecond(fromHour * 3600, 0, ZoneOffset.UTC);
+        LocalDateTime toExclusive = (toHour == null) ? null : LocalDateTime.ofEpochSecond(toHour * 3600, 0, ZoneOffset.UTC);
+        int n = 1 << zoom;
+        // whole viewport tiles, like the in-memory levels: widen the box to the tile edges
+        // (a hair more; the tile range check below drops the neighbours)
+        double pad = 1e-9;
+        double west = Math.max(-180, lonOf(x0, n) - pad), east = Math.min(180, lonOf(x1 + 1, n) + pad);
+        double south = Math.max(-90, latOf(y1 + 1, n) - pad), north = Math.min(90, latOf(y0, n) + pad);
+        if (y1 == n - 1) south = -90;   // Mercator clamps the poles into the edge rows
+        if (y0 == 0) north = 90;
+        Map<Long, int[]> counts = new HashMap<>();
+        for (Geohash.Range r : Geohash.cover(south, west, north, east)) {
+            for (IncidentLocation row : repository.findHeatmapPoints(r.lo(), r.hiExclusive(),
+                    south, north, west, east, from, toExclusive)) {
+                int x = clamp((int) (tileX(row.getLongitude()) * n), n), y = clamp((int) (tileY(row.getLatitude()) * n), n);
+                if (x < x0 || x > x1 || y < y0 || y > y1) continue;
+                counts.computeIfAbsent(key(x, y), k -> new int[OTHER + 1])[rankOf(row.getRankLevel())]++;
+            }
+        }
+        List<HeatmapCell> cells = new ArrayList<>(counts.size());
+        counts.forEach((k, c) -> addCell(cells, zoom, (int) (k >>> 32), (int) (long) k, c));
+        return cells;
+    }
+
+    private static void addCell(List<HeatmapCell> cells, int zoom, int x, int y, Tile tile,
+                                Long fromHour, Long toHour) {
+        if (tile == null) return;
+        int[] counts = new int[OTHER + 1];
+        tile.sumInto(fromHour, toHour, counts);
+        addCell(cells, zoom, x, y, counts);
+    }
+
+    private static void addCell(List<HeatmapCell> cells, int zoom, int x, int y, int[] counts) {
+        int total = 0;
+        for (int c : counts) total += c;
+        if (total == 0) return;
+
+        int n = 1 << zoom;
+        double lon = (x + 0.5) / n * 360.0 - 180.0;
+        double lat = Math.toDegrees(Math.atan(Math.sinh(Math.PI * (1 - 2 * (y + 0.5) / n))));
+        cells.add(new HeatmapCell(x, y, lat, lon, counts[0], counts[1], counts[2], counts[3], total));
+    }
+
+    /** Hour buckets currently held across all in-memory tiles (diagnostics / tests). */
+    long hourBuckets() {
+        long n = 0;
+        for (Map<Long, Tile> level : levels) {
+            for (Tile tile : level.values()) {
+                synchronized (tile) {
+                    n += tile.byHour.size();
+                }
+            }
+        }
+        return n;
+    }
+
+    /** First retained hour bucket; hour buckets before it are dropped (once per hour). */
+    private synchronized long cutoffHour() {
+        long cutoff = hourOf(LocalDateTime.now(clock)) - retentionHours;
+        if (cutoff > prunedBefore) {
+            for (Map<Long, Tile> level : levels) level.values().forEach(t -> t.prune(cutoff));
+            prunedBefore = cutoff;
+        }
+        return cutoff;
+    }
+
+    // west edge / north edge of tile column x / row y at n tiles per side
+    private static double lonOf(int x, int n) {
+        return (double) x / n * 360 - 180;
+    }
+
+    private static double latOf(int y, int n) {
+        return Math.toDegrees(Math.atan(Math.sinh(Math.PI * (1 - 2.0 * y / n))));
+    }
+
+    // fraction of the world width / height (0..1) in Web Mercator
+    private static double tileX(double lon) {
+        return (lon + 180.0) / 360.0;
+    }
+
+    private static double tileY(double lat) {
+        double phi = Math.toRadians(Math.max(-MAX_MERCATOR_LAT, Math.min(MAX_MERCATOR_LAT, lat)));
+        return (1 - Math.log(Math.tan(phi) + 1 / Math.cos(phi)) / Math.PI) / 2;
+    }
+
+    private static int clamp(int tile, int n) {
+        return Math.max(0, Math.min(n - 1, tile));
+    }
+
+    private static long key(int x, int y) {
+        return ((long) x << 32) | y;
+    }
+
+    private static long hourOf(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 3600);
+    }
+
+    private static int rankOf(String rankLevel) {
+        if (rankLevel == null) return OTHER;
+        int idx = RANKS.indexOf(rankLevel.toUpperCase(Locale.ROOT));
+        return idx < 0 ? OTHER : idx;
+    }
+}
@@ -0,0 +1,256 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Incident;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Streaming import of historical incidents from CSV or NDJSON.
+ *
+ * - Reads the file line by line; only one chunk of incidents is held in memory.
+ * - Scores each chunk in parallel on a ForkJoinPool with IncidentService.applyScore.
+ * - Commits each chunk in its own transaction, then writes "<file>.offset"
+ *   (number of data lines committed) so an interrupted import can resume there.
+ *
+ * CSV needs a header row with: type, place, time, notes, latitude, longitude
+ * (quoted fields allowed, one record per line). NDJSON is one Incident JSON object per line,
+ * e.g. an incident export; ids in the file are ignored, every row is inserted as a new incident.
+ * Imported incidents are history, so they are stored with isNew = false.
+ * Skipped rows are counted; only the first few are logged, plus one summary line per file.
+ */
+@Service
+public class IncidentImportService {
+
+    public record ImportReport(long imported, long skipped, long resumedFrom, long elapsedMs, double rowsPerSecond) {}
+
+    static final int LOGGED_SKIPS = 3; // sample lines per file; the rest are only counted
+
+    /** Logs the first LOGGED_SKIPS skipped rows of one import; safe from the scoring pool. */
+    private static final class SkipLog {
+        private final AtomicInteger left = new AtomicInteger(LOGGED_SKIPS);
+
+        void sample(String message) {
+            if (left.getAndDecrement() > 0) System.out.println("LOG: Import skipped " + message);
+        }
+    }
+
+    private final IncidentService incidentService;
+    private final ObjectMapper objectMapper;
+
+    public IncidentImportService(IncidentService incidentService, ObjectMapper objectMapper) {
+        this.incidentService = incidentService;
+        this.objectMapper = objectMapper;
+    }
+
+    public ImportReport importFile(Path file, boolean resume, int chunkSize, int parallelism) throws IOException {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        boolean csv = name.endsWith(".csv");
+        if (!csv && !name.endsWith(".ndjson") && !name.endsWith(".jsonl")) {
+            throw new IllegalArgumentException("Unsupported import file (use .csv, .ndjson or .jsonl): " + file);
+        }
+
+        Path offsetFile = file.resolveSibling(file.getFileName() + ".offset");
+        long resumedFrom = (resume && Files.exists(offsetFile))
+                ? Long.parseLong(Files.readString(offsetFile).trim())
+                : 0;
+
+        long start = System.nanoTime();
+        long committed = resumedFrom;
+        long imported = 0;
+        long skipped = 0;
+
+        SkipLog skipLog = new SkipLog();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            Map<String, Integer> columns = csv ? readHeader(reader) : Map.of();
+
+            for (long n = 0; n < resumedFrom; n++) {
+                if (reader.readLine() == null) break;
+            }
+
+            List<Incident> chunk = new ArrayList<>(chunkSize);
+            long linesInChunk = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                linesInChunk++;
+                if (!line.isBlank()) {
+                    try {
+                        chunk.add(csv ? parseCsv(line, columns) : parseJson(line));
+                    } catch (IOException | RuntimeException e) {
+                        skipped++;
+                        skipLog.sample("line " + (committed + linesInChunk) + ": " + e.getMessage());
+                    }
+                }
+                if (linesInChunk == chunkSize) {
+                    int n = commitChunk(pool, chunk, skipLog);
+                    imported += n;
+                    skipped += chunk.size() - n;
+                    committed += linesInChunk;
+                    writeOffset(offsetFile, committed);
+                    chunk.clear();
+                    linesInChunk = 0;
+                }
+            }
+            if (linesInChunk > 0) {
+                int n = commitChunk(pool, chunk, skipLog);
+                imported += n;
+                skipped += chunk.size() - n;
+                committed += linesInChunk;
+                writeOffset(offsetFile, committed);
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        if (skipped > LOGGED_SKIPS) {
+            System.out.println("LOG: Import skipped " + skipped + " row(s) of " + file.getFileName()
+                    + " in total (first " + LOGGED_SKIPS + " shown)");
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        double perSecond = elapsedNanos == 0 ? 0 : imported * 1_000_000_000.0 / elapsedNanos;
+        System.out.println("✅ Imported " + imported + " incident(s) from " + file.getFileName() +
+                " (" + skipped + " skipped, resumed at line " + resumedFrom + ") in " +
+                elapsedNanos / 1_000_000 + " ms -> " + Math.round(perSecond) + " rows/s");
+
+        return new ImportReport(imported, skipped, resumedFrom, elapsedNanos / 1_000_000, perSecond);
+    }
+
+    private int commitChunk(ForkJoinPool pool, List<Incident> chunk, SkipLog skipLog) {
+        if (chunk.isEmpty()) return 0;
+
+        List<Incident> scored;
+        try {
+            scored = pool.submit(() -> chunk.parallelStream()
+                    .filter(incident -> scoreQuietly(incident, skipLog))
+                    .toList()).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Import interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Scoring failed", e.getCause());
+        }
+
+        incidentService.saveScored(scored);
+        return scored.size();
+    }
+
+    private boolean scoreQuietly(Incident incident, SkipLog skipLog) {
+        try {
+            incidentService.applyScore(incident);
+            incident.setNew(false); // history, not a new alert
+            return true;
+        } catch (RuntimeException e) {
+            skipLog.sample("incident that could not be scored: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static void writeOffset(Path offsetFile, long committed) {
+        try {
+            Path tmp = offsetFile.resolveSibling(offsetFile.getFileName() + ".tmp");
+            Files.writeString(tmp, Long.toString(committed));
+            Files.move(tmp, offsetFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write import offset " + offsetFile, e);
+        }
+    }
+
+    // ---------- NDJSON ----------
+
+    // exports (GET /api/v1/export/incidents) carry the id: a re-import must insert new rows,
+    // not merge over the incidents that id points to (or fail on ids that are gone)
+    private Incident parseJson(String line) throws IOException {
+        Incident i = objectMapper.readValue(line, Incident.class);
+        i.setId(null);
+        i.setArrivedNew(null); // server-owned: set on insert, stamped after commit
+        i.setFeedSeq(null);
+        return i;
+    }
+
+    // ---------- CSV ----------
+
+    private static Map<String, Integer> readHeader(BufferedReader reader) throws IOException {
+        String header = reader.readLine();
+        if (header == null) return Map.of();
+        List<String> names = splitCsv(header);
+        Map<String, Integer> columns = new HashMap<>();
+        for (int c = 0; c < names.size(); c++) {
+            columns.put(names.get(c).trim().toLowerCase(Locale.ROOT), c);
+        }
+        return columns;
+    }
+
+    private static Incident parseCsv(String line, Map<String, Integer> columns) {
+        List<String> fields = splitCsv(line);
+        Incident i = new Incident();
+        i.setType(field(fields, columns, "type"));
+        i.setPlace(orEmpty(field(fields, columns, "place")));
+        i.setNotes(orEmpty(field(fields, columns, "notes")));
+
+        String time = field(fields, columns, "time");
+        if (time != null) i.setTime(LocalDateTime.parse(time.replace(' ', 'T')));
+
+        String lat = field(fields, columns, "latitude");
+        String lon = field(fields, columns, "longitude");
+        if (lat != null) i.setLatitude(Double.parseDouble(lat));
+        if (lon != null) i.setLongitude(Double.parseDouble(lon));
+        return i;
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String name) {
+        Integer idx = columns.get(name);
+        if (idx == null || idx >= fields.size()) return null;
+        String value = fields.get(idx).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static String orEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    /** Splits one CSV line; supports "quoted, fields" and "" as an escaped quote. */
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int pos = 0; pos < line.length(); pos++) {
+            char c = line.charAt(pos);
+            if (quoted) {
+                if (c == '"' && pos + 1 < line.length() && line.charAt(pos + 1) == '"') {
+                    current.append('"');
+                    pos++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Incident;
+import com.example.demo.model.IncidentBatchResult;
+import com.example.demo.model.IngestStatus;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded in-process queue for POST /api/v1/events/ingest.
+ * The caller gets a tracking id immediately; worker threads drain the queue
+ * in micro-batches and score + save them through IncidentService.addNewIncidents.
+ *
+ * When the queue is full, "when-full=REJECT" refuses at once and
+ * "when-full=BLOCK" waits up to block-timeout-ms for space before refusing.
+ */
+@Component
+public class IncidentIngestQueue {
+
+    public enum WhenFull { REJECT, BLOCK }
+
+    private record Job(String trackingId, Incident incident) {}
+
+    private final IncidentService incidentService;
+    private final BlockingQueue<Job> queue;
+    private final int workerCount;
+    private final int batchSize;
+    private final WhenFull whenFull;
+    private final long blockTimeoutMs;
+    private final int statusRetention;
+
+    // tracking id -> latest status; oldest ids are evicted beyond statusRetention
+    private final Map<String, IngestStatus> statuses = new ConcurrentHashMap<>();
+    private final Queue<String> statusOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger statusCount = new AtomicInteger();
+
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running;
+
+    public IncidentIngestQueue(
+            IncidentService incidentService,
+            @Value("${poliz.ingest.queue-capacity:1000}") int capacity,
+            @Value("${poliz.ingest.workers:2}") int workerCount,
+            @Value("${poliz.ingest.batch-size:50}") int batchSize,
+            @Value("${poliz.ingest.when-full:REJECT}") WhenFull whenFull,
+            @Value("${poliz.ingest.block-timeout-ms:500}") long blockTimeoutMs,
+            @Value("${poliz.ingest.status-retention:10000}") int statusRetention
+    ) {
+        this.incidentService = incidentService;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.workerCount = workerCount;
+        this.batchSize = batchSize;
+        this.whenFull = whenFull;
+        this.blockTimeoutMs = blockTimeoutMs;
+        this.statusRetention = statusRetention;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        for (int n = 0; n < workerCount; n++) {
+            Thread t = new Thread(this::runWorker, "incident-ingest-" + n);
+            t.setDaemon(true);
+            t.start();
+            workers.add(t);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        workers.forEach(Thread::interrupt);
+        for (Thread t : workers) {
+            try {
+                t.join(2000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        workers.clear();
+    }
+
+    /**
+     * Queues the incident for scoring and saving.
+     * Returns the QUEUED status, or empty when the queue is full (backpressure).
+     */
+    public Optional<IngestStatus> submit(Incident incident) {
+        Job job = new Job(UUID.randomUUID().toString(), incident);
+        IngestStatus queued = IngestStatus.queued(job.trackingId());
+
+        boolean accepted;
+        if (whenFull == WhenFull.BLOCK) {
+            try {
+                accepted = queue.offer(job, blockTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                accepted = false;
+            }
+        } else {
+            accepted = queue.offer(job);
+        }
+
+        if (!accepted) return Optional.empty();
+        // registered only once accepted, so a rejection leaves the retention bookkeeping untouched
+        remember(queued);
+        return Optional.of(queued);
+    }
+
+    public Optional<IngestStatus> getStatus(String trackingId) {
+        return Optional.ofNullable(statuses.get(trackingId));
+    }
+
+    private void runWorker() {
+        List<Job> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            queue.drainTo(batch, batchSize - 1);
+            process(batch);
+            batch.clear();
+        }
+    }
+
+    private void process(List<Job> batch) {
+        List<Incident> incidents = new ArrayList<>(batch.size());
+        for (Job job : batch) incidents.add(job.incident());
+
+        try {
+            IncidentBatchResult result = incidentService.addNewIncidents(incidents);
+            for (IncidentBatchResult.ItemResult item : result.items()) {
+                String trackingId = batch.get(item.index()).trackingId();
+                statuses.put(trackingId, IngestStatus.from(trackingId, item));
+            }
+        } catch (RuntimeException e) {
+            // whole micro-batch rolled back (e.g. database unavailable)
+            for (Job job : batch) {
+                statuses.put(job.trackingId(), IngestStatus.failed(job.trackingId(), "Save failed: " + e.getMessage()));
+            }
+        }
+    }
+
+    private void remember(IngestStatus status) {
+        // a fast worker may already have stored the final status; keep it
+        statuses.putIfAbsent(status.trackingId(), status);
+        statusOrder.add(status.trackingId());
+        if (statusCount.incrementAndGet() > statusRetention) {
+            String oldest = statusOrder.poll();
+            if (oldest != null) {
+                statuses.remove(oldest);
+                statusCount.decrementAndGet();
+            }
+        }
+    }
+}
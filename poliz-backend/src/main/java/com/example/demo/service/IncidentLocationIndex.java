@@ -0,0 +1,213 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Incident;
+import com.example.demo.model.NearbyIncident;
+import com.example.demo.repository.IncidentLocation;
+import com.example.demo.repository.IncidentRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * In-memory nearest-incident index for GET /api/v1/events/nearby.
+ *
+ * Points live in a balanced KdTree plus a small append-only buffer for new
+ * incidents. When the buffer is full, tree and buffer are merged into a new
+ * tree (buffer capacity ~ 8 * sqrt(n), so rebuild cost stays small per insert).
+ * Readers never lock: they use whichever snapshot is current.
+ *
+ * Loaded from the Incident table at startup and updated on every IncidentsSavedEvent.
+ */
+@Component
+public class IncidentLocationIndex {
+
+    public record Neighbor(long id, double distanceKm) {}
+
+    static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final int MIN_BUFFER = 1024;
+
+    // rankLevel -> tag stored with each point; anything else is OTHER
+    private static final List<String> RANKS = List.of("CRITICAL", "HIGH", "MEDIUM", "LOW");
+    private static final byte OTHER = (byte) RANKS.size();
+
+    private final IncidentRepository repository;
+    private volatile Snapshot snapshot = new Snapshot(KdTree.EMPTY, MIN_BUFFER);
+
+    /** Tree + buffer; buffer slots are written before the volatile count is raised. */
+    private static final class Snapshot {
+        final KdTree tree;
+        final double[] xs, ys, zs;
+        final long[] ids;
+        final byte[] tags;
+        volatile int buffered;
+
+        Snapshot(KdTree tree, int capacity) {
+            this.tree = tree;
+            this.xs = new double[capacity];
+            this.ys = new double[capacity];
+            this.zs = new double[capacity];
+            this.ids = new long[capacity];
+            this.tags = new byte[capacity];
+        }
+    }
+
+    public IncidentLocationIndex(IncidentRepository repository) {
+        this.repository = repository;
+    }
+
+    @PostConstruct
+    public void load() {
+        List<IncidentLocation> rows = repository.findByLatitudeIsNotNullAndLongitudeIsNotNull();
+        int n = rows.size();
+        double[] xs = new double[n], ys = new double[n], zs = new double[n];
+        long[] ids = new long[n];
+        byte[] tags = new byte[n];
+        for (int i = 0; i < n; i++) {
+            IncidentLocation row = rows.get(i);
+            setPoint(xs, ys, zs, i, row.getLatitude(), row.getLongitude());
+            ids[i] = row.getId();
+            tags[i] = tagOf(row.getRankLevel());
+        }
+        synchronized (this) {
+            snapshot = new Snapshot(new KdTree(xs, ys, zs, ids, tags, n), bufferCapacity(n));
+        }
+        System.out.println("LOG: Location index loaded " + n + " incident(s)");
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onIncidentsSaved(IncidentsSavedEvent event) {
+        for (Incident i : event.incidents()) {
+            if (i.getId() != null && i.getLatitude() != null && i.getLongitude() != null) {
+                add(i.getId(), i.getLatitude(), i.getLongitude(), i.getRankLevel());
+            }
+        }
+    }
+
+    synchronized void add(long id, double lat, double lon, String rankLevel) {
+        Snapshot s = snapshot;
+        if (s.buffered == s.ids.length) {
+            s = merge(s);
+            snapshot = s;
+        }
+        int slot = s.buffered;
+        setPoint(s.xs, s.ys, s.zs, slot, lat, lon);
+        s.ids[slot] = id;
+        s.tags[slot] = tagOf(rankLevel);
+        s.buffered = slot + 1; // publish
+    }
+
+    public int size() {
+        Snapshot s = snapshot;
+        return s.tree.size + s.buffered;
+    }
+
+    /**
+     * Up to k incidents closest to (lat, lon), closest first.
+     * maxKm = optional radius; rankLevel = optional filter (CRITICAL/HIGH/MEDIUM/LOW).
+     */
+    public List<NearbyIncident> findNearby(double lat, double lon, int k, Double maxKm, String rankLevel) {
+        List<Neighbor> neighbors = nearest(lat, lon, k, maxKm, rankLevel);
+        if (neighbors.isEmpty()) return List.of();
+
+        List<Long> ids = neighbors.stream().map(Neighbor::id).toList();
+        Map<Long, Incident> byId = new HashMap<>();
+        for (Incident i : repository.findAllById(ids)) byId.put(i.getId(), i);
+
+        List<NearbyIncident> result = new ArrayList<>(neighbors.size());
+        for (Neighbor n : neighbors) {
+            Incident i = byId.get(n.id());
+            if (i != null) result.add(new NearbyIncident(i, n.distanceKm()));
+        }
+        return result;
+    }
+
+    List<Neighbor> nearest(double lat, double lon, int k, Double maxKm, String rankLevel) {
+        byte tag = -1;
+        if (rankLevel != null && !rankLevel.isBlank()) {
+            tag = tagOf(rankLevel);
+            if (tag == OTHER) return List.of(); // not a rank level we know
+        }
+
+        double maxChord2 = 4.0 + 1e-9; // whole sphere
+        if (maxKm != null && maxKm / EARTH_RADIUS_KM < Math.PI) {
+            double chord = 2 * Math.sin(maxKm / (2 * EARTH_RADIUS_KM));
+            maxChord2 = chord * chord;
+        }
+
+        double[] q = new double[3];
+        toUnitVector(lat, lon, q);
+
+        Snapshot s = snapshot;
+        KdTree.Neighbors best = new KdTree.Neighbors(k);
+        s.tree.nearest(q[0], q[1], q[2], maxChord2, tag, best);
+
+        int buffered = s.buffered;
+        for (int i = 0; i < buffered; i++) {
+            if (tag >= 0 && s.tags[i] != tag) continue;
+            double dx = s.xs[i] - q[0], dy = s.ys[i] - q[1], dz = s.zs[i] - q[2];
+            double d2 = dx * dx + dy * dy + dz * dz;
+            if (d2 <= maxChord2) best.offer(s.ids[i], d2);
+        }
+
+        int found = best.size();
+        long[] ids = new long[found];
+        double[] d2 = new double[found];
+        best.drainSorted(ids, d2);
+
+        List<Neighbor> result = new ArrayList<>(found);
+        for (int i = 0; i < found; i++) {
+            double angle = 2 * Math.asin(Math.min(1.0, Math.sqrt(d2[i]) / 2));
+            result.add(new Neighbor(ids[i], angle * EARTH_RADIUS_KM));
+        }
+        return result;
+    }
+
+    private Snapshot merge(Snapshot s) {
+        int treeSize = s.tree.size, buffered = s.buffered, n = treeSize + buffered;
+        double[] xs = new double[n], ys = new double[n], zs = new double[n];
+        long[] ids = new long[n];
+        byte[] tags = new byte[n];
+        // copy: the current tree arrays may still be read by in-flight queries
+        System.arraycopy(s.tree.xs, 0, xs, 0, treeSize);
+        System.arraycopy(s.tree.ys, 0, ys, 0, treeSize);
+        System.arraycopy(s.tree.zs, 0, zs, 0, treeSize);
+        System.arraycopy(s.tree.ids, 0, ids, 0, treeSize);
+        System.arraycopy(s.tree.tags, 0, tags, 0, treeSize);
+        System.arraycopy(s.xs, 0, xs, treeSize, buffered);
+        System.arraycopy(s.ys, 0, ys, treeSize, buffered);
+        System.arraycopy(s.zs, 0, zs, treeSize, buffered);
+        System.arraycopy(s.ids, 0, ids, treeSize, buffered);
+        System.arraycopy(s.tags, 0, tags, treeSize, buffered);
+        return new Snapshot(new KdTree(xs, ys, zs, ids, tags, n), bufferCapacity(n));
+    }
+
+    private static int bufferCapacity(int treeSize) {
+        return Math.max(MIN_BUFFER, (int) Math.sqrt(treeSize) * 8);
+    }
+
+    private static byte tagOf(String rankLevel) {
+        if (rankLevel == null) return OTHER;
+        int idx = RANKS.indexOf(rankLevel.toUpperCase(Locale.ROOT));
+        return idx < 0 ? OTHER : (byte) idx;
+    }
+
+    private static void setPoint(double[] xs, double[] ys, double[] zs, int i, double lat, double lon) {
+        double phi = Math.toRadians(lat), lambda = Math.toRadians(lon);
+        xs[i] = Math.cos(phi) * Math.cos(lambda);
+        ys[i] = Math.cos(phi) * Math.sin(lambda);
+        zs[i] = Math.sin(phi);
+    }
+
+    private static void toUnitVector(double lat, double lon, double[] out) {
+        double phi = Math.toRadians(lat), lambda = Math.toRadians(lon);
+        out[0] = Math.cos(phi) * Math.cos(lambda);
+        out[1] = Math.cos(phi) * Math.sin(lambda);
+        out[2] = Math.sin(phi);
+    }
+}
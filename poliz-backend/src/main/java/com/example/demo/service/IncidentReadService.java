@@ -0,0 +1,103 @@
+package com.example.demo.service;
+
+import com.example.demo.model.IncidentReadMark;
+import com.example.demo.repository.IncidentReadMarkRepository;
+import com.example.demo.repository.IncidentRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Per-officer read state for the incident badge, stored as a high-water mark
+ * in incident_read_marks: the last seen position of IncidentFeedSequence.
+ *
+ *   - mark all as read = one-row upsert, whatever the number of unread incidents; the row is
+ *     locked while it moves, and a first mark is inserted behind a savepoint, so concurrent
+ *     marks of one officer neither fail nor move the mark backwards
+ *   - unread count     = COUNT(*) of feed positions above the mark (indexed range)
+ *
+ * Feed positions follow commit order and only exist for incidents that arrived as new,
+ * so imported history is never unread and a lower id committed late is not skipped.
+ *
+ * An officer without a mark yet gets the shared isNew count, like before.
+ * Every forward move of a mark is recorded in OfficerActionLog as alerts cleared, once the
+ * move has committed; a first mark records the shared count the officer's badge showed until then.
+ */
+@Service
+public class IncidentReadService {
+
+    private final IncidentRepository incidents;
+    private final IncidentReadMarkRepository marks;
+    private final NewIncidentCounter newCounter;
+    private final OfficerActionLog actionLog;
+    private final JdbcTemplate jdbc;
+
+    public IncidentReadService(IncidentRepository incidents, IncidentReadMarkRepository marks,
+                               NewIncidentCounter newCounter, OfficerActionLog actionLog,
+                               JdbcTemplate jdbc) {
+        this.incidents = incidents;
+        this.marks = marks;
+        this.newCounter = newCounter;
+        this.actionLog = actionLog;
+        this.jdbc = jdbc;
+    }
+
+    public int getUnreadCount(String officer) {
+        Optional<IncidentReadMark> mark = marks.findById(officer);
+        if (mark.isEmpty()) return newCounter.get();
+        return (int) incidents.countByFeedSeqGreaterThan(mark.get().getLastSeenSeq());
+    }
+
+    /**
+     * Marks everything up to incident upToId (default: the newest incident) as read for the officer.
+     * The mark never moves backwards, so a stale client cannot resurrect read incidents.
+     */
+    @Transactional
+    public IncidentReadMark markAllAsRead(String officer, Long upToId) {
+        long target = Optional.ofNullable(upToId == null ? incidents.findMaxFeedSeq() : feedSeqOf(upToId)).orElse(0L);
+
+        IncidentReadMark mark = marks.findByOfficer(officer).orElse(null);
+        if (mark == null) {
+            int shown = newCounter.get(); // the badge until now, not every incident in the feed
+            if (JdbcInserts.insertIfAbsent(jdbc,
+                    "insert into incident_read_marks (officer, last_seen_seq, updated_at) values (?, ?, ?)",
+                    officer, target, LocalDateTime.now())) {
+                afterCommit(() -> actionLog.alertsCleared(officer, shown));
+                return marks.findByOfficer(officer).orElseThrow();
+            }
+            mark = marks.findByOfficer(officer).orElseThrow(); // a concurrent first mark won
+        }
+        if (target > mark.getLastSeenSeq()) {
+            long from = mark.getLastSeenSeq();
+            afterCommit(() -> actionLog.alertsCleared(officer, from, target)); // counted off-thread
+            mark.setLastSeenSeq(target);
+        }
+        mark.setUpdatedAt(LocalDateTime.now());
+        return mark;
+    }
+
+    // a rolled-back mark cleared nothing
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    // the incident's own position; not stamped (yet) -> the newest position at or below its id
+    private Long feedSeqOf(long incidentId) {
+        Long own = incidents.findFeedSeqById(incidentId);
+        return (own != null) ? own : incidents.findMaxFeedSeqUpToId(incidentId);
+    }
+}
@@ -1,26 +1,142 @@
 package com.example.demo.service;
 
+import com.example.demo.model.CrimeIncidentDto;
+import com.example.demo.model.Geohash;
 import com.example.demo.model.Incident;
+import com.example.demo.model.IncidentBatchResult;
+import com.example.demo.model.IncidentPage;
 import com.example.demo.repository.IncidentRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
-import java.time.LocalDateTime;
+import java.util.Map;
 
 @Service
 public class IncidentService {
 
     private final IncidentRepository repository;
+    private final ApplicationEventPublisher events;
+    private final NewIncidentCounter newCounter;
 
     // กำหนดค่าเกณฑ์คะแนน (Thresholds)
     private static final int CRITICAL_THRESHOLD = 85;
     private static final int HIGH_THRESHOLD = 70;
     private static final int MEDIUM_THRESHOLD = 50;
 
-    public IncidentService(IncidentRepository repository) {
+    private static final int MAX_PAGE_SIZE = 500;
+
+    private static final Map<String, Integer> TYPE_WEIGHTS = Map.of(
+            "Armed Robbery", 80,
+            "Fire", 75,
+            "Violent Crime", 70,
+            "Medical Emergency", 55,
+            "Traffic Accident", 40,
+            "Disturbance", 25,
+            "Other", 10
+    );
+
+    // Keyword groups (bit flags) for the notes matcher
+    private static final int WEAPON = 1;              // +25
+    private static final int SERIOUS = 1 << 1;        // +20
+    private static final int CROWD = 1 << 2;          // +15
+    private static final int MINOR = 1 << 3;          // +10
+    private static final int ROBBERY_ESCALATION = 1 << 4; // Armed Robbery -> 90
+
+    // Compiled once; one pass over the lowercased text instead of one contains() per keyword
+    private static final KeywordMatcher PLACE_MATCHER = KeywordMatcher.builder()
+            .add(1, "school", "hospital", "station", "airport", "market", "stadium", "mall", "park")
+            .build();
+
+    private static final KeywordMatcher NOTES_MATCHER = KeywordMatcher.builder()
+            .add(WEAPON, "weapon", "gun", "knife", "armed", "hostage", "explosion", "gas leak")
+            .add(SERIOUS, "fatality", "deceased", "unconscious", "severe injury", "cpr", "major trauma")
+            .add(CROWD, "large fire", "multiple", "mass", "many people", "crowd")
+            .add(MINOR, "injur", "bleeding", "child", "elderly", "pregnan")
+            .add(ROBBERY_ESCALATION, "weapon", "gun", "knife", "hostage", "fatality", "severe injury")
+            .build();
+
+    public IncidentService(IncidentRepository repository, ApplicationEventPublisher events,
+                           NewIncidentCounter newCounter) {
         this.repository = repository;
+        this.events = events;
+        this.newCounter = newCounter;
     }
 
     public Incident addNewIncident(Incident incident) {
+        applyScore(incident);
+
+        System.out.println("LOG: Incident Type: " + incident.getType() +
+                " scored " + incident.getScore() +
+                " -> RANK: " + incident.getRankLevel());
+
+        // Return the saved incident to the repository
+        Incident saved = repository.save(incident);
+        events.publishEvent(new IncidentsSavedEvent(List.of(saved)));
+        return saved;
+    }
+
+    /**
+     * Scores and saves a list of incidents in one transaction.
+     * Inserts go out as JDBC batches (pooled sequence ids, hibernate.jdbc.batch_size).
+     * An incident that cannot be scored is reported as failed; the rest are still saved.
+     */
+    @Transactional
+    public IncidentBatchResult addNewIncidents(List<Incident> incidents) {
+        long start = System.nanoTime();
+
+        List<Incident> scored = new ArrayList<>(incidents.size());
+        List<Integer> scoredIndexes = new ArrayList<>(incidents.size());
+        IncidentBatchResult.ItemResult[] items = new IncidentBatchResult.ItemResult[incidents.size()];
+
+        for (int idx = 0; idx < incidents.size(); idx++) {
+            Incident incident = incidents.get(idx);
+            try {
+                applyScore(incident);
+                scored.add(incident);
+                scoredIndexes.add(idx);
+            } catch (RuntimeException e) {
+                items[idx] = IncidentBatchResult.ItemResult.failed(idx, "Invalid incident: " + e.getMessage());
+            }
+        }
+
+        List<Incident> saved = repository.saveAll(scored);
+        events.publishEvent(new IncidentsSavedEvent(saved));
+        for (int k = 0; k < saved.size(); k++) {
+            int idx = scoredIndexes.get(k);
+            items[idx] = IncidentBatchResult.ItemResult.saved(idx, saved.get(k));
+        }
+
+        long elapsedNanos = System.nanoTime() - start;
+        double perSecond = elapsedNanos == 0 ? 0 : saved.size() * 1_000_000_000.0 / elapsedNanos;
+
+        System.out.println("LOG: Batch of " + incidents.size() + " incident(s): saved " + saved.size() +
+                " in " + elapsedNanos / 1_000_000 + " ms (" + Math.round(perSecond) + " incidents/s)");
+
+        return new IncidentBatchResult(
+                incidents.size(),
+                saved.size(),
+                incidents.size() - saved.size(),
+                elapsedNanos / 1_000_000,
+                perSecond,
+                Arrays.asList(items)
+        );
+    }
+
+    /** Saves incidents that were already scored with applyScore (bulk import), in one transaction. */
+    @Transactional
+    public List<Incident> saveScored(List<Incident> incidents) {
+        List<Incident> saved = repository.saveAll(incidents);
+        events.publishEvent(new IncidentsSavedEvent(saved));
+        return saved;
+    }
+
+    /** Sets isNew, score, rankLevel and isRanked on the incident without saving it. */
+    public void applyScore(Incident incident) {
         incident.setNew(true);
 
         // 1. คำนวณคะแนน Heuristic Score ใน Backend
@@ -37,28 +153,11 @@ public class IncidentService {
         } else {
             incident.setRanked(false);
         }
-
-
-        System.out.println("LOG: Incident Type: " + incident.getType() +
-                " scored " + calculatedScore +
-                " -> RANK: " + rankLevel);
-
-        // Return the saved incident to the repository
-        return repository.save(incident);
     }
 
     // --- ฟังก์ชันใหม่: คำนวณคะแนน Heuristic Score (จำลอง Logic จาก Flutter) ---
-    private int calculateHeuristicScore(Incident i) {
-        final var typeWeights = java.util.Map.of(
-                "Armed Robbery", 80,
-                "Fire", 75,
-                "Violent Crime", 70,
-                "Medical Emergency", 55,
-                "Traffic Accident", 40,
-                "Disturbance", 25,
-                "Other", 10
-        );
-        int score = typeWeights.getOrDefault(i.getType(), 10);
+    int calculateHeuristicScore(Incident i) {
+        int score = TYPE_WEIGHTS.getOrDefault(i.getType(), 10);
 
         // ปัจจัยเวลา (Nighttime = 22:00 ถึง 05:59)
         if (i.getTime() != null) {
@@ -69,49 +168,25 @@ public class IncidentService {
         }
 
         // ปัจจัยสถานที่ (เปราะบาง/คนเยอะ)
-        String place = i.getPlace().toLowerCase();
-        if (place.contains("school") || place.contains("hospital") ||
-                place.contains("station") || place.contains("airport") ||
-                place.contains("market") || place.contains("stadium") ||
-                place.contains("mall") || place.contains("park")) {
+        if (PLACE_MATCHER.match(i.getPlace().toLowerCase()) != 0) {
             score += 8;
         }
 
-        // ปัจจัยรายละเอียด (Keywords for Severity)
-        String notes = i.getNotes().toLowerCase();
+        // ปัจจัยรายละเอียด (Keywords for Severity) - scan notes once for every group
+        int found = NOTES_MATCHER.match(i.getNotes().toLowerCase());
 
-        if (notes.contains("weapon") || notes.contains("gun") || notes.contains("knife") ||
-                notes.contains("armed") || notes.contains("hostage") || notes.contains("explosion") ||
-                notes.contains("gas leak")) {
-            score += 25;
-        }
-        if (notes.contains("fatality") || notes.contains("deceased") ||
-                notes.contains("unconscious") || notes.contains("severe injury") ||
-                notes.contains("cpr") || notes.contains("major trauma")) {
-            score += 20;
-        }
-        if (notes.contains("large fire") || notes.contains("multiple") ||
-                notes.contains("mass") || notes.contains("many people") ||
-                notes.contains("crowd")) {
-            score += 15;
-        }
-        if (notes.contains("injur") || notes.contains("bleeding") ||
-                notes.contains("child") || notes.contains("elderly") ||
-                notes.contains("pregnan")) {
-            score += 10;
-        }
+        if ((found & WEAPON) != 0) score += 25;
+        if ((found & SERIOUS) != 0) score += 20;
+        if ((found & CROWD) != 0) score += 15;
+        if ((found & MINOR) != 0) score += 10;
 
         // การปรับแต่งขั้นสุดท้าย (เพื่อให้แน่ใจว่าได้ระดับตามเหตุการณ์หลัก)
         if (i.getType().equals("Fire") && score < 75) score = 75;
         if (i.getType().equals("Medical Emergency") && score < 55) score = 55;
 
         // Armed Robbery + Severe Condition ควรเป็น Critical
-        if (i.getType().equals("Armed Robbery") && score < 85) {
-            if (notes.contains("weapon") || notes.contains("gun") || notes.contains("knife") ||
-                    notes.contains("hostage") || notes.contains("fatality") ||
-                    notes.contains("severe injury")) {
-                score = 90;
-            }
+        if (i.getType().equals("Armed Robbery") && score < 85 && (found & ROBBERY_ESCALATION) != 0) {
+            score = 90;
         }
 
         // จำกัดคะแนน 0-100
@@ -134,18 +209,99 @@ public class IncidentService {
 
     // --- Functions เดิม ---
     public int getNewIncidentCount() {
-        return repository.findByIsNewTrue().size();
+        return newCounter.get(); // in-memory, no query
     }
 
     public List<Incident> getAllIncidents() {
         return repository.findAll();
     }
 
-    public void markAllAsRead() {
-        List<Incident> newIncidents = repository.findByIsNewTrue();
-        for (Incident i : newIncidents) {
-            i.setNew(false);
+    /** Incidents whose type matches any of the given types (case-insensitive), via the type_key index. */
+    public List<Incident> getIncidentsByTypes(Collection<String> types) {
+        return repository.findByTypeKeyIn(typeKeys(types));
+    }
+
+    /**
+     * Dashboard rows for GET /api/v1/crime-incidents, selected directly into CrimeIncidentDto
+     * (only the DTO columns, no managed entities). types = optional filter, null or empty for all.
+     */
+    public List<CrimeIncidentDto> getCrimeIncidents(Collection<String> types) {
+        List<String> keys = typeKeys(types);
+        return keys.isEmpty()
+                ? repository.findAllCrimeIncidentDtos()
+                : repository.findCrimeIncidentDtosByTypeKeyIn(keys);
+    }
+
+    /**
+     * Incidents inside the box (inclusive), optionally limited to some types.
+     * Served by the geohash index: the box is covered by a few geohash ranges,
+     * each read as one index range scan.
+     */
+    public List<Incident> getIncidentsInBox(double minLat, double minLon, double maxLat, double maxLon,
+                                            Collection<String> types) {
+        // NaN fails every comparison, so it is rejected explicitly
+        if (Double.isNaN(minLat) || Double.isNaN(minLon) || Double.isNaN(maxLat) || Double.isNaN(maxLon)
+                || minLat > maxLat || minLon > maxLon
+                || minLat < -90 || maxLat > 90 || minLon < -180 || maxLon > 180) {
+            throw new IllegalArgumentException("Invalid bounding box");
+        }
+
+        List<String> keys = typeKeys(types);
+        List<Incident> result = new ArrayList<>();
+        for (Geohash.Range r : Geohash.cover(minLat, minLon, maxLat, maxLon)) {
+            for (Incident i : repository.findByGeohashGreaterThanEqualAndGeohashLessThanAndLatitudeBetweenAndLongitudeBetween(
+                    r.lo(), r.hiExclusive(), minLat, maxLat, minLon, maxLon)) {
+                if (keys.isEmpty() || keys.contains(i.getTypeKey())) result.add(i);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Keyset-paginated listing, newest first (time desc, id desc; incidents without a time last).
+     * cursor = "next" of the previous page, or null for the first page.
+     * types = optional case-insensitive type filter, null or empty for all types.
+     * Throws IllegalArgumentException for a cursor this service did not issue.
+     */
+    public IncidentPage<Incident> getIncidentPage(String cursor, int limit, Collection<String> types) {
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<String> keys = typeKeys(types);
+        boolean allTypes = keys.isEmpty();
+        if (allTypes) keys = List.of(""); // IN () is not valid SQL; ignored when allTypes
+        IncidentCursor after = (cursor == null || cursor.isBlank()) ? null : IncidentCursor.decode(cursor);
+
+        // fetch one extra row to know whether another page exists
+        List<Incident> rows = new ArrayList<>(size + 1);
+        if (after == null) {
+            rows.addAll(repository.findFirstTimedPage(allTypes, keys, Limit.of(size + 1)));
+        } else if (after.time() != null) {
+            rows.addAll(repository.findTimedPageAfter(after.time(), after.id(), allTypes, keys, Limit.of(size + 1)));
+        }
+        if (rows.size() <= size) {
+            Long untimedAfter = (after != null && after.time() == null) ? after.id() : null;
+            rows.addAll(repository.findUntimedPageAfter(untimedAfter, allTypes, keys, Limit.of(size + 1 - rows.size())));
         }
-        repository.saveAll(newIncidents);
+
+        if (rows.size() <= size) {
+            return new IncidentPage<>(rows, null);
+        }
+        List<Incident> page = new ArrayList<>(rows.subList(0, size));
+        Incident last = page.get(size - 1);
+        return new IncidentPage<>(page, new IncidentCursor(last.getTime(), last.getId()).encode());
+    }
+
+    private static List<String> typeKeys(Collection<String> types) {
+        if (types == null) return List.of();
+        return types.stream()
+                .map(Incident::normalizeType)
+                .filter(t -> t != null && !t.isEmpty())
+                .distinct()
+                .toList();
+    }
+
+    @Transactional
+    public void markAllAsRead() {
+        int flipped = repository.markAllAsRead();
+        if (flipped > 0) events.publishEvent(new IncidentsReadEvent(flipped));
     }
 }
\ No newline at end of file
@@ -0,0 +1,8 @@
+package com.example.demo.service;
+
+/**
+ * Published by IncidentService after incidents were marked as read
+ * (count = how many were flipped), so listeners that mirror the unread count can follow.
+ */
+public record IncidentsReadEvent(int count) {
+}
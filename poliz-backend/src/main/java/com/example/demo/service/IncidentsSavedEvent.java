@@ -0,0 +1,13 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Incident;
+
+import java.util.List;
+
+/**
+ * Published by IncidentService after incidents are saved (single, batch, queue or import).
+ * Listen with @TransactionalEventListener(fallbackExecution = true) to react only once
+ * the data is committed.
+ */
+public record IncidentsSavedEvent(List<Incident> incidents) {
+}
@@ -0,0 +1,43 @@
+package com.example.demo.service;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+
+/**
+ * Race-safe "insert unless the key exists" inside the caller's transaction.
+ *
+ * The insert runs behind a savepoint on the transaction's connection: when a concurrent
+ * transaction committed the same key first, only the insert is rolled back and the caller
+ * goes on. Without the savepoint a duplicate key aborts the whole transaction on databases
+ * like PostgreSQL. Must be called inside a transaction.
+ */
+final class JdbcInserts {
+
+    private JdbcInserts() {
+    }
+
+    /** @return false when the key already exists (waits for a concurrent insert, then loses) */
+    static boolean insertIfAbsent(JdbcTemplate jdbc, String sql, Object... args) {
+        return Boolean.TRUE.equals(jdbc.execute((ConnectionCallback<Boolean>) con -> {
+            Savepoint savepoint = con.setSavepoint();
+            try (PreparedStatement ps = con.prepareStatement(sql)) {
+                new ArgumentPreparedStatementSetter(args).setValues(ps);
+                ps.executeUpdate();
+            } catch (SQLException e) {
+                con.rollback(savepoint);
+                DataAccessException translated = jdbc.getExceptionTranslator().translate("insertIfAbsent", sql, e);
+                if (translated instanceof DuplicateKeyException) return false;
+                throw e;
+            }
+            con.releaseSavepoint(savepoint);
+            return true;
+        }));
+    }
+}
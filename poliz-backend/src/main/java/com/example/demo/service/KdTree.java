@@ -0,0 +1,171 @@
+package com.example.demo.service;
+
+/**
+ * Immutable, balanced 3-d tree over points on the unit sphere (x, y, z).
+ * Euclidean (chord) distance between unit vectors grows with great-circle
+ * distance, so nearest-by-chord is nearest-on-earth with no projection error.
+ *
+ * Points are stored in flat arrays, reordered so that the node of any
+ * range [lo, hi) sits at its midpoint; no node objects are allocated.
+ */
+final class KdTree {
+
+    static final KdTree EMPTY = new KdTree(new double[0], new double[0], new double[0], new long[0], new byte[0], 0);
+
+    final double[] xs, ys, zs;
+    final long[] ids;
+    final byte[] tags;
+    final int size;
+
+    /** Takes ownership of the arrays (first n entries) and reorders them in place. */
+    KdTree(double[] xs, double[] ys, double[] zs, long[] ids, byte[] tags, int n) {
+        this.xs = xs;
+        this.ys = ys;
+        this.zs = zs;
+        this.ids = ids;
+        this.tags = tags;
+        this.size = n;
+        build(0, n, 0);
+    }
+
+    /** Offers every point within maxChord2 (squared chord) whose tag matches (tag < 0 = any). */
+    void nearest(double qx, double qy, double qz, double maxChord2, byte tag, Neighbors out) {
+        search(0, size, 0, qx, qy, qz, maxChord2, tag, out);
+    }
+
+    private void search(int lo, int hi, int axis, double qx, double qy, double qz,
+                        double maxChord2, byte tag, Neighbors out) {
+        if (lo >= hi) return;
+        int mid = (lo + hi) >>> 1;
+
+        double dx = xs[mid] - qx, dy = ys[mid] - qy, dz = zs[mid] - qz;
+        double d2 = dx * dx + dy * dy + dz * dz;
+        if (d2 <= maxChord2 && (tag < 0 || tags[mid] == tag)) {
+            out.offer(ids[mid], d2);
+        }
+
+        double diff = (axis == 0) ? qx - xs[mid] : (axis == 1) ? qy - ys[mid] : qz - zs[mid];
+        int next = (axis + 1) % 3;
+        // near side first; the far side only if the splitting plane is closer than the k-th best
+        if (diff < 0) {
+            search(lo, mid, next, qx, qy, qz, maxChord2, tag, out);
+            if (diff * diff <= Math.min(maxChord2, out.worst())) {
+                search(mid + 1, hi, next, qx, qy, qz, maxChord2, tag, out);
+            }
+        } else {
+            search(mid + 1, hi, next, qx, qy, qz, maxChord2, tag, out);
+            if (diff * diff <= Math.min(maxChord2, out.worst())) {
+                search(lo, mid, next, qx, qy, qz, maxChord2, tag, out);
+            }
+        }
+    }
+
+    private void build(int lo, int hi, int axis) {
+        if (hi - lo <= 1) return;
+        int mid = (lo + hi) >>> 1;
+        select(lo, hi - 1, mid, axis);
+        int next = (axis + 1) % 3;
+        build(lo, mid, next);
+        build(mid + 1, hi, next);
+    }
+
+    /**
+     * Quickselect with a 3-way partition (many incidents share a location):
+     * puts the k-th smallest (by axis) at k, smaller-or-equal left, greater-or-equal right.
+     */
+    private void select(int left, int right, int k, int axis) {
+        double[] c = (axis == 0) ? xs : (axis == 1) ? ys : zs;
+        while (left < right) {
+            double pivot = c[(left + right) >>> 1];
+            int lt = left, i = left, gt = right;
+            while (i <= gt) {
+                if (c[i] < pivot) swap(lt++, i++);
+                else if (c[i] > pivot) swap(i, gt--);
+                else i++;
+            }
+            // [left, lt) < pivot, [lt, gt] == pivot, (gt, right] > pivot
+            if (k < lt) right = lt - 1;
+            else if (k > gt) left = gt + 1;
+            else return;
+        }
+    }
+
+    private void swap(int a, int b) {
+        if (a == b) return;
+        double t = xs[a]; xs[a] = xs[b]; xs[b] = t;
+        t = ys[a]; ys[a] = ys[b]; ys[b] = t;
+        t = zs[a]; zs[a] = zs[b]; zs[b] = t;
+        long id = ids[a]; ids[a] = ids[b]; ids[b] = id;
+        byte g = tags[a]; tags[a] = tags[b]; tags[b] = g;
+    }
+
+    /** Bounded max-heap keeping the k closest (id, squaredChord) pairs seen so far. */
+    static final class Neighbors {
+        private final long[] ids;
+        private final double[] d2;
+        private int size;
+
+        Neighbors(int k) {
+            this.ids = new long[k];
+            this.d2 = new double[k];
+        }
+
+        /** Squared chord of the current k-th neighbour, or +inf while fewer than k are known. */
+        double worst() {
+            return size < d2.length ? Double.POSITIVE_INFINITY : d2[0];
+        }
+
+        void offer(long id, double dist2) {
+            if (size < d2.length) {
+                ids[size] = id;
+                d2[size] = dist2;
+                siftUp(size++);
+            } else if (dist2 < d2[0]) {
+                ids[0] = id;
+                d2[0] = dist2;
+                siftDown(0);
+            }
+        }
+
+        int size() {
+            return size;
+        }
+
+        /** Drains the heap; returns indexes 0..size-1 filled closest first. */
+        void drainSorted(long[] outIds, double[] outD2) {
+            for (int n = size - 1; n >= 0; n--) {
+                outIds[n] = ids[0];
+                outD2[n] = d2[0];
+                size--;
+                ids[0] = ids[size];
+                d2[0] = d2[size];
+                siftDown(0);
+            }
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (d2[parent] >= d2[i]) return;
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int l = 2 * i + 1, r = l + 1, largest = i;
+                if (l < size && d2[l] > d2[largest]) largest = l;
+                if (r < size && d2[r] > d2[largest]) largest = r;
+                if (largest == i) return;
+                swap(i, largest);
+                i = largest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            long id = ids[a]; ids[a] = ids[b]; ids[b] = id;
+            double t = d2[a]; d2[a] = d2[b]; d2[b] = t;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.demo.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Aho-Corasick automaton over a fixed keyword list.
+ * Every keyword carries a bit mask (its "groups"); {@link #match(String)} scans the
+ * text once and returns the OR of the masks of all keywords found as substrings.
+ *
+ * Build once, share freely: the automaton is immutable after construction.
+ */
+final class KeywordMatcher {
+
+    // goto function as one map per state, output masks and failure links per state
+    private final List<Map<Character, Integer>> transitions;
+    private final int[] output;
+    private final int[] failure;
+    private final int allGroups;
+
+    private KeywordMatcher(List<Map<Character, Integer>> transitions, int[] output, int[] failure, int allGroups) {
+        this.transitions = transitions;
+        this.output = output;
+        this.failure = failure;
+        this.allGroups = allGroups;
+    }
+
+    /** Returns the OR of the group masks of every keyword contained in {@code text}. */
+    int match(String text) {
+        int found = 0;
+        int state = 0;
+        for (int pos = 0; pos < text.length(); pos++) {
+            char c = text.charAt(pos);
+            Integer next = transitions.get(state).get(c);
+            while (next == null && state != 0) {
+                state = failure[state];
+                next = transitions.get(state).get(c);
+            }
+            state = (next == null) ? 0 : next;
+            found |= output[state];
+            if (found == allGroups) break; // nothing left to discover
+        }
+        return found;
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    static final class Builder {
+
+        private final List<Map<Character, Integer>> transitions = new ArrayList<>();
+        private final List<Integer> output = new ArrayList<>();
+        private int allGroups = 0;
+
+        private Builder() {
+            newState();
+        }
+
+        /** Registers every keyword under the given group mask. Keywords must already be lower case. */
+        Builder add(int group, String... keywords) {
+            for (String keyword : keywords) {
+                int state = 0;
+                for (int pos = 0; pos < keyword.length(); pos++) {
+                    char c = keyword.charAt(pos);
+                    Integer next = transitions.get(state).get(c);
+                    if (next == null) {
+                        next = newState();
+                        transitions.get(state).put(c, next);
+                    }
+                    state = next;
+                }
+                output.set(state, output.get(state) | group);
+            }
+            allGroups |= group;
+            return this;
+        }
+
+        KeywordMatcher build() {
+            int size = transitions.size();
+            int[] out = new int[size];
+            int[] fail = new int[size];
+            for (int s = 0; s < size; s++) out[s] = output.get(s);
+
+            // breadth-first: failure links of depth-1 states point to the root
+            Queue<Integer> queue = new ArrayDeque<>();
+            for (int child : transitions.get(0).values()) {
+                fail[child] = 0;
+                queue.add(child);
+            }
+            while (!queue.isEmpty()) {
+                int state = queue.poll();
+                for (Map.Entry<Character, Integer> e : transitions.get(state).entrySet()) {
+                    char c = e.getKey();
+                    int child = e.getValue();
+                    int f = fail[state];
+                    while (f != 0 && !transitions.get(f).containsKey(c)) {
+                        f = fail[f];
+                    }
+                    Integer target = transitions.get(f).get(c);
+                    fail[child] = (target == null || target == child) ? 0 : target;
+                    out[child] |= out[fail[child]];
+                    queue.add(child);
+                }
+            }
+
+            List<Map<Character, Integer>> frozen = new ArrayList<>(size);
+            for (Map<Character, Integer> t : transitions) frozen.add(Map.copyOf(t));
+            return new KeywordMatcher(List.copyOf(frozen), out, Arrays.copyOf(fail, size), allGroups);
+        }
+
+        private int newState() {
+            transitions.add(new HashMap<>());
+            output.add(0);
+            return transitions.size() - 1;
+        }
+    }
+}
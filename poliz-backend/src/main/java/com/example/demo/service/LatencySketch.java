@@ -0,0 +1,147 @@
+package com.example.demo.service;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Mergeable latency histogram (milliseconds), HDR-style log-linear buckets:
+ * values below 32 are exact, above that every power of two is split into 32 buckets,
+ * so any quantile is within ~3% of the true value. Count, sum, min and max are exact.
+ *
+ * At most 1888 buckets whatever the number of samples (a day of reply times
+ * stays well under 800), and two sketches merge by adding bucket counts.
+ * Stored as bytes in officer_daily_latency: only non-empty buckets, varint-encoded.
+ */
+final class LatencySketch {
+
+    private static final int SUB_BITS = 5;
+    private static final int SUB = 1 << SUB_BITS; // 32
+    private static final byte VERSION = 1;
+
+    private long[] counts = new long[0];
+    private long count, sum;
+    private long min = Long.MAX_VALUE, max;
+
+    void add(long ms) {
+        long v = Math.max(0, ms);
+        int i = index(v);
+        if (i >= counts.length) counts = Arrays.copyOf(counts, Math.max(i + 1, counts.length * 2));
+        counts[i]++;
+        count++;
+        sum += v;
+        min = Math.min(min, v);
+        max = Math.max(max, v);
+    }
+
+    void merge(LatencySketch other) {
+        if (other.count == 0) return;
+        if (other.counts.length > counts.length) counts = Arrays.copyOf(counts, other.counts.length);
+        for (int i = 0; i < other.counts.length; i++) counts[i] += other.counts[i];
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    long count() {
+        return count;
+    }
+
+    long mean() {
+        return (count == 0) ? 0 : Math.round((double) sum / count);
+    }
+
+    /**
+     * Value at quantile q (0..1): midpoint of the bucket holding that rank, clamped to [min, max];
+     * the lowest and highest ranks are the exact min and max.
+     */
+    long quantile(double q) {
+        if (count == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(q * count));
+        if (rank == 1) return min;
+        if (rank >= count) return max;
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                long mid = lowerBound(i) + bucketWidth(i) / 2;
+                return Math.max(min, Math.min(max, mid));
+            }
+        }
+        return max;
+    }
+
+    static int index(long v) {
+        if (v < SUB) return (int) v;
+        int exp = 63 - Long.numberOfLeadingZeros(v);            // >= SUB_BITS
+        int sub = (int) (v >>> (exp - SUB_BITS)) & (SUB - 1);
+        return (exp - SUB_BITS + 1) * SUB + sub;
+    }
+
+    static long lowerBound(int index) {
+        if (index < SUB) return index;
+        int exp = index / SUB + SUB_BITS - 1;
+        return (long) (SUB + index % SUB) << (exp - SUB_BITS);
+    }
+
+    private static long bucketWidth(int index) {
+        if (index < SUB) return 1;
+        return 1L << (index / SUB - 1);
+    }
+
+    // ---------- bytes: version, count, sum, min, max, then (index delta, count) per non-empty bucket ----------
+
+    byte[] toBytes() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(32);
+        out.write(VERSION);
+        writeVarLong(out, count);
+        writeVarLong(out, sum);
+        writeVarLong(out, count == 0 ? 0 : min);
+        writeVarLong(out, max);
+        int last = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) continue;
+            writeVarLong(out, i - last);
+            writeVarLong(out, counts[i]);
+            last = i;
+        }
+        return out.toByteArray();
+    }
+
+    static LatencySketch fromBytes(byte[] bytes) {
+        LatencySketch s = new LatencySketch();
+        if (bytes == null || bytes.length == 0) return s;
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        if (in.get() != VERSION) throw new IllegalArgumentException("Unknown latency sketch version");
+        s.count = readVarLong(in);
+        s.sum = readVarLong(in);
+        s.min = (s.count == 0) ? Long.MAX_VALUE : readVarLong(in);
+        if (s.count == 0) readVarLong(in);
+        s.max = readVarLong(in);
+        int index = 0;
+        while (in.hasRemaining()) {
+            index += (int) readVarLong(in);
+            if (index >= s.counts.length) s.counts = Arrays.copyOf(s.counts, Math.max(index + 1, s.counts.length * 2));
+            s.counts[index] = readVarLong(in);
+        }
+        return s;
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long v) {
+        while ((v & ~0x7FL) != 0) {
+            out.write((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.write((int) v);
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long v = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.get();
+            v |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return v;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.demo.service;
+
+/**
+ * Published by MessageRollupService after a sent message was added to the daily rollups.
+ * Listen with @TransactionalEventListener(fallbackExecution = true) to react only once
+ * the message is committed.
+ */
+public record MessageRecordedEvent(String sender, String receiver, long sentAtMs) {
+}
@@ -0,0 +1,185 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Chat;
+import com.example.demo.model.Message;
+import com.example.demo.model.OfficerDailyLatency;
+import com.example.demo.model.OfficerDailyPeer;
+import com.example.demo.model.OfficerDailyStats;
+import com.example.demo.repository.ChatRepository;
+import com.example.demo.repository.MessageRepository;
+import com.example.demo.repository.OfficerDailyLatencyRepository;
+import com.example.demo.repository.OfficerDailyPeerRepository;
+import com.example.demo.repository.OfficerDailyStatsRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * Write side of the per-officer, per-UTC-day messaging rollups read by PerformanceService:
+ *   officer_daily_stats - sent / received counts
+ *   officer_daily_peers - who the officer talked to that day
+ *   officer_daily_latency - reply-time sketches (Chat.recordSend decides what is a reply)
+ *
+ * recordMessage runs inside ChatController.sendMessage's transaction, so a message and its
+ * rollup update commit (or roll back) together; MessageRecordedEvent follows the commit. Messages without sentAtMs are not counted,
+ * as before.
+ *
+ * Concurrent first sends of an officer-day race to create the same rollup row. Missing rows are
+ * inserted with JdbcInserts behind a savepoint in the send's transaction: the loser rolls back
+ * just that insert and falls back to the update, so a rollup never fails a send.
+ */
+@Service
+public class MessageRollupService {
+
+    private final OfficerDailyStatsRepository stats;
+    private final OfficerDailyPeerRepository peers;
+    private final OfficerDailyLatencyRepository latency;
+    private final MessageRepository messages;
+    private final ChatRepository chats;
+    private final EntityManager entityManager;
+    private final JdbcTemplate jdbc;
+    private final ApplicationEventPublisher events;
+
+    public MessageRollupService(OfficerDailyStatsRepository stats, OfficerDailyPeerRepository peers,
+                                OfficerDailyLatencyRepository latency, MessageRepository messages,
+                                ChatRepository chats, EntityManager entityManager, JdbcTemplate jdbc, ApplicationEventPublisher events) {
+        this.stats = stats;
+        this.peers = peers;
+        this.latency = latency;
+        this.messages = messages;
+        this.chats = chats;
+        this.entityManager = entityManager;
+        this.jdbc = jdbc;
+        this.events = events;
+    }
+
+    @Transactional
+    public void recordMessage(Message m) {
+        if (m.getSentAtMs() == null || m.getSender() == null || m.getReceiver() == null) return;
+        LocalDate day = dayUTC(m.getSentAtMs());
+
+        bump(m.getSender(), day, 1, 0);
+        bump(m.getReceiver(), day, 0, 1);
+        addPeer(m.getSender(), day, m.getReceiver());
+        addPeer(m.getReceiver(), day, m.getSender());
+
+        long[] reply = replyLatency(m);
+        if (reply != null) {
+            OfficerDailyLatency row = lockLatencyRow(m.getSender(), day);
+            LatencySketch first = LatencySketch.fromBytes(row.getFirstResponse());
+            LatencySketch latest = LatencySketch.fromBytes(row.getResponse());
+            first.add(reply[0]);
+            latest.add(reply[1]);
+            row.setFirstResponse(first.toBytes());
+            row.setResponse(latest.toBytes());
+            latency.save(row);
+        }
+        events.publishEvent(new MessageRecordedEvent(m.getSender(), m.getReceiver(), m.getSentAtMs()));
+    }
+
+    /**
+     * Builds the rollups from the messages table when all three rollup tables are empty (first
+     * start with them, or after they were cleared). Returns how many messages were rolled up.
+     *
+     * Not safe against concurrent sends (they would be counted twice or collide with the rebuilt
+     * rows): run it before the application takes traffic, see MessageTimestampBackfillRunner.
+     */
+    @Transactional
+    public int rebuildIfEmpty() {
+        if (stats.count() > 0 || peers.count() > 0 || latency.count() > 0) return 0;
+        chats.resetReplyState(); // replay from the first message, not from where live sends left the chats
+
+        record Key(String officer, LocalDate day) {}
+        Map<Key, long[]> counts = new HashMap<>();          // {sent, received}
+        List<OfficerDailyPeer> contacts = new ArrayList<>();
+        Set<List<Object>> seen = new HashSet<>();
+        Map<Key, LatencySketch[]> replies = new HashMap<>();  // {firstResponse, response}
+
+        int rolled = 0;
+        long afterId = 0;
+        List<Message> chunk;
+        while (!(chunk = messages.findTop500BySentAtMsIsNotNullAndIdGreaterThanOrderByIdAsc(afterId)).isEmpty()) {
+            for (Message m : chunk) {
+                if (m.getSender() == null || m.getReceiver() == null) continue;
+                LocalDate day = dayUTC(m.getSentAtMs());
+                counts.computeIfAbsent(new Key(m.getSender(), day), k -> new long[2])[0]++;
+                counts.computeIfAbsent(new Key(m.getReceiver(), day), k -> new long[2])[1]++;
+                if (seen.add(List.of(m.getSender(), day, m.getReceiver())))
+                    contacts.add(new OfficerDailyPeer(m.getSender(), day, m.getReceiver()));
+                if (seen.add(List.of(m.getReceiver(), day, m.getSender())))
+                    contacts.add(new OfficerDailyPeer(m.getReceiver(), day, m.getSender()));
+                long[] reply = replyLatency(m); // id order = send order, so chat state replays correctly
+                if (reply != null) {
+                    LatencySketch[] s = replies.computeIfAbsent(new Key(m.getSender(), day),
+                            k -> new LatencySketch[]{new LatencySketch(), new LatencySketch()});
+                    s[0].add(reply[0]);
+                    s[1].add(reply[1]);
+                }
+                rolled++;
+            }
+            afterId = chunk.get(chunk.size() - 1).getId();
+            entityManager.flush(); // chat reply state
+            entityManager.clear(); // do not keep every message of the table in the persistence context
+        }
+
+        List<OfficerDailyStats> rows = new ArrayList<>(counts.size());
+        counts.forEach((k, c) -> rows.add(new OfficerDailyStats(k.officer(), k.day(), c[0], c[1])));
+        stats.saveAll(rows);
+        peers.saveAll(contacts);
+        List<OfficerDailyLatency> latencyRows = new ArrayList<>(replies.size());
+        replies.forEach((k, s) -> {
+            OfficerDailyLatency row = new OfficerDailyLatency(k.officer(), k.day());
+            row.setFirstResponse(s[0].toBytes());
+            row.setResponse(s[1].toBytes());
+            latencyRows.add(row);
+        });
+        latency.saveAll(latencyRows);
+        if (rolled > 0) {
+            System.out.println("LOG: Message rollups rebuilt from " + rolled + " messages ("
+                    + rows.size() + " officer-days)");
+        }
+        return rolled;
+    }
+
+    /** Advances the chat's reply state; {first, latest} latency in ms when m answers the other side. */
+    private static long[] replyLatency(Message m) {
+        Chat chat = m.getChat();
+        return (chat == null) ? null : chat.recordSend(m.getSender(), m.getReceiver(), m.getSentAtMs());
+    }
+
+    private void bump(String officer, LocalDate day, long sent, long received) {
+        if (stats.increment(officer, day, sent, received) > 0) return;
+        if (!JdbcInserts.insertIfAbsent(jdbc,
+                "insert into officer_daily_stats (officer, stat_day, sent, received) values (?, ?, ?, ?)",
+                officer, day, sent, received)) {
+            stats.increment(officer, day, sent, received); // created by a concurrent send meanwhile
+        }
+    }
+
+    // the sketch is read-modify-write: lock the row; a missing row is created first, since
+    // locking a row that does not exist yet locks nothing and two replies would both insert
+    private OfficerDailyLatency lockLatencyRow(String officer, LocalDate day) {
+        Optional<OfficerDailyLatency> row = latency.findByOfficerAndDay(officer, day);
+        if (row.isPresent()) return row.get();
+        JdbcInserts.insertIfAbsent(jdbc, "insert into officer_daily_latency (officer, stat_day) values (?, ?)", officer, day);
+        return latency.findByOfficerAndDay(officer, day).orElseThrow();
+    }
+
+    private void addPeer(String officer, LocalDate day, String peer) {
+        if (!peers.existsByOfficerAndDayAndPeer(officer, day, peer)) {
+            JdbcInserts.insertIfAbsent(jdbc, "insert into officer_daily_peers (officer, stat_day, peer) values (?, ?, ?)",
+                    officer, day, peer);
+        }
+    }
+
+    static LocalDate dayUTC(long epochMs) {
+        return Instant.ofEpochMilli(epochMs).atZone(ZoneOffset.UTC).toLocalDate();
+    }
+}
@@ -0,0 +1,259 @@
+package com.example.demo.service;
+
+import java.time.*;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Parses the legacy free-form Message.time strings to a UTC instant.
+ * Used by the one-time sentAtMs backfill (MessageTimestampBackfill); new messages get
+ * their timestamp server-side and are never parsed.
+ *
+ * Fast path: the shape of the string (length + separator positions) picks one decoder,
+ * which reads the digits directly - no exceptions, no regex. The last shape that matched
+ * is tried first, since a batch of messages usually shares one format.
+ * Anything the fast path is not sure about (unknown shape, out-of-range field, zone id,
+ * lower-case 't'/'z', ...) goes through the original formatter chain (parseLegacy),
+ * so results are identical to before.
+ */
+public final class MessageTimeParser {
+
+    private static final List<DateTimeFormatter> FALLBACKS = List.of(
+            DateTimeFormatter.ISO_DATE_TIME,                       // 2025-11-11T01:23:45 or ...Z
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"),
+            DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm:ss"),
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"),
+            DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm")
+    );
+
+    // "h:mm a" parses AM/PM in the default locale; only decode it by hand when that is "AM"/"PM"
+    private static final boolean ENGLISH_AM_PM = englishAmPm();
+
+    private static volatile Shape recent = Shape.ISO;
+
+    private MessageTimeParser() {}
+
+    /** Parse Message.time (String) to UTC Instant. */
+    public static Optional<Instant> parseToInstantUTC(String s) {
+        if (s == null || s.isBlank()) return Optional.empty();
+
+        Shape shape = recent;
+        if (!shape.fits(s)) {
+            shape = Shape.detect(s);
+            if (shape == null) return parseLegacy(s);
+            recent = shape;
+        }
+        Instant t = shape.decode(s);
+        return (t != null) ? Optional.of(t) : parseLegacy(s);
+    }
+
+    /** The original formatter chain, kept as the fallback and as the reference for parity tests. */
+    static Optional<Instant> parseLegacy(String s) {
+        if (s == null || s.isBlank()) return Optional.empty();
+
+        // 1) ISO instant (e.g., "2025-11-11T01:23:45Z")
+        try { return Optional.of(Instant.parse(s)); }
+        catch (DateTimeParseException ignored) {}
+
+        // 2) ISO date-time and fallbacks (assume UTC if no zone)
+        for (DateTimeFormatter f : FALLBACKS) {
+            try {
+                var acc = f.parse(s);
+                if (acc.isSupported(java.time.temporal.ChronoField.OFFSET_SECONDS)) {
+                    return Optional.of(OffsetDateTime.from(acc).toInstant());
+                } else {
+                    return Optional.of(LocalDateTime.from(acc).toInstant(ZoneOffset.UTC));
+                }
+            } catch (DateTimeParseException ignored) { }
+        }
+
+        // 3) Time-only formats -> assume today's local date
+        try {
+            if (s.matches("^\\d{1,2}:\\d{2}$")) { // "HH:mm"
+                var today = LocalDate.now();
+                var parts = s.split(":");
+                var ldt = LocalDateTime.of(today,
+                        LocalTime.of(Integer.parseInt(parts[0]), Integer.parseInt(parts[1])));
+                return Optional.of(ldt.toInstant(ZoneOffset.UTC));
+            }
+            if (s.matches("(?i)^\\d{1,2}:\\d{2}\\s*(AM|PM)$")) { // "h:mm AM/PM"
+                var today = LocalDate.now();
+                var fmt = DateTimeFormatter.ofPattern("h:mm a");
+                var lt = LocalTime.parse(s.toUpperCase(Locale.ROOT), fmt);
+                var ldt = LocalDateTime.of(today, lt);
+                return Optional.of(ldt.toInstant(ZoneOffset.UTC));
+            }
+        } catch (Exception ignored) {}
+
+        return Optional.empty();
+    }
+
+    /**
+     * The formats Message.time has been written in. decode() returns null when a field is
+     * out of range or the string uses a variant it does not handle; the caller then falls back.
+     */
+    private enum Shape {
+        /** 2025-11-11T01:23[:45[.123]][Z|+07:00] */
+        ISO {
+            boolean fits(String s) {
+                return s.length() >= 16 && s.charAt(4) == '-' && s.charAt(7) == '-' && s.charAt(10) == 'T';
+            }
+            Instant decode(String s) {
+                int n = s.length();
+                int sec = 0, nano = 0, i = 16;
+                if (i < n && s.charAt(i) == ':') {
+                    if (n < 19 || (sec = digits(s, 17, 19)) < 0) return null;
+                    i = 19;
+                    if (i < n && s.charAt(i) == '.') {
+                        int start = ++i;
+                        while (i < n && isDigit(s.charAt(i))) i++;
+                        int len = i - start;
+                        if (len == 0 || len > 9) return null;
+                        nano = digits(s, start, i);
+                        for (int k = len; k < 9; k++) nano *= 10;
+                    }
+                }
+                LocalDateTime ldt = dateTime(s, 0, 5, 8, 11, 14, sec, nano, ':');
+                if (ldt == null) return null;
+                if (i == n) return ldt.toInstant(ZoneOffset.UTC);
+                if (i == n - 1 && s.charAt(i) == 'Z') return ldt.toInstant(ZoneOffset.UTC);
+                if (i == n - 6 && (s.charAt(i) == '+' || s.charAt(i) == '-') && s.charAt(i + 3) == ':') {
+                    int oh = digits(s, i + 1, i + 3), om = digits(s, i + 4, i + 6);
+                    if (oh < 0 || oh > 17 || om < 0 || om > 59) return null;
+                    int offset = (oh * 3600 + om * 60) * (s.charAt(i) == '-' ? -1 : 1);
+                    return ldt.toInstant(ZoneOffset.ofTotalSeconds(offset));
+                }
+                return null; // zone id, lower-case 'z', compact offset ...
+            }
+        },
+        /** 2025-11-11 01:23:45 */
+        DASH_SECONDS {
+            boolean fits(String s) {
+                return s.length() == 19 && s.charAt(4) == '-' && s.charAt(7) == '-' && s.charAt(10) == ' '
+                        && s.charAt(13) == ':' && s.charAt(16) == ':';
+            }
+            Instant decode(String s) {
+                return utc(dateTime(s, 0, 5, 8, 11, 14, digits(s, 17, 19), 0, ':'));
+            }
+        },
+        /** 2025/11/11 01:23:45 */
+        SLASH_SECONDS {
+            boolean fits(String s) {
+                return s.length() == 19 && s.charAt(4) == '/' && s.charAt(7) == '/' && s.charAt(10) == ' '
+                        && s.charAt(13) == ':' && s.charAt(16) == ':';
+            }
+            Instant decode(String s) {
+                return utc(dateTime(s, 0, 5, 8, 11, 14, digits(s, 17, 19), 0, ':'));
+            }
+        },
+        /** 2025-11-11 01:23 */
+        DASH_MINUTES {
+            boolean fits(String s) {
+                return s.length() == 16 && s.charAt(4) == '-' && s.charAt(7) == '-' && s.charAt(10) == ' '
+                        && s.charAt(13) == ':';
+            }
+            Instant decode(String s) {
+                return utc(dateTime(s, 0, 5, 8, 11, 14, 0, 0, ':'));
+            }
+        },
+        /** 11-11-2025 01:23 */
+        DAY_FIRST_MINUTES {
+            boolean fits(String s) {
+                return s.length() == 16 && s.charAt(2) == '-' && s.charAt(5) == '-' && s.charAt(10) == ' '
+                        && s.charAt(13) == ':';
+            }
+            Instant decode(String s) {
+                return utc(dateTime(s, 6, 3, 0, 11, 14, 0, 0, ':'));
+            }
+        },
+        /** 1:23 or 01:23, today */
+        TIME {
+            boolean fits(String s) {
+                int n = s.length();
+                return (n == 4 || n == 5) && s.charAt(n - 3) == ':';
+            }
+            Instant decode(String s) {
+                int n = s.length();
+                int h = digits(s, 0, n - 3), m = digits(s, n - 2, n);
+                if (h < 0 || h > 23 || m < 0 || m > 59) return null;
+                return today(h, m);
+            }
+        },
+        /** 1:23 PM or 01:23 am, today */
+        TIME_AM_PM {
+            boolean fits(String s) {
+                int n = s.length();
+                return (n == 7 || n == 8) && s.charAt(n - 6) == ':' && s.charAt(n - 3) == ' ';
+            }
+            Instant decode(String s) {
+                if (!ENGLISH_AM_PM) return null;
+                int n = s.length();
+                int h = digits(s, 0, n - 6), m = digits(s, n - 5, n - 3);
+                if (h < 1 || h > 12 || m < 0 || m > 59) return null;
+                char a = s.charAt(n - 2), b = s.charAt(n - 1);
+                if (b != 'M' && b != 'm') return null;
+                if (a == 'A' || a == 'a') return today(h % 12, m);
+                if (a == 'P' || a == 'p') return today(h % 12 + 12, m);
+                return null;
+            }
+        };
+
+        abstract boolean fits(String s);
+
+        abstract Instant decode(String s);
+
+        static Shape detect(String s) {
+            for (Shape shape : values()) {
+                if (shape.fits(s)) return shape;
+            }
+            return null;
+        }
+    }
+
+    /** Validated date-time from fixed positions (4-digit year, 2-digit fields); null if out of range. */
+    private static LocalDateTime dateTime(String s, int year, int month, int day, int hour, int minute,
+                                          int sec, int nano, char timeSep) {
+        if (s.charAt(hour + 2) != timeSep) return null;
+        int y = digits(s, year, year + 4), mo = digits(s, month, month + 2), d = digits(s, day, day + 2);
+        int h = digits(s, hour, hour + 2), mi = digits(s, minute, minute + 2);
+        if (y < 1 || mo < 1 || mo > 12 || d < 1 || d > Month.of(mo).length(Year.isLeap(y))) return null;
+        if (h < 0 || h > 23 || mi < 0 || mi > 59 || sec < 0 || sec > 59) return null;
+        return LocalDateTime.of(y, mo, d, h, mi, sec, nano);
+    }
+
+    private static Instant utc(LocalDateTime ldt) {
+        return (ldt == null) ? null : ldt.toInstant(ZoneOffset.UTC);
+    }
+
+    private static Instant today(int hour, int minute) {
+        return LocalDateTime.of(LocalDate.now(), LocalTime.of(hour, minute)).toInstant(ZoneOffset.UTC);
+    }
+
+    /** Non-negative value of the ASCII digits in [from, to), or -1 if any char is not a digit. */
+    private static int digits(String s, int from, int to) {
+        if (from >= to) return -1;
+        int v = 0;
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (!isDigit(c)) return -1;
+            v = v * 10 + (c - '0');
+        }
+        return v;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean englishAmPm() {
+        try {
+            var fmt = DateTimeFormatter.ofPattern("h:mm a");
+            return LocalTime.parse("1:00 AM", fmt).getHour() == 1 && LocalTime.parse("1:00 PM", fmt).getHour() == 13;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Message;
+import com.example.demo.repository.MessageRepository;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * One-time migration: fills Message.sentAtMs for rows written before the column existed,
+ * by parsing their legacy time string. Runs in id-ordered chunks; rows whose string cannot
+ * be parsed keep a null sentAtMs (they were never inside any summary window before either).
+ * Idempotent: only rows with a null sentAtMs are read.
+ */
+@Service
+public class MessageTimestampBackfill {
+
+    private final MessageRepository messageRepository;
+
+    public MessageTimestampBackfill(MessageRepository messageRepository) {
+        this.messageRepository = messageRepository;
+    }
+
+    /** Returns how many messages got a timestamp. */
+    public int backfill() {
+        int filled = 0, unparsable = 0;
+        long afterId = 0;
+        List<Message> chunk;
+        while (!(chunk = messageRepository.findTop500BySentAtMsIsNullAndIdGreaterThanOrderByIdAsc(afterId)).isEmpty()) {
+            for (Message m : chunk) {
+                Optional<Instant> t = MessageTimeParser.parseToInstantUTC(m.getTime());
+                if (t.isPresent()) {
+                    m.setSentAtMs(t.get().toEpochMilli());
+                    filled++;
+                } else {
+                    unparsable++;
+                }
+            }
+            messageRepository.saveAll(chunk);
+            afterId = chunk.get(chunk.size() - 1).getId();
+        }
+        if (filled > 0 || unparsable > 0) {
+            System.out.println("LOG: Message timestamp backfill: " + filled + " filled, "
+                    + unparsable + " left empty (unparsable time)");
+        }
+        return filled;
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.demo.service;
+
+/**
+ * Published by NewIncidentCounter after it moved, so views of the badge count
+ * (the SSE stream) refresh only once the counter already holds the new value.
+ */
+public record NewIncidentCountChangedEvent(int count) {
+}
@@ -0,0 +1,81 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Incident;
+import com.example.demo.repository.IncidentRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory count of unread (isNew) incidents behind the badge endpoint,
+ * so GET /api/v1/events/new/count never touches the database.
+ *
+ * Seeded from COUNT(*) at startup, then moved by IncidentsSavedEvent (+ new incidents)
+ * and IncidentsReadEvent (- incidents marked as read) after their transaction commits.
+ * Every move is followed by a NewIncidentCountChangedEvent.
+ */
+@Component
+public class NewIncidentCounter {
+
+    private final IncidentRepository repository;
+    private final ApplicationEventPublisher events;
+    private final AtomicLong count = new AtomicLong();
+
+    public NewIncidentCounter(IncidentRepository repository, ApplicationEventPublisher events) {
+        this.repository = repository;
+        this.events = events;
+    }
+
+    @PostConstruct
+    public void seed() {
+        long drift = reconcile();
+        System.out.println("LOG: New-incident counter seeded at " + count.get()
+                + (drift != 0 ? " (corrected by " + drift + ")" : ""));
+    }
+
+    /**
+     * Compares the counter with COUNT(*) of new incidents and resets it to the database value.
+     * Returns database - counter (0 when they agreed). Meant for quiet moments such as startup:
+     * writes that commit while the count query runs can be counted twice or missed.
+     */
+    public long reconcile() {
+        long actual = repository.countByIsNewTrue();
+        long drift = actual - count.getAndSet(actual);
+        if (drift != 0) {
+            System.out.println("LOG: New-incident counter drifted by " + drift + ", reset to " + actual);
+            changed();
+        }
+        return drift;
+    }
+
+    public int get() {
+        return (int) Math.max(0, count.get());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onIncidentsSaved(IncidentsSavedEvent event) {
+        long added = 0;
+        for (Incident i : event.incidents()) {
+            if (i.isNew()) added++;
+        }
+        if (added > 0) {
+            count.addAndGet(added);
+            changed();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onIncidentsRead(IncidentsReadEvent event) {
+        if (event.count() > 0) {
+            count.addAndGet(-event.count());
+            changed();
+        }
+    }
+
+    private void changed() {
+        events.publishEvent(new NewIncidentCountChangedEvent(get()));
+    }
+}
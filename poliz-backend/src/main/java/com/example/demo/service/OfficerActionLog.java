@@ -0,0 +1,198 @@
+package com.example.demo.service;
+
+import com.example.demo.model.OfficerAction;
+import com.example.demo.repository.IncidentRepository;
+import com.example.demo.repository.OfficerActionRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Records officer actions (incidents viewed, alerts cleared) for the performance summary
+ * without touching the database on the request thread.
+ *
+ *   - record = one CAS on a bounded ring buffer (buffer-size, rounded up to a power of two);
+ *     when the ring is full the action is dropped and counted, the caller never waits
+ *   - a single flusher drains the ring every flush-ms into officer_actions, batch-size rows
+ *     per saveAll, and publishes OfficerActionsFlushedEvent
+ *   - alerts cleared by a read-mark move are stored as a feed-position range and counted at flush time
+ *
+ * Actions reach the summary up to flush-ms late; whatever is buffered is flushed on shutdown.
+ */
+@Component
+public class OfficerActionLog {
+
+    /** A buffered action; count < 0 = count the incidents in feed positions (afterSeq, upToSeq] when flushing. */
+    private record Pending(String officer, String action, int count, long afterSeq, long upToSeq, long atMs) {}
+
+    private final OfficerActionRepository actions;
+    private final IncidentRepository incidents;
+    private final ApplicationEventPublisher events;
+    private final Clock clock;
+    private final int batchSize;
+    private final long flushMs;
+
+    // many producers claim a sequence with CAS on tail and then fill its slot;
+    // the one consumer (flush) empties slots in sequence order and moves head
+    private final AtomicReferenceArray<Pending> slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    private final AtomicLong dropped = new AtomicLong();
+    private long reportedDrops; // flusher thread only
+    private ScheduledExecutorService flusher;
+
+    @Autowired
+    public OfficerActionLog(
+            OfficerActionRepository actions,
+            IncidentRepository incidents,
+            ApplicationEventPublisher events,
+            @Value("${poliz.actions.buffer-size:8192}") int bufferSize,
+            @Value("${poliz.actions.batch-size:500}") int batchSize,
+            @Value("${poliz.actions.flush-ms:1000}") long flushMs
+    ) {
+        this(actions, incidents, events, Clock.systemUTC(), bufferSize, batchSize, flushMs);
+    }
+
+    OfficerActionLog(OfficerActionRepository actions, IncidentRepository incidents, ApplicationEventPublisher events,
+                     Clock clock, int bufferSize, int batchSize, long flushMs) {
+        this.actions = actions;
+        this.incidents = incidents;
+        this.events = events;
+        this.clock = clock;
+        this.batchSize = Math.max(1, batchSize);
+        this.flushMs = flushMs;
+        int capacity = Integer.highestOneBit(Math.max(2, bufferSize) - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    @PostConstruct
+    public void start() {
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "officer-action-flush");
+            t.setDaemon(true);
+            return t;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushMs, flushMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (flusher != null) flusher.shutdownNow();
+        flushQuietly();
+    }
+
+    /** The officer was shown count incidents (list or page). */
+    public void incidentsViewed(String officer, int count) {
+        if (officer == null || officer.isBlank() || count <= 0) return;
+        offer(new Pending(officer, OfficerAction.INCIDENTS_VIEWED, count, 0, 0, clock.millis()));
+    }
+
+    /** The officer cleared count alerts at once. */
+    public void alertsCleared(String officer, int count) {
+        if (officer == null || officer.isBlank() || count <= 0) return;
+        offer(new Pending(officer, OfficerAction.ALERTS_CLEARED, count, 0, 0, clock.millis()));
+    }
+
+    /** The officer's read mark moved from feed position afterSeq to upToSeq; counted when flushed. */
+    public void alertsCleared(String officer, long afterSeq, long upToSeq) {
+        if (officer == null || officer.isBlank() || upToSeq <= afterSeq) return;
+        offer(new Pending(officer, OfficerAction.ALERTS_CLEARED, -1, afterSeq, upToSeq, clock.millis()));
+    }
+
+    /** Actions dropped so far because the ring was full. */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Saves everything buffered so far (at most one ring's worth per call, so steady
+     * traffic cannot keep it busy). Called by the flusher; safe to call from anywhere.
+     *
+     * @return number of actions drained
+     */
+    public synchronized int flush() {
+        int drained = 0;
+        int capacity = slots.length();
+        while (drained < capacity) {
+            List<Pending> batch = drain(Math.min(batchSize, capacity - drained));
+            if (batch.isEmpty()) break;
+            drained += batch.size();
+            save(batch);
+        }
+        return drained;
+    }
+
+    private void offer(Pending action) {
+        long seq;
+        do {
+            seq = tail.get();
+            if (seq - head >= slots.length()) {
+                dropped.incrementAndGet();
+                return;
+            }
+        } while (!tail.compareAndSet(seq, seq + 1));
+        slots.set((int) (seq & mask), action);
+    }
+
+    // single consumer (flush is synchronized); stops at a claimed slot that is not filled yet
+    private List<Pending> drain(int max) {
+        List<Pending> batch = new ArrayList<>(max);
+        long seq = head;
+        while (batch.size() < max) {
+            int slot = (int) (seq & mask);
+            Pending action = slots.get(slot);
+            if (action == null) break;
+            slots.set(slot, null);
+            batch.add(action);
+            seq++;
+        }
+        head = seq; // frees the slots for producers
+        return batch;
+    }
+
+    private void save(List<Pending> batch) {
+        List<OfficerAction> rows = new ArrayList<>(batch.size());
+        Set<String> officers = new HashSet<>();
+        long fromMs = Long.MAX_VALUE, toMs = Long.MIN_VALUE;
+        for (Pending p : batch) {
+            int count = (p.count() >= 0) ? p.count()
+                    : (int) incidents.countByFeedSeqGreaterThanAndFeedSeqLessThanEqual(p.afterSeq(), p.upToSeq());
+            if (count == 0) continue;
+            rows.add(new OfficerAction(p.officer(), p.action(), count, p.atMs()));
+            officers.add(p.officer());
+            fromMs = Math.min(fromMs, p.atMs());
+            toMs = Math.max(toMs, p.atMs());
+        }
+        if (rows.isEmpty()) return;
+        actions.saveAll(rows);
+        events.publishEvent(new OfficerActionsFlushedEvent(officers, fromMs, toMs));
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+            long lost = dropped.get() - reportedDrops;
+            if (lost > 0) System.out.println("LOG: officer action log full, dropped " + lost + " actions");
+            reportedDrops += lost;
+        } catch (RuntimeException e) {
+            System.out.println("LOG: officer action flush failed: " + e.getMessage());
+        }
+    }
+}
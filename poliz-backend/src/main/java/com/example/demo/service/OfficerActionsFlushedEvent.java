@@ -0,0 +1,10 @@
+package com.example.demo.service;
+
+import java.util.Set;
+
+/**
+ * Published by OfficerActionLog after a batch of officer actions was saved: who acted and
+ * the span of their action times (epoch milliseconds, UTC).
+ */
+public record OfficerActionsFlushedEvent(Set<String> officers, long fromMs, long toMs) {
+}
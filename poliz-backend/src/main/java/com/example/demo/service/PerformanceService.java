@@ -1,71 +1,225 @@
 package com.example.demo.service;
 
-import com.example.demo.model.Incident;
-import com.example.demo.model.Message;
+import com.example.demo.model.OfficerDailyLatency;
 import com.example.demo.model.PerformanceSummary;
 import com.example.demo.model.PerformanceSummary.IncidentStats;
 import com.example.demo.model.PerformanceSummary.MessagingStats;
 import com.example.demo.model.PerformanceSummary.Percentiles;
 import com.example.demo.model.PerformanceSummary.RangeDTO;
+import com.example.demo.model.TeamPerformance;
+import com.example.demo.model.TeamPerformance.OfficerPerformance;
+import com.example.demo.model.User;
+import com.example.demo.model.OfficerAction;
+import com.example.demo.repository.ActionTotal;
 import com.example.demo.repository.IncidentRepository;
-import com.example.demo.repository.MessageRepository;
-import lombok.RequiredArgsConstructor;
+import com.example.demo.repository.MessageTotals;
+import com.example.demo.repository.OfficerActionRepository;
+import com.example.demo.repository.OfficerDailyLatencyRepository;
+import com.example.demo.repository.OfficerDailyPeerRepository;
+import com.example.demo.repository.OfficerDailyStatsRepository;
+import com.example.demo.repository.OfficerMessageTotals;
+import com.example.demo.repository.OfficerPeerCount;
+import com.example.demo.repository.RankLevelCount;
+import com.example.demo.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.*;
 import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 /**
- * Performance v1 (simplified for String-based Message.time):
- * - conversations, messagesSent, messagesReceived, activeDays
- * - response-time metrics are ZERO (reserved for future)
- * - incident stats come from Incident.rankLevel counts (CRITICAL/HIGH/MEDIUM/LOW)
+ * Performance v1:
+ * - conversations, messagesSent, messagesReceived, activeDays, summed from per-officer
+ *   daily rollups (MessageRollupService), so the window resolves to whole UTC days
+ * - first/avg response time: avg, p50, p90 from the merged per-officer daily reply-time
+ *   sketches (LatencySketch, quantiles within ~3%); zeros when there were no replies
+ * - incident stats come from Incident.rankLevel counts (CRITICAL/HIGH/MEDIUM/LOW);
+ *   incidentsViewed / newAlertsCleared are summed from the officer action log
+ *   (OfficerActionLog) over the exact instants of the window
+ *
+ * The independent reads of a request (message totals, peers, reply-time sketches, incident
+ * counts, action totals; the roster for the leaderboard) run concurrently on a small pool
+ * (poliz.performance.threads) and are combined on the request thread. Called inside a
+ * transaction, they stay on the caller's thread so they see its uncommitted writes.
+ * The pool's queue is bounded (poliz.performance.queue-size): when it is full, sections run
+ * on the request thread instead of piling up behind other requests.
  */
 @Service
-@RequiredArgsConstructor
 public class PerformanceService {
 
-    private final MessageRepository messageRepository;
+    private final OfficerDailyStatsRepository statsRepository;
+    private final OfficerDailyPeerRepository peerRepository;
+    private final OfficerDailyLatencyRepository latencyRepository;
     private final IncidentRepository incidentRepository;
+    private final UserRepository userRepository;
+    private final OfficerActionRepository actionRepository;
+    private final Executor sections;
 
     private static final DateTimeFormatter ISO_INSTANT = DateTimeFormatter.ISO_INSTANT;
-    private static final List<DateTimeFormatter> FALLBACKS = List.of(
-            DateTimeFormatter.ISO_DATE_TIME,                       // 2025-11-11T01:23:45 or ...Z
-            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"),
-            DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm:ss"),
-            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"),
-            DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm")
+
+    public static final int MAX_TEAM_PAGE = 200;
+
+    // leaderboard orders: counts highest first, reply times fastest first (officers without replies last)
+    private static final Map<String, Comparator<OfficerPerformance>> TEAM_SORTS = Map.of(
+            "messagesSent", Comparator.comparingInt((OfficerPerformance o) -> o.messaging().getMessagesSent()).reversed(),
+            "messagesReceived", Comparator.comparingInt((OfficerPerformance o) -> o.messaging().getMessagesReceived()).reversed(),
+            "conversations", Comparator.comparingInt((OfficerPerformance o) -> o.messaging().getConversations()).reversed(),
+            "activeDays", Comparator.comparingInt((OfficerPerformance o) -> o.messaging().getActiveDays()).reversed(),
+            "firstResponseTime", Comparator.comparingLong(o -> replyTimeOrLast(o.messaging().getFirstResponseTimeMs())),
+            "responseTime", Comparator.comparingLong(o -> replyTimeOrLast(o.messaging().getAvgResponseTimeMs())),
+            "officer", Comparator.comparing(OfficerPerformance::officer)
     );
 
-    public PerformanceSummary getSummary(Instant from, Instant to, String officer) {
-        // --- Messaging (filter Message.time strings into the [from,to] window) ---
-        List<Message> inRange = messageRepository.findAll().stream()
-                .filter(m -> parseToInstantUTC(m.getTime()).map(t -> !t.isBefore(from) && !t.isAfter(to)).orElse(false))
-                .collect(Collectors.toList());
+    @Autowired
+    public PerformanceService(
+            OfficerDailyStatsRepository statsRepository,
+            OfficerDailyPeerRepository peerRepository,
+            OfficerDailyLatencyRepository latencyRepository,
+            IncidentRepository incidentRepository,
+            UserRepository userRepository,
+            OfficerActionRepository actionRepository,
+            @Value("${poliz.performance.threads:4}") int threads,
+            @Value("${poliz.performance.queue-size:32}") int queueSize
+    ) {
+        this(statsRepository, peerRepository, latencyRepository, incidentRepository, userRepository, actionRepository,
+                sectionPool(threads, queueSize));
+    }
+
+    // fixed threads, bounded queue; a full queue runs the section on the caller (request) thread
+    static ThreadPoolExecutor sectionPool(int threads, int queueSize) {
+        AtomicInteger n = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), r -> {
+                    Thread t = new Thread(r, "performance-section-" + n.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
 
-        List<Message> relevant = (officer == null || officer.isBlank())
-                ? inRange
-                : inRange.stream()
-                .filter(m -> officer.equals(m.getSender()) || officer.equals(m.getReceiver()))
-                .collect(Collectors.toList());
+    PerformanceService(OfficerDailyStatsRepository statsRepository, OfficerDailyPeerRepository peerRepository,
+                       OfficerDailyLatencyRepository latencyRepository, IncidentRepository incidentRepository,
+                       UserRepository userRepository, OfficerActionRepository actionRepository,
+                       Executor sections) {
+        this.statsRepository = statsRepository;
+        this.peerRepository = peerRepository;
+        this.latencyRepository = latencyRepository;
+        this.incidentRepository = incidentRepository;
+        this.userRepository = userRepository;
+        this.actionRepository = actionRepository;
+        this.sections = sections;
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (sections instanceof ExecutorService pool) pool.shutdownNow();
+    }
+
+    public PerformanceSummary getSummary(Instant from, Instant to, String officer) {
+        // --- Messaging (summed from the per-officer daily rollups, whole UTC days) ---
+        boolean team = officer == null || officer.isBlank();
+        LocalDate fromDay = from.atZone(ZoneOffset.UTC).toLocalDate();
+        LocalDate toDay = to.atZone(ZoneOffset.UTC).toLocalDate();
 
-        MessagingStats messaging = computeSimpleMessaging(relevant, officer);
+        CompletableFuture<MessageTotals> totals = section(() -> team
+                ? statsRepository.sumForTeam(fromDay, toDay)
+                : statsRepository.sumForOfficer(officer, fromDay, toDay));
+        CompletableFuture<Long> conversations = section(() -> team
+                ? peerRepository.countPairs(fromDay, toDay)                  // distinct unordered pairs
+                : peerRepository.countPeers(officer, fromDay, toDay));
+        CompletableFuture<LatencySketch[]> replies = section(() -> merge(team
+                ? latencyRepository.findByDayBetween(fromDay, toDay)
+                : latencyRepository.findByOfficerAndDayBetween(officer, fromDay, toDay)));
+        CompletableFuture<List<RankLevelCount>> ranks = section(() -> countRankLevels(from, to));
+        CompletableFuture<List<ActionTotal>> actions = section(() -> actionRepository.sumByAction(
+                from.toEpochMilli(), to.toEpochMilli(), team ? null : officer));
 
-        IncidentStats incidents = computeIncidentStatsFromIncidents(from, to);
+        MessageTotals t = join(totals);
+        int sent = (int) t.getSent();
+        int received = team ? sent : (int) t.getReceived();              // team: every message once
+        LatencySketch[] r = join(replies);
+        MessagingStats messaging = messagingStats(join(conversations).intValue(), sent, received,
+                (int) t.getActiveDays(), r[0], r[1]);
 
         return PerformanceSummary.builder()
                 .range(new RangeDTO(ISO_INSTANT.format(from), ISO_INSTANT.format(to)))
                 .officer(officer)
                 .messaging(messaging)
-                .incidents(incidents)
+                .incidents(incidentStats(join(ranks), join(actions)))
                 .build();
     }
 
-    /** Counts Incident.rankLevel occurrences (CRITICAL/HIGH/MEDIUM/LOW). */
-    private IncidentStats computeIncidentStatsFromIncidents(Instant from, Instant toInclusive) {
+    /**
+     * Leaderboard: MessagingStats for every officer (all users, plus anyone who messaged
+     * in the window) from three grouped reads of the rollups and the roster, instead of one summary
+     * per officer.
+     * Sorted by the given key (ties by name), then paged.
+     *
+     * @throws IllegalArgumentException unknown sort key, page < 0 or size outside 1..MAX_TEAM_PAGE
+     */
+    public TeamPerformance getTeam(Instant from, Instant toInclusive, String sort, int page, int size) {
+        Comparator<OfficerPerformance> order = (sort == null) ? null : TEAM_SORTS.get(sort);
+        if (order == null) throw new IllegalArgumentException("Unknown sort: " + sort + " (use " + TEAM_SORTS.keySet() + ")");
+        if (page < 0 || size < 1 || size > MAX_TEAM_PAGE) throw new IllegalArgumentException("Invalid page or size");
+
+        LocalDate fromDay = from.atZone(ZoneOffset.UTC).toLocalDate();
+        LocalDate toDay = toInclusive.atZone(ZoneOffset.UTC).toLocalDate();
+
+        CompletableFuture<List<OfficerMessageTotals>> totalRows = section(() -> statsRepository.sumByOfficer(fromDay, toDay));
+        CompletableFuture<List<OfficerPeerCount>> peerRows = section(() -> peerRepository.countPeersByOfficer(fromDay, toDay));
+        CompletableFuture<List<OfficerDailyLatency>> latencyRows = section(() -> latencyRepository.findByDayBetween(fromDay, toDay));
+        CompletableFuture<List<User>> users = section(userRepository::findAll);
+
+        Map<String, OfficerMessageTotals> totals = new HashMap<>();
+        for (OfficerMessageTotals t : join(totalRows)) totals.put(t.getOfficer(), t);
+        Map<String, Long> peers = new HashMap<>();
+        for (OfficerPeerCount p : join(peerRows)) peers.put(p.getOfficer(), p.getPeers());
+        Map<String, LatencySketch[]> latency = new HashMap<>(); // {first, latest}
+        for (OfficerDailyLatency row : join(latencyRows)) {
+            LatencySketch[] s = latency.computeIfAbsent(row.getOfficer(),
+                    k -> new LatencySketch[]{new LatencySketch(), new LatencySketch()});
+            s[0].merge(LatencySketch.fromBytes(row.getFirstResponse()));
+            s[1].merge(LatencySketch.fromBytes(row.getResponse()));
+        }
+
+        Set<String> officers = new HashSet<>(totals.keySet());
+        for (User u : join(users)) {
+            if (u.getName() != null) officers.add(u.getName());
+        }
+
+        List<OfficerPerformance> rows = new ArrayList<>(officers.size());
+        for (String officer : officers) {
+            OfficerMessageTotals t = totals.get(officer);
+            LatencySketch[] s = latency.getOrDefault(officer, new LatencySketch[]{new LatencySketch(), new LatencySketch()});
+            rows.add(new OfficerPerformance(officer, messagingStats(
+                    peers.getOrDefault(officer, 0L).intValue(),
+                    (t == null) ? 0 : (int) t.getSent(),
+                    (t == null) ? 0 : (int) t.getReceived(),
+                    (t == null) ? 0 : (int) t.getActiveDays(),
+                    s[0], s[1])));
+        }
+        rows.sort(order.thenComparing(OfficerPerformance::officer));
+
+        int fromIndex = (int) Math.min(rows.size(), (long) page * size);
+        List<OfficerPerformance> pageRows = rows.subList(fromIndex, Math.min(rows.size(), fromIndex + size));
+        return new TeamPerformance(new RangeDTO(ISO_INSTANT.format(from), ISO_INSTANT.format(toInclusive)),
+                sort, page, size, rows.size(), List.copyOf(pageRows));
+    }
+
+    /** Incident.rankLevel counts for the local days of the window. */
+    private List<RankLevelCount> countRankLevels(Instant from, Instant toInclusive) {
         // Convert the incoming UTC instants to LOCAL time,
         // then make the end boundary EXCLUSIVE at local next-day 00:00.
         ZoneId zone = ZoneId.systemDefault();
@@ -75,130 +229,85 @@ public class PerformanceService {
         LocalDateTime startLocal = fromDateLocal.atStartOfDay();
         LocalDateTime endExclusiveLocal = toDateLocal.plusDays(1).atStartOfDay();
 
-        List<Incident> window = incidentRepository
-                .findByTimeGreaterThanEqualAndTimeLessThan(startLocal, endExclusiveLocal);
+        // GROUP BY in the database: one row per distinct rankLevel instead of every incident
+        return incidentRepository.countByRankLevel(startLocal, endExclusiveLocal);
+    }
 
+    /** Rank distribution (CRITICAL/HIGH/MEDIUM/LOW) plus the logged view / clear actions. */
+    private static IncidentStats incidentStats(List<RankLevelCount> counts, List<ActionTotal> actions) {
         int critical = 0, high = 0, medium = 0, low = 0;
-        for (Incident inc : window) {
-            String level = inc.getRankLevel();
-            if (level == null) continue;
-            switch (level.toUpperCase(java.util.Locale.ROOT)) {
-                case "CRITICAL" -> critical++;
-                case "HIGH"     -> high++;
-                case "MEDIUM"   -> medium++;
-                case "LOW"      -> low++;
+        for (RankLevelCount c : counts) {
+            int n = (int) c.getTotal();
+            switch (c.getRankLevel().toUpperCase(java.util.Locale.ROOT)) {
+                case "CRITICAL" -> critical += n;
+                case "HIGH"     -> high += n;
+                case "MEDIUM"   -> medium += n;
+                case "LOW"      -> low += n;
+            }
+        }
+
+        int viewed = 0, cleared = 0;
+        for (ActionTotal a : actions) {
+            switch (a.getAction()) {
+                case OfficerAction.INCIDENTS_VIEWED -> viewed = (int) a.getTotal();
+                case OfficerAction.ALERTS_CLEARED   -> cleared = (int) a.getTotal();
             }
         }
 
         return IncidentStats.builder()
-                .incidentsViewed(0)
-                .newAlertsCleared(0)
+                .incidentsViewed(viewed)
+                .newAlertsCleared(cleared)
                 .byRankLevel(PerformanceSummary.RankDistribution.builder()
                         .CRITICAL(critical).HIGH(high).MEDIUM(medium).LOW(low)
                         .build())
                 .build();
     }
 
-    private MessagingStats computeSimpleMessaging(List<Message> messages, String officer) {
-        if (officer == null || officer.isBlank()) {
-            // Conversations = distinct unordered pairs
-            Set<String> pairs = new HashSet<>();
-            for (Message m : messages) {
-                String a = m.getSender(), b = m.getReceiver();
-                if (a == null || b == null) continue;
-                pairs.add((a.compareTo(b) < 0) ? a + "|" + b : b + "|" + a);
-            }
-
-            int activeDays = (int) messages.stream()
-                    .map(m -> parseToInstantUTC(m.getTime()))
-                    .filter(Optional::isPresent)
-                    .map(opt -> opt.get().atZone(ZoneOffset.UTC).toLocalDate())
-                    .collect(Collectors.toSet())
-                    .size();
-
-            int total = messages.size();
-            return MessagingStats.builder()
-                    .conversations(pairs.size())
-                    .messagesSent(total)
-                    .messagesReceived(total)
-                    .firstResponseTimeMs(new Percentiles(0, 0, 0))
-                    .avgResponseTimeMs(new Percentiles(0, 0, 0))
-                    .activeDays(activeDays)
-                    .unreadClearedCount(0)
-                    .build();
+    /** {firstResponse, response} sketches merged over the given officer-day rows. */
+    private static LatencySketch[] merge(List<OfficerDailyLatency> rows) {
+        LatencySketch first = new LatencySketch(), latest = new LatencySketch();
+        for (OfficerDailyLatency row : rows) {
+            first.merge(LatencySketch.fromBytes(row.getFirstResponse()));
+            latest.merge(LatencySketch.fromBytes(row.getResponse()));
         }
+        return new LatencySketch[]{first, latest};
+    }
 
-        String me = officer;
-
-        Set<String> peers = messages.stream()
-                .flatMap(m -> {
-                    if (me.equals(m.getSender())) return Arrays.stream(new String[]{m.getReceiver()});
-                    if (me.equals(m.getReceiver())) return Arrays.stream(new String[]{m.getSender()});
-                    return Arrays.stream(new String[0]);
-                })
-                .filter(Objects::nonNull)
-                .collect(Collectors.toSet());
-
-        int sent = (int) messages.stream().filter(m -> me.equals(m.getSender())).count();
-        int received = (int) messages.stream().filter(m -> me.equals(m.getReceiver())).count();
+    private <T> CompletableFuture<T> section(Supplier<T> read) {
+        // pool threads would not see (or join) the caller's transaction
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return CompletableFuture.completedFuture(read.get());
+        }
+        return CompletableFuture.supplyAsync(read, sections);
+    }
 
-        int activeDays = (int) messages.stream()
-                .filter(m -> me.equals(m.getSender()) || me.equals(m.getReceiver()))
-                .map(m -> parseToInstantUTC(m.getTime()))
-                .filter(Optional::isPresent)
-                .map(opt -> opt.get().atZone(ZoneOffset.UTC).toLocalDate())
-                .collect(Collectors.toSet())
-                .size();
+    private static <T> T join(CompletableFuture<T> section) {
+        try {
+            return section.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause; // as if it ran inline
+            throw e;
+        }
+    }
 
+    private static MessagingStats messagingStats(int conversations, int sent, int received, int activeDays,
+                                                 LatencySketch first, LatencySketch latest) {
         return MessagingStats.builder()
-                .conversations(peers.size())
+                .conversations(conversations)
                 .messagesSent(sent)
                 .messagesReceived(received)
-                .firstResponseTimeMs(new Percentiles(0, 0, 0))
-                .avgResponseTimeMs(new Percentiles(0, 0, 0))
+                .firstResponseTimeMs(percentiles(first))
+                .avgResponseTimeMs(percentiles(latest))
                 .activeDays(activeDays)
                 .unreadClearedCount(0)
                 .build();
     }
 
-    /** Parse Message.time (String) to UTC Instant. */
-    private Optional<Instant> parseToInstantUTC(String s) {
-        if (s == null || s.isBlank()) return Optional.empty();
-
-        // 1) ISO instant (e.g., "2025-11-11T01:23:45Z")
-        try { return Optional.of(Instant.parse(s)); }
-        catch (DateTimeParseException ignored) {}
-
-        // 2) ISO date-time and fallbacks (assume UTC if no zone)
-        for (DateTimeFormatter f : FALLBACKS) {
-            try {
-                var acc = f.parse(s);
-                if (acc.isSupported(java.time.temporal.ChronoField.OFFSET_SECONDS)) {
-                    return Optional.of(OffsetDateTime.from(acc).toInstant());
-                } else {
-                    return Optional.of(LocalDateTime.from(acc).toInstant(ZoneOffset.UTC));
-                }
-            } catch (DateTimeParseException ignored) { }
-        }
-
-        // 3) Time-only formats -> assume today's local date
-        try {
-            if (s.matches("^\\d{1,2}:\\d{2}$")) { // "HH:mm"
-                var today = LocalDate.now();
-                var parts = s.split(":");
-                var ldt = LocalDateTime.of(today,
-                        LocalTime.of(Integer.parseInt(parts[0]), Integer.parseInt(parts[1])));
-                return Optional.of(ldt.toInstant(ZoneOffset.UTC));
-            }
-            if (s.matches("(?i)^\\d{1,2}:\\d{2}\\s*(AM|PM)$")) { // "h:mm AM/PM"
-                var today = LocalDate.now();
-                var fmt = DateTimeFormatter.ofPattern("h:mm a");
-                var lt = LocalTime.parse(s.toUpperCase(Locale.ROOT), fmt);
-                var ldt = LocalDateTime.of(today, lt);
-                return Optional.of(ldt.toInstant(ZoneOffset.UTC));
-            }
-        } catch (Exception ignored) {}
+    private static long replyTimeOrLast(Percentiles p) {
+        return (p.getP50() == 0 && p.getAvg() == 0) ? Long.MAX_VALUE : p.getP50();
+    }
 
-        return Optional.empty();
+    private static Percentiles percentiles(LatencySketch sketch) {
+        return new Percentiles(sketch.mean(), sketch.quantile(0.5), sketch.quantile(0.9));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,163 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Incident;
+import com.example.demo.model.PerformanceSummary;
+import com.example.demo.model.SummaryCacheStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.*;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiPredicate;
+
+/**
+ * Bounded cache in front of PerformanceService.getSummary, keyed by (from, to, officer).
+ *
+ *   - closed ranges (ending before today, UTC and local) have no TTL: their data only changes
+ *     through late writes, which invalidate them
+ *   - ranges touching today expire after ttl-ms, and are invalidated on writes as well
+ *   - a committed message drops the entries whose UTC days contain it (team entries and the
+ *     sender's / receiver's); committed incidents drop every entry whose local days contain them;
+ *     a flushed batch of officer actions drops the team entries and the actors' entries whose
+ *     UTC days overlap it
+ *   - at most max-entries, least recently used evicted first
+ *
+ * A summary computed while a write committed is returned but not stored, so a stale result
+ * never outlives the invalidation that should have removed it.
+ */
+@Component
+public class PerformanceSummaryCache {
+
+    private record Key(Instant from, Instant to, String officer) {}
+
+    private record Entry(PerformanceSummary summary, long expiresAtMs,
+                         LocalDate messageFrom, LocalDate messageTo,     // UTC days (messaging)
+                         LocalDate incidentFrom, LocalDate incidentTo) { // local days (incidents)
+    }
+
+    private final PerformanceService performanceService;
+    private final Clock clock;
+    private final int maxEntries;
+    private final long ttlMs;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    // guarded by this
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long writes; // bumped on every committed write event
+
+    @Autowired
+    public PerformanceSummaryCache(
+            PerformanceService performanceService,
+            @Value("${poliz.performance.cache.max-entries:500}") int maxEntries,
+            @Value("${poliz.performance.cache.ttl-ms:60000}") long ttlMs
+    ) {
+        this(performanceService, Clock.systemDefaultZone(), maxEntries, ttlMs);
+    }
+
+    PerformanceSummaryCache(PerformanceService performanceService, Clock clock, int maxEntries, long ttlMs) {
+        this.performanceService = performanceService;
+        this.clock = clock;
+        this.maxEntries = maxEntries;
+        this.ttlMs = ttlMs;
+    }
+
+    public PerformanceSummary getSummary(Instant from, Instant to, String officer) {
+        Key key = new Key(from, to, (officer == null || officer.isBlank()) ? null : officer);
+        long now = clock.millis();
+        long writesBefore;
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.expiresAtMs() > now) {
+                hits.incrementAndGet();
+                return entry.summary();
+            }
+            if (entry != null) entries.remove(key);
+            writesBefore = writes;
+        }
+        misses.incrementAndGet();
+
+        PerformanceSummary summary = performanceService.getSummary(from, to, officer);
+
+        Entry entry = newEntry(summary, from, to, now);
+        synchronized (this) {
+            if (writes == writesBefore) {
+                entries.put(key, entry);
+                if (entries.size() > maxEntries) {
+                    Iterator<Key> eldest = entries.keySet().iterator();
+                    eldest.next();
+                    eldest.remove();
+                    evictions.incrementAndGet();
+                }
+            }
+        }
+        return summary;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMessageRecorded(MessageRecordedEvent event) {
+        LocalDate day = Instant.ofEpochMilli(event.sentAtMs()).atZone(ZoneOffset.UTC).toLocalDate();
+        invalidate((key, entry) -> !day.isBefore(entry.messageFrom()) && !day.isAfter(entry.messageTo())
+                && (key.officer() == null || key.officer().equals(event.sender()) || key.officer().equals(event.receiver())));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onIncidentsSaved(IncidentsSavedEvent event) {
+        Set<LocalDate> days = new HashSet<>();
+        for (Incident incident : event.incidents()) {
+            if (incident.getTime() != null) days.add(incident.getTime().toLocalDate());
+        }
+        if (days.isEmpty()) return;
+        invalidate((key, entry) -> days.stream().anyMatch(
+                d -> !d.isBefore(entry.incidentFrom()) && !d.isAfter(entry.incidentTo())));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOfficerActionsFlushed(OfficerActionsFlushedEvent event) {
+        LocalDate first = Instant.ofEpochMilli(event.fromMs()).atZone(ZoneOffset.UTC).toLocalDate();
+        LocalDate last = Instant.ofEpochMilli(event.toMs()).atZone(ZoneOffset.UTC).toLocalDate();
+        invalidate((key, entry) -> !last.isBefore(entry.messageFrom()) && !first.isAfter(entry.messageTo())
+                && (key.officer() == null || event.officers().contains(key.officer())));
+    }
+
+    public SummaryCacheStats getStats() {
+        long h = hits.get(), m = misses.get();
+        int size;
+        synchronized (this) {
+            size = entries.size();
+        }
+        return new SummaryCacheStats(h, m, (h + m == 0) ? 0 : (double) h / (h + m),
+                evictions.get(), invalidations.get(), size, maxEntries);
+    }
+
+    private synchronized void invalidate(BiPredicate<Key, Entry> affected) {
+        writes++;
+        Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Key, Entry> e = it.next();
+            if (affected.test(e.getKey(), e.getValue())) {
+                it.remove();
+                invalidations.incrementAndGet();
+            }
+        }
+    }
+
+    private Entry newEntry(PerformanceSummary summary, Instant from, Instant to, long now) {
+        // same day boundaries as PerformanceService: UTC for messages, local zone for incidents
+        ZoneId zone = clock.getZone();
+        LocalDate messageTo = to.atZone(ZoneOffset.UTC).toLocalDate();
+        LocalDate incidentTo = to.atZone(zone).toLocalDate();
+        Instant nowInstant = Instant.ofEpochMilli(now);
+        boolean closed = messageTo.isBefore(nowInstant.atZone(ZoneOffset.UTC).toLocalDate())
+                && incidentTo.isBefore(nowInstant.atZone(zone).toLocalDate());
+        return new Entry(summary, closed ? Long.MAX_VALUE : now + ttlMs,
+                from.atZone(ZoneOffset.UTC).toLocalDate(), messageTo,
+                from.atZone(zone).toLocalDate(), incidentTo);
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.demo.service;
+
+import com.example.demo.model.PerformanceTimeseries;
+import com.example.demo.repository.*;
+import org.springframework.stereotype.Service;
+
+import java.time.*;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Per-hour / per-day series of messages sent/received and incidents by rankLevel,
+ * from the same sources as PerformanceService, each read once and spread over
+ * long[] counters indexed by bucket offset:
+ *   - day buckets:  messages from the daily rollups (officer_daily_stats)
+ *   - hour buckets: messages from (sentAtMs, sender, receiver) rows, no text
+ *   - incidents:    (time, rankLevel) rows, local incident time placed on the UTC timeline
+ * Buckets are aligned to UTC hours/days.
+ *
+ * Incident.time is local (JVM zone), so an incident day bucket holds the incidents of one UTC
+ * day, while /summary counts whole local days (PerformanceService.countRankLevels). Outside a
+ * UTC JVM the incident counts of a day bucket and of a one-day /summary therefore differ by the
+ * zone offset; message counts are UTC days on both sides and match.
+ */
+@Service
+public class PerformanceTimeseriesService {
+
+    public static final int MAX_BUCKETS = 24 * 92; // a quarter of hours, or ~6 years of days
+
+    private static final long HOUR_MS = 3_600_000L;
+    private static final long DAY_MS = 24 * HOUR_MS;
+    private static final DateTimeFormatter ISO_INSTANT = DateTimeFormatter.ISO_INSTANT;
+
+    private final OfficerDailyStatsRepository statsRepository;
+    private final MessageRepository messageRepository;
+    private final IncidentRepository incidentRepository;
+
+    public PerformanceTimeseriesService(OfficerDailyStatsRepository statsRepository,
+                                        MessageRepository messageRepository,
+                                        IncidentRepository incidentRepository) {
+        this.statsRepository = statsRepository;
+        this.messageRepository = messageRepository;
+        this.incidentRepository = incidentRepository;
+    }
+
+    /** @throws IllegalArgumentException unknown bucket, to before from, or more than MAX_BUCKETS buckets */
+    public PerformanceTimeseries getTimeseries(Instant from, Instant toInclusive, String bucket, String officer) {
+        long bucketMs = switch (bucket == null ? "" : bucket) {
+            case "hour" -> HOUR_MS;
+            case "day" -> DAY_MS;
+            default -> throw new IllegalArgumentException("bucket must be hour or day");
+        };
+        if (toInclusive.isBefore(from)) throw new IllegalArgumentException("to is before from");
+        long start = Math.floorDiv(from.toEpochMilli(), bucketMs) * bucketMs;
+        long buckets = (toInclusive.toEpochMilli() - start) / bucketMs + 1;
+        if (buckets > MAX_BUCKETS) {
+            throw new IllegalArgumentException(buckets + " buckets requested (max " + MAX_BUCKETS + ")");
+        }
+        int n = (int) buckets;
+        String who = (officer == null || officer.isBlank()) ? null : officer;
+
+        long[] sent = new long[n], received = new long[n];
+        if (bucketMs == DAY_MS) {
+            LocalDate fromDay = from.atZone(ZoneOffset.UTC).toLocalDate();
+            LocalDate toDay = toInclusive.atZone(ZoneOffset.UTC).toLocalDate();
+            for (DailyMessageTotals d : statsRepository.sumByDay(fromDay, toDay, who)) {
+                int b = (int) ((d.getDay().toEpochDay() * DAY_MS - start) / DAY_MS);
+                sent[b] += d.getSent();
+                received[b] += (who == null) ? d.getSent() : d.getReceived(); // team: every message once
+            }
+        } else {
+            for (MessageTimeRow m : messageRepository.findTimeRows(from.toEpochMilli(), toInclusive.toEpochMilli(), who)) {
+                int b = (int) ((m.getSentAtMs() - start) / HOUR_MS);
+                if (who == null) {
+                    sent[b]++;
+                    received[b]++;
+                } else {
+                    if (who.equals(m.getSender())) sent[b]++;
+                    if (who.equals(m.getReceiver())) received[b]++;
+                }
+            }
+        }
+
+        long[] critical = new long[n], high = new long[n], medium = new long[n], low = new long[n];
+        ZoneId zone = ZoneId.systemDefault(); // Incident.time is local, as in PerformanceService
+        LocalDateTime fromLocal = LocalDateTime.ofInstant(from, zone);
+        LocalDateTime toExclusiveLocal = LocalDateTime.ofInstant(toInclusive.plusMillis(1), zone);
+        for (IncidentTimeRank i : incidentRepository.findTimeAndRank(fromLocal, toExclusiveLocal)) {
+            long offset = i.getTime().atZone(zone).toInstant().toEpochMilli() - start;
+            if (offset < 0 || offset >= buckets * bucketMs) continue; // DST edge
+            int b = (int) (offset / bucketMs);
+            switch (i.getRankLevel().toUpperCase(Locale.ROOT)) {
+                case "CRITICAL" -> critical[b]++;
+                case "HIGH"     -> high[b]++;
+                case "MEDIUM"   -> medium[b]++;
+                case "LOW"      -> low[b]++;
+            }
+        }
+
+        List<String> labels = new ArrayList<>(n);
+        for (int b = 0; b < n; b++) labels.add(ISO_INSTANT.format(Instant.ofEpochMilli(start + b * bucketMs)));
+        return new PerformanceTimeseries(bucket, who, labels, sent, received, critical, high, medium, low);
+    }
+}
@@ -4,6 +4,7 @@ import com.example.demo.model.Chat;
 import com.example.demo.model.Message;
 import com.example.demo.repository.ChatRepository;
 import com.example.demo.repository.MessageRepository;
+import com.example.demo.service.MessageRollupService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -61,6 +62,9 @@ class ChatControllerTest {
     @Mock
     private MessageRepository msgRepo;
 
+    @Mock
+    private MessageRollupService rollups;
+
     // Setup method to mock the chat between "Pim" and "Ploy"
     @BeforeEach
     void setUp() {
@@ -100,6 +104,8 @@ class ChatControllerTest {
         assertEquals("Hello Ploy!", savedMessage.getText());
         assertEquals("Pim", savedMessage.getSender());
         assertEquals("Ploy", savedMessage.getReceiver());
+        assertNotNull(savedMessage.getSentAtMs()); // set server-side
+        verify(rollups).recordMessage(savedMessage); // daily rollups follow the send
     }
 
     // T3: Valid message, chat doesn't exist, but message is not saved (throws exception)
@@ -1,7 +1,11 @@
 package com.example.demo.controller;
 
 import com.example.demo.model.CrimeIncidentDto;
+import com.example.demo.model.HeatmapCell;
 import com.example.demo.model.Incident;
+import com.example.demo.service.IncidentDataVersion;
+import com.example.demo.service.IncidentHeatmap;
+import com.example.demo.service.IncidentsSavedEvent;
 import com.example.demo.service.IncidentService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -23,8 +27,12 @@ import static org.mockito.Mockito.*;
  * We use IncidentService as a mocked dependency and focus on:
  *  - Logic coverage over the predicate:
  *        (type == null || type.isBlank() || equalsIgnoreCase("All Types"))
- *  - Correct filtering by concrete type (e.g., "Traffic Accident")
+ *  - Correct filtering by concrete type (e.g., "Traffic Accident"),
+ *    pushed down to IncidentService.getCrimeIncidents (DTO projection)
+ *  - Several types in one request
  *  - Behavior when no incident matches the requested type.
+ *  - Heatmap parameter parsing (bbox given / omitted / malformed).
+ *  - Conditional GET: ETag on the list, 304 without a query while the data is unchanged.
  */
 @ExtendWith(MockitoExtension.class)
 class CrimeIncidentControllerTest {
@@ -32,11 +40,16 @@ class CrimeIncidentControllerTest {
     @Mock
     private IncidentService incidentService;
 
+    @Mock
+    private IncidentHeatmap heatmap;
+
+    private final IncidentDataVersion dataVersion = new IncidentDataVersion();
+
     private CrimeIncidentController controller;
 
     @BeforeEach
     void setUp() {
-        controller = new CrimeIncidentController(incidentService);
+        controller = new CrimeIncidentController(incidentService, heatmap, dataVersion);
     }
 
     // -------------------------------------------------------------------------
@@ -51,12 +64,12 @@ class CrimeIncidentControllerTest {
     @Test
     @DisplayName("getCrimeIncidents returns all when type is null")
     void returnsAll_whenTypeIsNull() {
-        when(incidentService.getAllIncidents()).thenReturn(sampleIncidents());
+        when(incidentService.getCrimeIncidents(List.of())).thenReturn(sampleDtos());
 
         ResponseEntity<List<CrimeIncidentDto>> response =
-                controller.getCrimeIncidents(null);
+                controller.getCrimeIncidents(null, null);
 
-        verify(incidentService, times(1)).getAllIncidents();
+        verify(incidentService, times(1)).getCrimeIncidents(List.of());
         List<CrimeIncidentDto> body = response.getBody();
         assertThat(body).isNotNull();
         assertThat(body).hasSize(3);
@@ -81,12 +94,12 @@ class CrimeIncidentControllerTest {
     @Test
     @DisplayName("getCrimeIncidents returns all when type is 'All Types'")
     void returnsAll_whenTypeIsAllTypes() {
-        when(incidentService.getAllIncidents()).thenReturn(sampleIncidents());
+        when(incidentService.getCrimeIncidents(List.of())).thenReturn(sampleDtos());
 
         ResponseEntity<List<CrimeIncidentDto>> response =
-                controller.getCrimeIncidents("All Types");
+                controller.getCrimeIncidents("All Types", null);
 
-        verify(incidentService, times(1)).getAllIncidents();
+        verify(incidentService, times(1)).getCrimeIncidents(List.of());
         List<CrimeIncidentDto> body = response.getBody();
         assertThat(body).isNotNull();
         assertThat(body).hasSize(3);
@@ -105,19 +118,21 @@ class CrimeIncidentControllerTest {
 
     /**
      * When a concrete type "Traffic Accident" is provided,
-     * the predicate is FALSE and the controller should filter the list
+     * the predicate is FALSE and the controller should ask IncidentService
+     * for that type only (filtered in the database, not in memory)
      * and only return CrimeIncidentDto with type = "Traffic Accident".
      */
     @Test
     @DisplayName("getCrimeIncidents filters correctly for 'Traffic Accident'")
     void returnsOnlyMatchingType_whenTrafficAccidentProvided() {
-        when(incidentService.getAllIncidents()).thenReturn(sampleIncidents());
+        when(incidentService.getCrimeIncidents(List.of("Traffic Accident")))
+                .thenReturn(List.of(sampleDtos().get(0)));
 
         ResponseEntity<List<CrimeIncidentDto>> response =
-                controller.getCrimeIncidents("Traffic Accident");
-
-        verify(incidentService, times(1)).getAllIncidents();
+                controller.getCrimeIncidents("Traffic Accident", null);
 
+        verify(incidentService, times(1)).getCrimeIncidents(List.of("Traffic Accident"));
+        verify(incidentService, never()).getCrimeIncidents(List.of());
         List<CrimeIncidentDto> body = response.getBody();
         assertThat(body).isNotNull();
         assertThat(body).hasSize(1);
@@ -137,17 +152,17 @@ class CrimeIncidentControllerTest {
 
     /**
      * When a type that has no matches is provided (e.g., "Disturbance"),
-     * the controller should return an empty list after filtering.
+     * the controller should return an empty list.
      */
     @Test
     @DisplayName("getCrimeIncidents returns empty list when no incident matches type")
     void returnsEmpty_whenNoIncidentMatchesType() {
-        when(incidentService.getAllIncidents()).thenReturn(sampleIncidents());
+        when(incidentService.getCrimeIncidents(List.of("Disturbance"))).thenReturn(List.of());
 
         ResponseEntity<List<CrimeIncidentDto>> response =
-                controller.getCrimeIncidents("Disturbance");
+                controller.getCrimeIncidents("Disturbance", null);
 
-        verify(incidentService, times(1)).getAllIncidents();
+        verify(incidentService, times(1)).getCrimeIncidents(List.of("Disturbance"));
 
         List<CrimeIncidentDto> body = response.getBody();
         assertThat(body).isNotNull();
@@ -171,12 +186,12 @@ class CrimeIncidentControllerTest {
     @Test
     @DisplayName("getCrimeIncidents returns all when type is blank")
     void returnsAll_whenTypeIsBlank() {
-        when(incidentService.getAllIncidents()).thenReturn(sampleIncidents());
+        when(incidentService.getCrimeIncidents(List.of())).thenReturn(sampleDtos());
 
         ResponseEntity<List<CrimeIncidentDto>> response =
-                controller.getCrimeIncidents("   ");
+                controller.getCrimeIncidents("   ", null);
 
-        verify(incidentService, times(1)).getAllIncidents();
+        verify(incidentService, times(1)).getCrimeIncidents(List.of());
         List<CrimeIncidentDto> body = response.getBody();
         assertThat(body).isNotNull();
         assertThat(body).hasSize(3);
@@ -188,6 +203,91 @@ class CrimeIncidentControllerTest {
                 + body.size() + " incident(s): [" + types + "]");
     }
 
+    // -------------------------------------------------------------------------
+    // Test 6: several types in one request (?type=Fire&type=Medical Emergency)
+    // Technique: Logic coverage (predicate FALSE, multi-value parameter).
+    // -------------------------------------------------------------------------
+
+    /**
+     * Repeated type parameters arrive comma-joined; the controller should
+     * split them and request all of them from IncidentService in one call.
+     */
+    @Test
+    @DisplayName("getCrimeIncidents accepts several types in one request")
+    void returnsAllRequestedTypes_whenSeveralTypesProvided() {
+        when(incidentService.getCrimeIncidents(List.of("Fire", "Medical Emergency")))
+                .thenReturn(sampleDtos().subList(1, 3));
+
+        ResponseEntity<List<CrimeIncidentDto>> response =
+                controller.getCrimeIncidents("Fire, Medical Emergency", null);
+
+        List<CrimeIncidentDto> body = response.getBody();
+        assertThat(body).isNotNull();
+        assertThat(body).extracting(CrimeIncidentDto::type)
+                .containsExactly("Medical Emergency", "Fire");
+    }
+
+    // -------------------------------------------------------------------------
+    // Test 7: heatmap bbox parsing
+    // Technique: Input space partitioning (bbox omitted / valid / malformed).
+    // -------------------------------------------------------------------------
+
+    @Test
+    @DisplayName("getHeatmap passes the parsed bbox, or the whole world when omitted")
+    void heatmap_parsesBbox() {
+        List<HeatmapCell> cells = List.of(new HeatmapCell(1, 2, 13.7, 100.5, 1, 0, 0, 0, 1));
+        when(heatmap.getTiles(12, 13.5, 100.3, 14.0, 100.9, null, null)).thenReturn(cells);
+        when(heatmap.getTiles(2, -90, -180, 90, 180, null, null)).thenReturn(List.of());
+
+        assertThat(controller.getHeatmap(12, "13.5, 100.3,14.0,100.9", null, null).getBody())
+                .isEqualTo(cells);
+        assertThat(controller.getHeatmap(2, null, null, null).getStatusCode().value()).isEqualTo(200);
+    }
+
+    @Test
+    @DisplayName("getHeatmap answers 400 for a malformed bbox or a rejected viewport")
+    void heatmap_badRequest() {
+        when(heatmap.getTiles(16, -90, -180, 90, 180, null, null))
+                .thenThrow(new IllegalArgumentException("too many tiles"));
+
+        assertThat(controller.getHeatmap(12, "13.5,100.3,14.0", null, null).getStatusCode().value()).isEqualTo(400);
+        assertThat(controller.getHeatmap(12, "a,b,c,d", null, null).getStatusCode().value()).isEqualTo(400);
+        assertThat(controller.getHeatmap(16, null, null, null).getStatusCode().value()).isEqualTo(400);
+        verify(heatmap, times(1)).getTiles(anyInt(), anyDouble(), anyDouble(), anyDouble(), anyDouble(), any(), any());
+    }
+
+    // -------------------------------------------------------------------------
+    // Test 8: conditional GET with If-None-Match
+    // Technique: State-based testing (data version unchanged / bumped by a write).
+    // -------------------------------------------------------------------------
+
+    @Test
+    @DisplayName("getCrimeIncidents answers 304 for the current ETag and 200 after a write")
+    void conditionalGet_usesDataVersion() {
+        when(incidentService.getCrimeIncidents(List.of())).thenReturn(sampleDtos());
+
+        ResponseEntity<List<CrimeIncidentDto>> first = controller.getCrimeIncidents(null, null);
+        String etag = first.getHeaders().getETag();
+        assertThat(etag).isNotNull();
+
+        ResponseEntity<List<CrimeIncidentDto>> unchanged = controller.getCrimeIncidents(null, etag);
+        assertThat(unchanged.getStatusCode().value()).isEqualTo(304);
+        assertThat(unchanged.getBody()).isNull();
+        verify(incidentService, times(1)).getCrimeIncidents(List.of());
+
+        dataVersion.onIncidentsSaved(new IncidentsSavedEvent(sampleIncidents().subList(0, 1)));
+
+        ResponseEntity<List<CrimeIncidentDto>> changed = controller.getCrimeIncidents(null, "W/" + etag);
+        assertThat(changed.getStatusCode().value()).isEqualTo(200);
+        assertThat(changed.getHeaders().getETag()).isNotEqualTo(etag);
+        verify(incidentService, times(2)).getCrimeIncidents(List.of());
+    }
+
+    /** The sample incidents as the dashboard rows IncidentService.getCrimeIncidents returns. */
+    private List<CrimeIncidentDto> sampleDtos() {
+        return sampleIncidents().stream().map(CrimeIncidentDto::fromIncident).toList();
+    }
+
     /**
      * List of sample incidents used in tests
      * that exercise both "return all" and filtered branches.
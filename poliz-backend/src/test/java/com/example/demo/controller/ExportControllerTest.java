@@ -0,0 +1,137 @@
+package com.example.demo.controller;
+
+import com.example.demo.service.ExportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * ExportController over a mocked ExportService (MockMvc, async dispatch for the streamed body).
+ *   - NDJSON by default, CSV on request, attachment file name
+ *   - Accept-Encoding: gzip -> body compressed on the fly, Content-Encoding set;
+ *     codings and q-values parsed (gzip;q=0 and x-gzip -> identity, * -> gzip)
+ *   - type list parsed like the dashboard; bad format or reversed range -> 400 before streaming
+ */
+@ExtendWith(MockitoExtension.class)
+class ExportControllerTest {
+
+    @Mock
+    private ExportService exportService;
+
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        mvc = MockMvcBuilders.standaloneSetup(new ExportController(exportService)).build();
+    }
+
+    @Test
+    void incidents_streamNdjsonWithTypeFilter() throws Exception {
+        when(exportService.writeIncidents(any(), eq(ExportService.Format.NDJSON), eq(LocalDate.of(2025, 11, 1)),
+                eq(LocalDate.of(2025, 11, 30)), eq(List.of("Fire", "Traffic Accident"))))
+                .thenAnswer(call -> write(call.getArgument(0), "{\"id\":1}\n{\"id\":2}\n"));
+
+        MvcResult started = mvc.perform(get("/api/v1/export/incidents")
+                        .param("from", "2025-11-01").param("to", "2025-11-30")
+                        .param("type", "Fire, Traffic Accident"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/x-ndjson"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"incidents.ndjson\""))
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(content().string("{\"id\":1}\n{\"id\":2}\n"));
+    }
+
+    @Test
+    void messages_csvGzippedOnTheFly() throws Exception {
+        String csv = "id,chatId,sender,receiver,text,time,sentAtMs\r\n1,,Pim,Nok,hi,12:30 PM,1\r\n";
+        when(exportService.writeMessages(any(), eq(ExportService.Format.CSV), isNull(), isNull(), eq("Pim")))
+                .thenAnswer(call -> write(call.getArgument(0), csv));
+
+        MvcResult started = mvc.perform(get("/api/v1/export/messages")
+                        .param("format", "csv").param("officer", "Pim")
+                        .header("Accept-Encoding", "gzip, deflate"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        MvcResult result = mvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"messages.csv\""))
+                .andReturn();
+
+        byte[] zipped = result.getResponse().getContentAsByteArray();
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(zipped))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(csv);
+        }
+    }
+
+    @Test
+    void gzipRefusedWithQZero_isSentUncompressed() throws Exception {
+        when(exportService.writeIncidents(any(), any(), isNull(), isNull(), eq(List.of())))
+                .thenAnswer(call -> write(call.getArgument(0), "{\"id\":1}\n"));
+
+        MvcResult started = mvc.perform(get("/api/v1/export/incidents")
+                        .header("Accept-Encoding", "gzip;q=0, deflate"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(content().string("{\"id\":1}\n"));
+    }
+
+    @Test
+    void acceptEncoding_codingsAndQValues() {
+        assertThat(ExportController.acceptsGzip("gzip, deflate")).isTrue();
+        assertThat(ExportController.acceptsGzip("deflate, GZIP ; q=0.5")).isTrue();
+        assertThat(ExportController.acceptsGzip("*")).isTrue();
+        assertThat(ExportController.acceptsGzip("br;q=1.0, *;q=0.1")).isTrue();
+
+        assertThat(ExportController.acceptsGzip(null)).isFalse();
+        assertThat(ExportController.acceptsGzip("gzip;q=0")).isFalse();
+        assertThat(ExportController.acceptsGzip("gzip;q=0.000, *")).isFalse();   // explicit gzip wins over *
+        assertThat(ExportController.acceptsGzip("x-gzip")).isFalse();
+        assertThat(ExportController.acceptsGzip("deflate, br")).isFalse();
+        assertThat(ExportController.acceptsGzip("*;q=0")).isFalse();
+        assertThat(ExportController.acceptsGzip("gzip;q=abc")).isFalse();
+    }
+
+    @Test
+    void badFormatOrRange_isRejectedBeforeStreaming() throws Exception {
+        mvc.perform(get("/api/v1/export/incidents").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(get("/api/v1/export/messages").param("from", "2025-11-02").param("to", "2025-11-01"))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(exportService);
+    }
+
+    private static long write(OutputStream out, String body) throws java.io.IOException {
+        out.write(body.getBytes(StandardCharsets.UTF_8));
+        return body.lines().count();
+    }
+}
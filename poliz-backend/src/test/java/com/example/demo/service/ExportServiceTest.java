@@ -0,0 +1,206 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Incident;
+import com.example.demo.model.Message;
+import com.example.demo.repository.IncidentRepository;
+import com.example.demo.repository.MessageRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ExportService against the H2 schema.
+ *   - incidents as NDJSON: local-day range and type filter; untimed rows only without a range
+ *   - messages as CSV: header, RFC 4180 quoting, UTC-day range on sentAtMs, officer filter
+ *   - benchmark (-Dbenchmark=true): heap while exporting 300k messages vs findAll + one JSON list
+ */
+@DataJpaTest
+class ExportServiceTest {
+
+    @Autowired
+    IncidentRepository incidentRepository;
+
+    @Autowired
+    MessageRepository messageRepository;
+
+    @Autowired
+    JdbcTemplate jdbc;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    // like Spring Boot's mapper: java.time values as ISO strings
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private ExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        exportService = new ExportService(incidentRepository, messageRepository, objectMapper);
+    }
+
+    @Test
+    void incidents_ndjson_filteredByLocalDaysAndType() throws IOException {
+        incidentRepository.saveAll(List.of(
+                incident("Fire", LocalDateTime.of(2025, 11, 1, 0, 0)),
+                incident(" traffic ACCIDENT", LocalDateTime.of(2025, 11, 2, 23, 59)),
+                incident("Fire", LocalDateTime.of(2025, 11, 3, 0, 0)),      // after the range
+                incident("Theft", LocalDateTime.of(2025, 11, 2, 12, 0)),    // other type
+                incident("Fire", null)));                                   // untimed
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long n = exportService.writeIncidents(out, ExportService.Format.NDJSON,
+                LocalDate.of(2025, 11, 1), LocalDate.of(2025, 11, 2), List.of("fire", "Traffic Accident"));
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, n);
+        assertEquals(2, lines.length);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals("Fire", first.get("type").asText());
+        assertEquals("2025-11-01T00:00:00", first.get("time").asText());
+        assertEquals(" traffic ACCIDENT", objectMapper.readTree(lines[1]).get("type").asText());
+
+        out.reset();
+        assertEquals(5, exportService.writeIncidents(out, ExportService.Format.NDJSON, null, null, List.of()));
+    }
+
+    @Test
+    void messages_csv_quotedAndFiltered() throws IOException {
+        long day = Instant.parse("2025-11-02T00:00:00Z").toEpochMilli();
+        messageRepository.saveAll(List.of(
+                message("Pim", "Nok", "plain", day),
+                message("Nok", "Pim", "a, \"quoted\"\nline", day + 3_600_000),
+                message("Earn", "Nok", "not Pim", day + 7_200_000),
+                message("Pim", "Earn", "next day", day + 86_400_000)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long n = exportService.writeMessages(out, ExportService.Format.CSV,
+                LocalDate.of(2025, 11, 2), LocalDate.of(2025, 11, 2), "Pim");
+
+        String csv = out.toString(StandardCharsets.UTF_8);
+        assertEquals(2, n);
+        assertTrue(csv.startsWith("id,chatId,sender,receiver,text,time,sentAtMs\r\n"), csv);
+        assertTrue(csv.contains(",Pim,Nok,plain,12:30 PM," + day + "\r\n"), csv);
+        assertTrue(csv.contains(",Nok,Pim,\"a, \"\"quoted\"\"\nline\",12:30 PM,"), csv);
+        assertFalse(csv.contains("not Pim") || csv.contains("next day"), csv);
+    }
+
+    @Test
+    void export_rejectsReversedRange() {
+        assertThrows(IllegalArgumentException.class, () -> exportService.writeMessages(OutputStream.nullOutputStream(),
+                ExportService.Format.NDJSON, LocalDate.of(2025, 11, 2), LocalDate.of(2025, 11, 1), null));
+        assertThrows(IllegalArgumentException.class, () -> ExportService.Format.parse("xml"));
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void benchmark_streamingHeap_vsFindAll() {
+        int rows = 300_000;
+        String text = "x".repeat(200);
+        try {
+            List<Object[]> batch = new ArrayList<>();
+            for (int n = 0; n < rows; n++) {
+                batch.add(new Object[]{"officer" + n % 50, "officer" + (n + 1) % 50, text, "12:30 PM", 1_700_000_000_000L + n});
+                if (batch.size() == 10_000) {
+                    jdbc.batchUpdate("insert into messages (sender, receiver, text, time, sent_at_ms) values (?, ?, ?, ?, ?)", batch);
+                    batch.clear();
+                }
+            }
+
+            TransactionTemplate tx = new TransactionTemplate(transactionManager);
+            tx.setReadOnly(true);
+
+            HeapSampler streamed = new HeapSampler();
+            long start = System.nanoTime();
+            long n = tx.execute(s -> {
+                try {
+                    return exportService.writeMessages(streamed, ExportService.Format.NDJSON, null, null, null);
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            long streamedMs = (System.nanoTime() - start) / 1_000_000;
+
+            HeapSampler listed = new HeapSampler();
+            start = System.nanoTime();
+            tx.executeWithoutResult(s -> {
+                try {
+                    listed.write(objectMapper.writeValueAsBytes(messageRepository.findAll().stream()
+                            .map(m -> List.of(m.getId(), m.getSender(), m.getReceiver(), m.getText())).toList()));
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            long listedMs = (System.nanoTime() - start) / 1_000_000;
+
+            assertEquals(rows, n);
+            System.out.printf("Export %d messages: streamed %d ms, peak heap %d MB; findAll + list %d ms, peak heap %d MB%n",
+                    rows, streamedMs, streamed.peak >> 20, listedMs, listed.peak >> 20);
+            assertTrue(streamed.peak < listed.peak);
+        } finally {
+            messageRepository.deleteAllInBatch();
+        }
+    }
+
+    /** Discards the bytes; samples used heap after a GC every 4 MB written. */
+    private static final class HeapSampler extends OutputStream {
+        long written, peak;
+
+        @Override
+        public void write(int b) {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            long before = written;
+            written += len;
+            if (before == 0 || before >> 22 != written >> 22) sample();
+        }
+
+        void sample() {
+            System.gc();
+            Runtime rt = Runtime.getRuntime();
+            peak = Math.max(peak, rt.totalMemory() - rt.freeMemory());
+        }
+    }
+
+    private static Incident incident(String type, LocalDateTime time) {
+        Incident i = new Incident();
+        i.setType(type);
+        i.setPlace("street");
+        i.setNotes("");
+        i.setTime(time);
+        i.setRankLevel("LOW");
+        return i;
+    }
+
+    private static Message message(String sender, String receiver, String text, long sentAtMs) {
+        Message m = new Message(sender, receiver, text, "12:30 PM");
+        m.setSentAtMs(sentAtMs);
+        return m;
+    }
+}
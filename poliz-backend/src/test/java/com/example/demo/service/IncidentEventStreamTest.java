@@ -0,0 +1,224 @@
+package com.example.demo.service;
+
+import com.example.demo.controller.IncidentController;
+import com.example.demo.model.Incident;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+/**
+ * SSE stream (GET /api/v1/events/stream) through the controller with MockMvc.
+ * Senders run inline (direct executor) so every frame is written before the assertions.
+ *   - connect: current count; new incidents are pushed, the count once the counter has moved
+ *   - reconnect with Last-Event-ID: only missed incidents are replayed; too old -> resync
+ *   - heartbeats; incidents that are not new are not streamed
+ *   - slow client (sender never runs): disconnected when its buffer overflows
+ *   - stalled client (send blocks): dropped after send-timeout-ms, others still served by an extra sender
+ */
+@ExtendWith(MockitoExtension.class)
+class IncidentEventStreamTest {
+
+    @Mock
+    IncidentService incidentService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private IncidentEventStream stream;
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        stream = new IncidentEventStream(incidentService, objectMapper, Runnable::run, 3, 16, 15_000, 60_000, 10_000);
+        mvc = MockMvcBuilders.standaloneSetup(new IncidentController(incidentService,
+                mock(IncidentIngestQueue.class), mock(IncidentLocationIndex.class), stream,
+                mock(IncidentReadService.class), new IncidentDataVersion(),
+                mock(OfficerActionLog.class), 1000)).build();
+    }
+
+    @Test
+    void newIncidentsAndCount_arePushedToSubscribers() throws Exception {
+        MvcResult client = connect(null);
+        assertTrue(client.getResponse().getContentAsString().contains("event:count\ndata:0"));
+
+        when(incidentService.getNewIncidentCount()).thenReturn(1);
+        stream.onIncidentsSaved(new IncidentsSavedEvent(List.of(incident(7L, "Siam Square", true))));
+        stream.onNewIncidentCountChanged(new NewIncidentCountChangedEvent(1)); // counter moved
+
+        String body = client.getResponse().getContentAsString();
+        assertTrue(body.contains("event:incident\ndata:{\"id\":7"), body);
+        assertTrue(body.contains("Siam Square"));
+        assertTrue(body.contains("event:count\ndata:1"));
+        verify(incidentService, times(1)).getNewIncidentCount();
+    }
+
+    @Test
+    void reconnect_replaysOnlyMissedIncidents() throws Exception {
+        MvcResult first = connect(null);
+        save("place-1", "place-2", "place-3");
+        List<String> ids = eventIds(first.getResponse().getContentAsString(), "incident");
+        assertEquals(3, ids.size());
+
+        String body = connect(ids.get(0)).getResponse().getContentAsString();
+
+        assertFalse(body.contains("place-1"));
+        assertTrue(body.contains("place-2"));
+        assertTrue(body.contains("place-3"));
+        assertFalse(body.contains("resync"));
+    }
+
+    @Test
+    void reconnect_afterBufferWasOverwritten_asksForResync() throws Exception {
+        MvcResult first = connect(null);
+        save("place-1", "place-2", "place-3", "place-4", "place-5"); // replay keeps 3
+        String firstId = eventIds(first.getResponse().getContentAsString(), "incident").get(0);
+
+        String body = connect(firstId).getResponse().getContentAsString();
+
+        assertTrue(body.contains("event:resync"));
+        assertFalse(body.contains("place-"));
+        assertTrue(connect("1").getResponse().getContentAsString().contains("event:resync"));
+    }
+
+    @Test
+    void heartbeats_andOnlyNewIncidents_areSent() throws Exception {
+        MvcResult client = connect(null);
+        stream.sendHeartbeat();
+        stream.onIncidentsSaved(new IncidentsSavedEvent(List.of(incident(9L, "imported", false))));
+
+        String body = client.getResponse().getContentAsString();
+        assertTrue(body.contains(":heartbeat"));
+        assertFalse(body.contains("imported"));
+    }
+
+    @Test
+    void slowClient_isDisconnectedWhenItsBufferOverflows() {
+        List<Runnable> neverRun = new ArrayList<>();
+        IncidentEventStream slow = new IncidentEventStream(incidentService, objectMapper, neverRun::add, 10, 2, 15_000, 60_000, 10_000);
+
+        slow.subscribe(null); // count frame pending
+        assertEquals(1, slow.getSubscriberCount());
+
+        slow.onIncidentsSaved(new IncidentsSavedEvent(List.of(incident(1L, "a", true), incident(2L, "b", true))));
+
+        assertEquals(0, slow.getSubscriberCount());
+    }
+
+    @Test
+    void stalledSend_dropsClientAndKeepsOthersServed() throws Exception {
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> delivered = new CopyOnWriteArrayList<>();
+        Deque<SseEmitter> emitters = new ArrayDeque<>(List.of(
+                new SseEmitter() {
+                    @Override
+                    public void send(SseEventBuilder event) {
+                        blocked.countDown();
+                        awaitIgnoringInterrupts(release); // a write stuck on a full TCP window
+                    }
+                },
+                new SseEmitter() {
+                    @Override
+                    public void send(SseEventBuilder event) {
+                        event.build().forEach(d -> delivered.add(String.valueOf(d.getData())));
+                    }
+                }));
+        ExecutorService senders = Executors.newFixedThreadPool(1);
+        IncidentEventStream stalling = new IncidentEventStream(incidentService, objectMapper, senders,
+                10, 16, 60_000, 60_000, 100) {
+            @Override
+            SseEmitter newEmitter(long timeoutMs) {
+                return emitters.pop();
+            }
+        };
+        try {
+            stalling.start();
+            stalling.subscribe(null);                     // takes the only sender thread
+            assertTrue(blocked.await(5, TimeUnit.SECONDS));
+            stalling.subscribe(null);
+
+            waitFor(() -> stalling.getSubscriberCount() == 1);
+            assertEquals(1, stalling.getStuckSenders());
+
+            stalling.onIncidentsSaved(new IncidentsSavedEvent(List.of(incident(1L, "Siam Square", true))));
+            waitFor(() -> delivered.stream().anyMatch(d -> d.contains("Siam Square")));
+
+            release.countDown();
+            waitFor(() -> stalling.getStuckSenders() == 0);
+        } finally {
+            release.countDown();
+            stalling.stop();
+        }
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "timed out");
+            Thread.sleep(10);
+        }
+    }
+
+    private static void awaitIgnoringInterrupts(CountDownLatch latch) {
+        while (true) {
+            try {
+                latch.await();
+                return;
+            } catch (InterruptedException ignored) {
+                // keep blocking like a socket write that ignores interrupts
+            }
+        }
+    }
+
+    private MvcResult connect(String lastEventId) throws Exception {
+        var request = get("/api/v1/events/stream");
+        if (lastEventId != null) request = request.header("Last-Event-ID", lastEventId);
+        return mvc.perform(request).andExpect(request().asyncStarted()).andReturn();
+    }
+
+    private void save(String... places) {
+        List<Incident> incidents = new ArrayList<>();
+        for (int n = 0; n < places.length; n++) incidents.add(incident((long) n + 1, places[n], true));
+        stream.onIncidentsSaved(new IncidentsSavedEvent(incidents));
+    }
+
+    private static List<String> eventIds(String body, String eventName) {
+        Matcher m = Pattern.compile("id:(\\d+)\nevent:" + eventName).matcher(body);
+        List<String> ids = new ArrayList<>();
+        while (m.find()) ids.add(m.group(1));
+        return ids;
+    }
+
+    private static Incident incident(Long id, String place, boolean isNew) {
+        Incident i = new Incident();
+        i.setId(id);
+        i.setType("Other");
+        i.setPlace(place);
+        i.setNotes("");
+        i.setNew(isNew);
+        return i;
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.demo.service;
+
+import com.example.demo.model.HeatmapCell;
+import com.example.demo.model.Incident;
+import com.example.demo.repository.IncidentRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Heatmap tiles (IncidentHeatmap.getTiles) against brute-force counting, on the H2 schema.
+ *   - incidents loaded at startup + incidents added through IncidentsSavedEvent
+ *   - random zoom levels (in memory and from the database), viewports and hour-aligned
+ *     time windows inside and before the retention window
+ *   - hour buckets older than the retention window are not kept in memory
+ *   - invalid zoom / box / too many tiles are rejected
+ */
+@DataJpaTest
+class IncidentHeatmapTest {
+
+    @Autowired
+    IncidentRepository repository;
+
+    private static final List<String> RANKS = List.of("CRITICAL", "HIGH", "MEDIUM", "LOW", "NEW");
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+    // incidents span START .. +40 days; the last 20 days are kept per hour in memory
+    private static final Clock NOW = Clock.fixed(START.plusDays(40).toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+    private static final int RETENTION_DAYS = 20;
+
+    @Test
+    void tiles_matchBruteForceCounts() {
+        Random random = new Random(9);
+        List<Incident> all = new ArrayList<>();
+        for (int n = 0; n < 3_000; n++) all.add(randomIncident(random));
+        repository.saveAll(all);
+        IncidentHeatmap heatmap = new IncidentHeatmap(repository, NOW, RETENTION_DAYS);
+        heatmap.load();
+
+        List<Incident> later = new ArrayList<>();
+        for (int n = 0; n < 1_000; n++) later.add(randomIncident(random));
+        Incident unlocated = incident();
+        unlocated.setTime(START);
+        later.add(unlocated);
+        repository.saveAll(later);
+        heatmap.onIncidentsSaved(new IncidentsSavedEvent(later));
+        all.addAll(later);
+
+        for (int n = 0; n < 60; n++) {
+            int zoom = 8 + random.nextInt(7);
+            double lat1 = 13.5 + random.nextDouble() * 0.5, lat2 = 13.5 + random.nextDouble() * 0.5;
+            double lon1 = 100.3 + random.nextDouble() * 0.6, lon2 = 100.3 + random.nextDouble() * 0.6;
+            LocalDateTime from = null, to = null;
+            if (n % 3 != 0) {
+                from = START.plusHours(random.nextInt(24 * 40));
+                to = from.plusHours(1 + random.nextInt(24 * 10));
+            }
+            assertSameAsBruteForce(heatmap, all, zoom, Math.min(lat1, lat2), Math.min(lon1, lon2),
+                    Math.max(lat1, lat2), Math.max(lon1, lon2), from, to);
+        }
+        // whole world at low zoom
+        assertSameAsBruteForce(heatmap, all, 3, -90, -180, 90, 180, null, null);
+    }
+
+    @Test
+    void hourBuckets_onlyForTheRetentionWindow() {
+        Random random = new Random(3);
+        List<Incident> old = new ArrayList<>();
+        for (int n = 0; n < 500; n++) {
+            Incident i = randomIncident(random);
+            if (i.getTime() != null) i.setTime(START.plusMinutes(random.nextInt(60 * 24 * 19)));
+            old.add(i);
+        }
+        repository.saveAll(old);
+        IncidentHeatmap heatmap = new IncidentHeatmap(repository, NOW, RETENTION_DAYS);
+        heatmap.load();
+        assertEquals(0, heatmap.hourBuckets());
+
+        Incident recent = randomIncident(random);
+        recent.setTime(START.plusDays(39));
+        repository.save(recent);
+        heatmap.onIncidentsSaved(new IncidentsSavedEvent(List.of(recent)));
+        assertEquals(IncidentHeatmap.MEMORY_ZOOM + 1, heatmap.hourBuckets()); // one tile per in-memory level
+
+        // all-time and old windows are still answered
+        old.add(recent);
+        assertSameAsBruteForce(heatmap, old, 10, 13.5, 100.3, 14.0, 100.9, null, null);
+        assertSameAsBruteForce(heatmap, old, 10, 13.5, 100.3, 14.0, 100.9, START, START.plusDays(10));
+    }
+
+    @Test
+    void invalidRequests_areRejected() {
+        IncidentHeatmap heatmap = new IncidentHeatmap(repository, NOW, RETENTION_DAYS);
+        assertThrows(IllegalArgumentException.class,
+                () -> heatmap.getTiles(IncidentHeatmap.MAX_ZOOM + 1, 13.5, 100.3, 14.0, 100.9, null, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> heatmap.getTiles(10, 14.0, 100.3, 13.5, 100.9, null, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> heatmap.getTiles(12, -90, -180, 90, 180, null, null));
+    }
+
+    private void assertSameAsBruteForce(IncidentHeatmap heatmap, List<Incident> all, int zoom, double minLat, double minLon,
+                                        double maxLat, double maxLon, LocalDateTime from, LocalDateTime to) {
+        // expected: tile -> counts per RANKS index, only for incidents inside the viewport's tiles
+        int n = 1 << zoom;
+        int x0 = tileX(minLon, n), x1 = tileX(maxLon, n), y0 = tileY(maxLat, n), y1 = tileY(minLat, n);
+        Map<List<Integer>, int[]> expected = new HashMap<>();
+        for (Incident i : all) {
+            if (i.getLatitude() == null) continue;
+            if (from != null && (i.getTime() == null || i.getTime().isBefore(from) || !i.getTime().isBefore(to))) continue;
+            int x = tileX(i.getLongitude(), n), y = tileY(i.getLatitude(), n);
+            if (x < x0 || x > x1 || y < y0 || y > y1) continue;
+            expected.computeIfAbsent(List.of(x, y), k -> new int[RANKS.size()])[RANKS.indexOf(i.getRankLevel())]++;
+        }
+
+        List<HeatmapCell> cells = heatmap.getTiles(zoom, minLat, minLon, maxLat, maxLon, from, to);
+
+        assertEquals(expected.size(), cells.size(), "tile count at zoom " + zoom);
+        for (HeatmapCell cell : cells) {
+            int[] counts = expected.get(List.of(cell.x(), cell.y()));
+            assertNotNull(counts, "unexpected tile " + cell);
+            assertArrayEquals(new int[]{counts[0], counts[1], counts[2], counts[3]},
+                    new int[]{cell.critical(), cell.high(), cell.medium(), cell.low()});
+            assertEquals(counts[0] + counts[1] + counts[2] + counts[3] + counts[4], cell.total());
+        }
+    }
+
+    private static Incident randomIncident(Random random) {
+        Incident i = incident();
+        i.setLatitude(13.5 + random.nextDouble() * 0.5);
+        i.setLongitude(100.3 + random.nextDouble() * 0.6);
+        i.setRankLevel(RANKS.get(random.nextInt(RANKS.size())));
+        // whole minutes keep the brute-force window check hour-aligned
+        i.setTime(random.nextInt(20) == 0 ? null : START.plusMinutes(random.nextInt(60 * 24 * 40)));
+        return i;
+    }
+
+    private static Incident incident() {
+        Incident i = new Incident();
+        i.setType("Other");
+        i.setPlace("street");
+        i.setNotes("");
+        return i;
+    }
+
+    private static int tileX(double lon, int n) {
+        return Math.min(n - 1, (int) ((lon + 180) / 360 * n));
+    }
+
+    private static int tileY(double lat, int n) {
+        double phi = Math.toRadians(Math.max(-85.05112878, Math.min(85.05112878, lat)));
+        int y = (int) ((1 - Math.log(Math.tan(phi) + 1 / Math.cos(phi)) / Math.PI) / 2 * n);
+        return Math.max(0, Math.min(n - 1, y));
+    }
+}
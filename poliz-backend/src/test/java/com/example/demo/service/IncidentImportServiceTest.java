@@ -0,0 +1,181 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Incident;
+import com.example.demo.model.IncidentExportRow;
+import com.example.demo.repository.IncidentRepository;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for IncidentImportService.importFile.
+ *   - CSV: chunked commits, malformed row skipped, offset file written
+ *   - many bad rows: counted, only a few sample lines + one summary logged
+ *   - CSV resume: only lines after the committed offset are imported
+ *   - NDJSON: one incident per line, scored with the IncidentService rules
+ *   - NDJSON export re-imported: ids in the file dropped, rows inserted as new history
+ */
+@ExtendWith(MockitoExtension.class)
+class IncidentImportServiceTest {
+
+    @Mock
+    IncidentRepository repository;
+
+    @TempDir
+    Path dir;
+
+    // like Spring Boot's mapper: ISO dates, unknown properties ignored
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    private IncidentImportService importService;
+    private final List<Incident> saved = new ArrayList<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        importService = new IncidentImportService(
+                new IncidentService(repository, mock(ApplicationEventPublisher.class),
+                        mock(NewIncidentCounter.class)),
+                objectMapper);
+        when(repository.saveAll(anyList())).thenAnswer(inv -> {
+            List<Incident> list = inv.getArgument(0, List.class);
+            saved.addAll(list);
+            return list;
+        });
+    }
+
+    @Test
+    void csv_importedInChunks_malformedRowSkipped() throws Exception {
+        Path file = dir.resolve("history.csv");
+        Files.writeString(file, String.join("\n",
+                "type,place,time,notes,latitude,longitude",
+                "Fire,Market,2024-03-01T23:10:00,\"large fire, many people\",13.75,100.50",
+                "Other,office,2024-03-02 10:00:00,,,",
+                "Other,office,not-a-time,calm,,",
+                "Other,,2024-03-02T11:00:00,calm,,",
+                "Armed Robbery,Bank,2024-03-03T12:00:00,suspect with gun,13.70,100.52",
+                "Disturbance,Central Park,2024-03-04T09:00:00,noise,,"));
+
+        IncidentImportService.ImportReport report = importService.importFile(file, true, 2, 2);
+
+        assertEquals(5, report.imported());
+        assertEquals(1, report.skipped());
+        assertEquals("6", Files.readString(dir.resolve("history.csv.offset")));
+        verify(repository, times(3)).saveAll(anyList());
+
+        Incident fire = saved.get(0);
+        assertEquals(100, fire.getScore());
+        assertEquals("CRITICAL", fire.getRankLevel());
+        assertFalse(fire.isNew());
+        assertEquals(13.75, fire.getLatitude());
+        assertEquals("", saved.get(1).getNotes());
+        assertEquals(100, saved.get(3).getScore());
+    }
+
+    @Test
+    void csv_resume_importsOnlyLinesAfterOffset() throws Exception {
+        Path file = dir.resolve("history.csv");
+        Files.writeString(file, String.join("\n",
+                "type,place,time,notes",
+                "Other,office,2024-03-02T10:00:00,first",
+                "Other,office,2024-03-02T11:00:00,second",
+                "Fire,office,2024-03-02T12:00:00,third"));
+        Files.writeString(dir.resolve("history.csv.offset"), "2");
+
+        IncidentImportService.ImportReport report = importService.importFile(file, true, 10, 1);
+
+        assertEquals(2, report.resumedFrom());
+        assertEquals(1, report.imported());
+        assertEquals("third", saved.get(0).getNotes());
+        assertEquals("3", Files.readString(dir.resolve("history.csv.offset")));
+    }
+
+    @Test
+    void ndjson_linesScoredWithServiceRules() throws Exception {
+        Path file = dir.resolve("history.ndjson");
+        Files.writeString(file, String.join("\n",
+                "{\"type\":\"Medical Emergency\",\"place\":\"Hospital\",\"time\":\"2024-03-01T14:00:00\",\"notes\":\"\"}",
+                "",
+                "{\"type\":\"Other\",\"place\":\"office\",\"time\":\"2024-03-01T14:00:00\",\"notes\":\"hostage\"}"));
+
+        IncidentImportService.ImportReport report = importService.importFile(file, false, 100, 2);
+
+        assertEquals(2, report.imported());
+        ArgumentCaptor<List<Incident>> captor = ArgumentCaptor.forClass(List.class);
+        verify(repository).saveAll(captor.capture());
+        assertEquals(63, captor.getValue().get(0).getScore());
+        assertEquals("MEDIUM", captor.getValue().get(0).getRankLevel());
+        assertEquals(35, captor.getValue().get(1).getScore());
+    }
+
+    @Test
+    void ndjsonExport_reimported_insertsNewRows() throws Exception {
+        when(repository.streamForExport(any(), any(), anyBoolean(), anyList())).thenReturn(Stream.of(
+                new IncidentExportRow(7L, "Fire", "Market", LocalDateTime.of(2024, 3, 1, 23, 10),
+                        "smoke", "CRITICAL", 100, true, 13.75, 100.5),
+                new IncidentExportRow(8L, "Other", "office", null, "", "LOW", 10, false, null, null)));
+        Path file = dir.resolve("export.ndjson");
+        try (var out = Files.newOutputStream(file)) {
+            new ExportService(repository, null, objectMapper)
+                    .writeIncidents(out, ExportService.Format.NDJSON, null, null, null);
+        }
+
+        IncidentImportService.ImportReport report = importService.importFile(file, false, 100, 1);
+
+        assertEquals(2, report.imported());
+        assertEquals(0, report.skipped());
+        assertTrue(saved.stream().allMatch(i -> i.getId() == null), "ids from the file must not be saved");
+        assertTrue(saved.stream().noneMatch(Incident::isNew));
+        assertEquals("Market", saved.get(0).getPlace());
+        assertEquals(LocalDateTime.of(2024, 3, 1, 23, 10), saved.get(0).getTime());
+        assertEquals(13.75, saved.get(0).getLatitude());
+        assertEquals("CRITICAL", saved.get(0).getRankLevel());
+    }
+
+    @Test
+    void manyBadRows_loggedAsSamplesAndOneSummary() throws Exception {
+        List<String> lines = new ArrayList<>(List.of("type,place,time,notes"));
+        for (int n = 0; n < 50; n++) lines.add("Other,office,not-a-time,calm");
+        lines.add("Fire,office,2024-03-02T12:00:00,ok");
+        Path file = dir.resolve("history.csv");
+        Files.writeString(file, String.join("\n", lines));
+
+        java.io.PrintStream stdout = System.out;
+        java.io.ByteArrayOutputStream captured = new java.io.ByteArrayOutputStream();
+        IncidentImportService.ImportReport report;
+        System.setOut(new java.io.PrintStream(captured, true));
+        try {
+            report = importService.importFile(file, false, 20, 2);
+        } finally {
+            System.setOut(stdout);
+        }
+
+        assertEquals(50, report.skipped());
+        assertEquals(1, report.imported());
+        List<String> logged = captured.toString().lines().filter(l -> l.startsWith("LOG: Import skipped")).toList();
+        assertEquals(IncidentImportService.LOGGED_SKIPS + 1, logged.size(), String.join("\n", logged));
+        assertTrue(logged.get(logged.size() - 1).contains("50 row(s)"));
+    }
+}
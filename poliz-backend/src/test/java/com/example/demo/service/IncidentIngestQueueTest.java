@@ -0,0 +1,99 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Incident;
+import com.example.demo.model.IncidentBatchResult;
+import com.example.demo.model.IngestStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for IncidentIngestQueue.
+ *   - accepted incident is saved by a worker and its status becomes SAVED
+ *   - full queue with REJECT backpressure refuses the submission
+ *   - rejected submissions do not count against status retention
+ *   - unknown tracking id has no status
+ */
+@ExtendWith(MockitoExtension.class)
+class IncidentIngestQueueTest {
+
+    @Mock
+    IncidentService incidentService;
+
+    private IncidentIngestQueue queue;
+
+    @AfterEach
+    void tearDown() {
+        if (queue != null) queue.stop();
+    }
+
+    @Test
+    void acceptedIncident_isSavedByWorker() throws InterruptedException {
+        when(incidentService.addNewIncidents(anyList())).thenReturn(new IncidentBatchResult(
+                1, 1, 0, 0, 0,
+                List.of(new IncidentBatchResult.ItemResult(0, 7L, 75, "HIGH", null))));
+
+        queue = new IncidentIngestQueue(incidentService, 10, 1, 50,
+                IncidentIngestQueue.WhenFull.REJECT, 0, 100);
+        queue.start();
+
+        Optional<IngestStatus> queued = queue.submit(new Incident());
+        assertTrue(queued.isPresent());
+        assertEquals(IngestStatus.QUEUED, queued.get().state());
+
+        String trackingId = queued.get().trackingId();
+        IngestStatus status = queued.get();
+        for (int n = 0; n < 100 && IngestStatus.QUEUED.equals(status.state()); n++) {
+            Thread.sleep(20);
+            status = queue.getStatus(trackingId).orElseThrow();
+        }
+
+        assertEquals(IngestStatus.SAVED, status.state());
+        assertEquals(7L, status.incidentId());
+        assertEquals("HIGH", status.rankLevel());
+    }
+
+    @Test
+    void fullQueue_withReject_refusesSubmission() {
+        // no workers: nothing drains the queue
+        queue = new IncidentIngestQueue(incidentService, 1, 0, 50,
+                IncidentIngestQueue.WhenFull.REJECT, 0, 100);
+        queue.start();
+
+        assertTrue(queue.submit(new Incident()).isPresent());
+        assertTrue(queue.submit(new Incident()).isEmpty());
+        verifyNoInteractions(incidentService);
+    }
+
+    @Test
+    void rejectedSubmissions_doNotEvictQueuedStatuses() {
+        // no workers, retention of 2: only the two accepted jobs may hold statuses
+        queue = new IncidentIngestQueue(incidentService, 2, 0, 50,
+                IncidentIngestQueue.WhenFull.REJECT, 0, 2);
+        queue.start();
+
+        String first = queue.submit(new Incident()).orElseThrow().trackingId();
+        String second = queue.submit(new Incident()).orElseThrow().trackingId();
+        for (int n = 0; n < 5; n++) assertTrue(queue.submit(new Incident()).isEmpty());
+
+        assertEquals(IngestStatus.QUEUED, queue.getStatus(first).orElseThrow().state());
+        assertEquals(IngestStatus.QUEUED, queue.getStatus(second).orElseThrow().state());
+    }
+
+    @Test
+    void unknownTrackingId_hasNoStatus() {
+        queue = new IncidentIngestQueue(incidentService, 1, 0, 50,
+                IncidentIngestQueue.WhenFull.BLOCK, 10, 100);
+
+        assertTrue(queue.getStatus("missing").isEmpty());
+    }
+}
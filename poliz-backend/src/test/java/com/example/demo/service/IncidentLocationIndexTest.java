@@ -0,0 +1,196 @@
+package com.example.demo.service;
+
+import com.example.demo.controller.IncidentController;
+import com.example.demo.model.Incident;
+import com.example.demo.repository.IncidentLocation;
+import com.example.demo.repository.IncidentRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * k-NN lookups (IncidentLocationIndex.nearest) against a brute-force haversine scan.
+ *   - points loaded at startup + points added later (several tree rebuilds)
+ *   - rankLevel filter, maxKm radius, unknown rankLevel
+ *   - GET /nearby with an out-of-range or NaN point: 400 without a lookup
+ *   - benchmark (opt-in, -Dbenchmark=true): 1M points, average lookup latency
+ */
+@ExtendWith(MockitoExtension.class)
+class IncidentLocationIndexTest {
+
+    @Mock
+    IncidentRepository repository;
+
+    @InjectMocks
+    IncidentLocationIndex index;
+
+    private static final List<String> RANKS = List.of("CRITICAL", "HIGH", "MEDIUM", "LOW");
+
+    private record Point(long id, double lat, double lon, String rank) {}
+
+    @Test
+    void nearest_matchesBruteForce_acrossRebuilds() {
+        Random random = new Random(3);
+        List<Point> points = new ArrayList<>();
+        loadAtStartup(random, points, 3_000);
+
+        // enough inserts to fill the buffer a few times
+        for (int n = 0; n < 5_000; n++) {
+            Point p = randomPoint(random, points.size() + 1);
+            points.add(p);
+            index.add(p.id(), p.lat(), p.lon(), p.rank());
+        }
+        assertEquals(8_000, index.size());
+
+        for (int n = 0; n < 100; n++) {
+            double lat = 13.5 + random.nextDouble() * 0.5, lon = 100.3 + random.nextDouble() * 0.6;
+            assertSameAsBruteForce(points, lat, lon, 1 + random.nextInt(20), null, null);
+        }
+    }
+
+    @Test
+    void nearest_appliesRankFilterAndRadius() {
+        Random random = new Random(5);
+        List<Point> points = new ArrayList<>();
+        loadAtStartup(random, points, 2_000);
+
+        for (int n = 0; n < 50; n++) {
+            double lat = 13.5 + random.nextDouble() * 0.5, lon = 100.3 + random.nextDouble() * 0.6;
+            assertSameAsBruteForce(points, lat, lon, 10, null, 2.0);
+            assertSameAsBruteForce(points, lat, lon, 10, RANKS.get(n % 4), null);
+            assertSameAsBruteForce(points, lat, lon, 10, RANKS.get(n % 4).toLowerCase(), 3.0);
+        }
+        assertTrue(index.nearest(13.75, 100.5, 10, null, "URGENT").isEmpty());
+    }
+
+    @Test
+    void nearest_onEmptyIndex_returnsNothing() {
+        when(repository.findByLatitudeIsNotNullAndLongitudeIsNotNull()).thenReturn(List.of());
+        index.load();
+        assertTrue(index.nearest(13.75, 100.5, 5, null, null).isEmpty());
+    }
+
+    @Test
+    void savedEvent_addsOnlyLocatedIncidents() {
+        Incident located = new Incident();
+        located.setId(1L);
+        located.setLatitude(13.75);
+        located.setLongitude(100.5);
+        located.setRankLevel("HIGH");
+        Incident unlocated = new Incident();
+        unlocated.setId(2L);
+
+        index.onIncidentsSaved(new IncidentsSavedEvent(List.of(located, unlocated)));
+
+        assertEquals(1, index.size());
+        List<IncidentLocationIndex.Neighbor> found = index.nearest(13.76, 100.5, 5, null, "HIGH");
+        assertEquals(1L, found.get(0).id());
+        assertEquals(1.11, found.get(0).distanceKm(), 0.01); // 0.01 degree of latitude
+    }
+
+    @Test
+    void nearby_rejectsOutOfRangeAndNaN() {
+        IncidentLocationIndex locationIndex = mock(IncidentLocationIndex.class);
+        IncidentController controller = new IncidentController(mock(IncidentService.class),
+                mock(IncidentIngestQueue.class), locationIndex, mock(IncidentEventStream.class),
+                mock(IncidentReadService.class), new IncidentDataVersion(), mock(OfficerActionLog.class), 1000);
+
+        assertEquals(HttpStatus.BAD_REQUEST, controller.getNearbyIncidents(Double.NaN, 100.5, 10, null, null).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, controller.getNearbyIncidents(13.75, Double.NaN, 10, null, null).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, controller.getNearbyIncidents(91, 100.5, 10, null, null).getStatusCode());
+        verifyNoInteractions(locationIndex);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmark_millionPoints() {
+        Random random = new Random(13);
+        List<Point> points = new ArrayList<>();
+        long t0 = System.nanoTime();
+        loadAtStartup(random, points, 1_000_000);
+        long buildMs = (System.nanoTime() - t0) / 1_000_000;
+
+        int queries = 20_000;
+        long t1 = System.nanoTime();
+        int hits = 0;
+        for (int n = 0; n < queries; n++) {
+            double lat = 13.5 + random.nextDouble() * 0.5, lon = 100.3 + random.nextDouble() * 0.6;
+            hits += index.nearest(lat, lon, 10, null, null).size();
+        }
+        long nanosPerQuery = (System.nanoTime() - t1) / queries;
+
+        assertEquals(queries * 10, hits);
+        System.out.println("LOG: [k-NN benchmark] 1000000 incidents: build " + buildMs
+                + " ms, k=10 lookup " + nanosPerQuery / 1_000 + " us/query");
+    }
+
+    private void loadAtStartup(Random random, List<Point> points, int count) {
+        List<IncidentLocation> rows = new ArrayList<>(count);
+        for (int n = 0; n < count; n++) {
+            Point p = randomPoint(random, points.size() + 1);
+            points.add(p);
+            rows.add(location(p));
+        }
+        when(repository.findByLatitudeIsNotNullAndLongitudeIsNotNull()).thenReturn(rows);
+        index.load();
+    }
+
+    private void assertSameAsBruteForce(List<Point> points, double lat, double lon, int k,
+                                        String rank, Double maxKm) {
+        List<Long> expected = points.stream()
+                .filter(p -> rank == null || rank.equalsIgnoreCase(p.rank()))
+                .filter(p -> maxKm == null || haversineKm(lat, lon, p.lat(), p.lon()) <= maxKm)
+                .sorted(Comparator.comparingDouble(p -> haversineKm(lat, lon, p.lat(), p.lon())))
+                .limit(k)
+                .map(Point::id)
+                .toList();
+
+        List<IncidentLocationIndex.Neighbor> found = index.nearest(lat, lon, k, maxKm, rank);
+
+        assertEquals(expected, found.stream().map(IncidentLocationIndex.Neighbor::id).toList());
+        for (IncidentLocationIndex.Neighbor n : found) {
+            Point p = points.get((int) n.id() - 1);
+            assertEquals(haversineKm(lat, lon, p.lat(), p.lon()), n.distanceKm(), 1e-6);
+        }
+    }
+
+    private static Point randomPoint(Random random, long id) {
+        return new Point(id,
+                13.5 + random.nextDouble() * 0.5,
+                100.3 + random.nextDouble() * 0.6,
+                id % 7 == 0 ? null : RANKS.get(random.nextInt(RANKS.size())));
+    }
+
+    private static IncidentLocation location(Point p) {
+        return new IncidentLocation() {
+            public Long getId() { return p.id(); }
+            public Double getLatitude() { return p.lat(); }
+            public Double getLongitude() { return p.lon(); }
+            public String getRankLevel() { return p.rank(); }
+            public LocalDateTime getTime() { return null; }
+        };
+    }
+
+    private static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1), dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * IncidentLocationIndex.EARTH_RADIUS_KM * Math.asin(Math.sqrt(a));
+    }
+}
@@ -0,0 +1,228 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Incident;
+import com.example.demo.model.OfficerAction;
+import com.example.demo.repository.IncidentReadMarkRepository;
+import com.example.demo.repository.OfficerActionRepository;
+import com.example.demo.repository.IncidentRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Per-officer read marks (IncidentReadService + IncidentFeedSequence) against the H2 schema.
+ * Not in a test transaction: feed positions are stamped after commit, like in production.
+ *   - officer without a mark: shared isNew count
+ *   - mark all as read: one row per officer, incidents themselves untouched
+ *   - officers are independent; a stale upToId never moves the mark backwards
+ *   - concurrent marks of one officer (first or later): none fails, the furthest one wins
+ *   - imported history (not new on arrival) is never unread
+ *   - a lower id committed after the mark is still unread; startup stamps leftover rows
+ *   - alerts cleared: logged after commit only; a first mark records the shared badge it cleared
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({IncidentReadService.class, NewIncidentCounter.class, OfficerActionLog.class, IncidentFeedSequence.class})
+class IncidentReadServiceTest {
+
+    @Autowired
+    IncidentRepository incidents;
+
+    @Autowired
+    IncidentReadMarkRepository marks;
+
+    @Autowired
+    NewIncidentCounter counter;
+
+    @Autowired
+    IncidentReadService service;
+
+    @Autowired
+    IncidentFeedSequence feed;
+
+    @Autowired
+    OfficerActionLog actionLog;
+
+    @Autowired
+    OfficerActionRepository actions;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void cleanUp() {
+        actionLog.flush();
+        actions.deleteAllInBatch();
+        marks.deleteAllInBatch();
+        incidents.deleteAllInBatch();
+    }
+
+    @Test
+    void officerWithoutMark_seesSharedCount() {
+        save(4);
+        counter.reconcile();
+
+        assertEquals(4, service.getUnreadCount("somchai"));
+    }
+
+    @Test
+    void markAllAsRead_isOneRowPerOfficer_andCountsAreIndependent() {
+        save(5);
+        service.markAllAsRead("somchai", null);
+        List<Incident> later = save(3);
+
+        assertEquals(3, service.getUnreadCount("somchai"));
+        assertEquals(1, marks.count());
+        assertTrue(incidents.findAll().stream().allMatch(Incident::isNew), "incidents must not be updated");
+
+        service.markAllAsRead("malee", later.get(0).getId());
+        assertEquals(2, service.getUnreadCount("malee"));
+        assertEquals(3, service.getUnreadCount("somchai"));
+
+        service.markAllAsRead("somchai", null);
+        assertEquals(0, service.getUnreadCount("somchai"));
+        assertEquals(2, marks.count());
+    }
+
+    @Test
+    void staleUpToId_doesNotMoveMarkBackwards() {
+        List<Incident> saved = save(3);
+        service.markAllAsRead("somchai", saved.get(2).getId());
+
+        service.markAllAsRead("somchai", saved.get(0).getId());
+
+        assertEquals(0, service.getUnreadCount("somchai"));
+    }
+
+    @Test
+    void concurrentMarks_neverFail_andNeverMoveBackwards() throws Exception {
+        List<Incident> saved = save(6);
+        long near = saved.get(1).getId(), far = saved.get(4).getId();
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < 20; round++) {
+                String officer = "officer" + round;
+                if (round % 2 == 1) service.markAllAsRead(officer, saved.get(0).getId()); // not a first mark
+                CountDownLatch start = new CountDownLatch(1);
+                CompletableFuture<?> a = CompletableFuture.runAsync(() -> awaitThenMark(start, officer, far), pool);
+                CompletableFuture<?> b = CompletableFuture.runAsync(() -> awaitThenMark(start, officer, near), pool);
+                start.countDown();
+                CompletableFuture.allOf(a, b).get(10, TimeUnit.SECONDS);
+
+                assertEquals(1, service.getUnreadCount(officer), officer);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void importedHistory_isNeverUnread() {
+        save(2);
+        service.markAllAsRead("somchai", null);
+
+        List<Incident> imported = incidents.saveAll(List.of(incident(false), incident(false)));
+        feed.onIncidentsSaved(new IncidentsSavedEvent(imported));
+        save(1);
+
+        assertEquals(1, service.getUnreadCount("somchai"));
+    }
+
+    @Test
+    void lowerIdCommittedAfterTheMark_isStillUnread() {
+        Incident late = incidents.save(incident(true));        // lower id, its commit is stamped last
+        List<Incident> early = save(2);
+        assertTrue(late.getId() < early.get(1).getId());
+
+        service.markAllAsRead("somchai", early.get(1).getId());
+        assertEquals(0, service.getUnreadCount("somchai"));
+
+        feed.onIncidentsSaved(new IncidentsSavedEvent(List.of(late)));
+        assertEquals(1, service.getUnreadCount("somchai"));
+    }
+
+    @Test
+    void startup_stampsRowsLeftUnstamped() {
+        save(1);
+        service.markAllAsRead("somchai", null);
+        incidents.saveAll(List.of(incident(true), incident(true), incident(false))); // no event: crash before stamping
+
+        feed.stampStragglers();
+
+        assertEquals(2, service.getUnreadCount("somchai"));
+    }
+
+    @Test
+    void alertsCleared_loggedAfterCommit_firstMarkCountsTheBadge() {
+        save(3);
+        incidents.saveAll(List.of(incident(false), incident(false)));  // imported, never alerts
+        incidents.findAll().stream().limit(2).forEach(i -> {           // 2 cleared by the team before
+            i.setNew(false);
+            incidents.save(i);
+        });
+        counter.reconcile();                                           // badge without a mark: 1
+        actionLog.flush();
+
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(s -> {
+            service.markAllAsRead("somchai", null);
+            s.setRollbackOnly();
+        });
+        actionLog.flush();
+        assertEquals(0, actions.count(), "rolled-back mark must not be logged");
+
+        service.markAllAsRead("somchai", null);
+        save(2);
+        service.markAllAsRead("somchai", null);
+        actionLog.flush();
+
+        List<Integer> cleared = actions.findAll().stream()
+                .filter(a -> OfficerAction.ALERTS_CLEARED.equals(a.getAction()))
+                .map(OfficerAction::getCount).sorted().toList();
+        assertEquals(List.of(1, 2), cleared); // the badge at the first mark, then the 2 newer ones
+    }
+
+    private void awaitThenMark(CountDownLatch start, String officer, long upToId) {
+        try {
+            start.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+        service.markAllAsRead(officer, upToId);
+    }
+
+    // saved + stamped, like IncidentService followed by the after-commit event
+    private List<Incident> save(int count) {
+        List<Incident> list = new ArrayList<>();
+        for (int n = 0; n < count; n++) list.add(incident(true));
+        List<Incident> saved = incidents.saveAll(list);
+        feed.onIncidentsSaved(new IncidentsSavedEvent(saved));
+        return saved;
+    }
+
+    private static Incident incident(boolean isNew) {
+        Incident i = new Incident();
+        i.setType("Other");
+        i.setPlace("street");
+        i.setNotes("");
+        i.setNew(isNew);
+        return i;
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Incident;
+import com.example.demo.repository.IncidentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Parity tests for the compiled keyword matcher used by
+ * IncidentService.calculateHeuristicScore(Incident).
+ *
+ * The reference implementation below is the original rule set
+ * (one String.contains per keyword). We generate a seeded random corpus of
+ * types, hours, places and notes built from the keywords, partial keywords,
+ * overlapping words and upper-case variants, and require identical scores.
+ */
+@ExtendWith(MockitoExtension.class)
+class IncidentScoringParityTest {
+
+    @Mock
+    IncidentRepository repository;
+
+    @Mock
+    ApplicationEventPublisher events;
+
+    @InjectMocks
+    IncidentService service;
+
+    private static final List<String> TYPES = List.of(
+            "Armed Robbery", "Fire", "Violent Crime", "Medical Emergency",
+            "Traffic Accident", "Disturbance", "Other", "Unknown Type");
+
+    private static final List<String> PLACE_WORDS = List.of(
+            "school", "hospital", "station", "airport", "market", "stadium", "mall", "park",
+            "office", "road", "PARKING", "Supermarket", "sch", "hospita", "small", "Central");
+
+    private static final List<String> NOTE_WORDS = List.of(
+            "weapon", "gun", "knife", "armed", "hostage", "explosion", "gas leak",
+            "fatality", "deceased", "unconscious", "severe injury", "cpr", "major trauma",
+            "large fire", "multiple", "mass", "many people", "crowd",
+            "injur", "bleeding", "child", "elderly", "pregnan",
+            "GUNSHOT", "massive", "injured", "Children", "gas", "leak", "severe", "injury",
+            "large", "fire", "many", "people", "major", "trauma", "weap", "hostag",
+            "calm", "no", "reported", "suspect", "fled", "scene", "the", "a");
+
+    private Random random;
+
+    @BeforeEach
+    void setUp() {
+        random = new Random(20251117L);
+    }
+
+    @Test
+    void compiledMatcher_givesSameScoresAsContainsRules() {
+        for (int n = 0; n < 20_000; n++) {
+            Incident i = new Incident();
+            i.setType(pick(TYPES));
+            i.setTime(random.nextInt(10) == 0 ? null : LocalDateTime.of(2025, 1, 1, random.nextInt(24), 0));
+            i.setPlace(phrase(PLACE_WORDS, 3));
+            i.setNotes(phrase(NOTE_WORDS, 8));
+
+            assertEquals(legacyScore(i), service.calculateHeuristicScore(i),
+                    "score mismatch for " + i);
+        }
+    }
+
+    @Test
+    void matcher_reportsOverlappingAndNestedKeywords() {
+        KeywordMatcher matcher = KeywordMatcher.builder()
+                .add(1, "he", "she")
+                .add(2, "hers")
+                .add(4, "his")
+                .build();
+
+        assertEquals(1 | 2, matcher.match("ushers"));
+        assertEquals(4, matcher.match("this"));
+        assertEquals(0, matcher.match("hx"));
+        assertEquals(0, matcher.match(""));
+    }
+
+    private String pick(List<String> words) {
+        return words.get(random.nextInt(words.size()));
+    }
+
+    private String phrase(List<String> words, int maxWords) {
+        int count = random.nextInt(maxWords + 1);
+        StringBuilder sb = new StringBuilder();
+        for (int w = 0; w < count; w++) {
+            if (w > 0) sb.append(random.nextBoolean() ? " " : "");
+            sb.append(pick(words));
+        }
+        return sb.toString();
+    }
+
+    /** Original contains-based scoring, kept verbatim as the reference. */
+    private static int legacyScore(Incident i) {
+        final var typeWeights = java.util.Map.of(
+                "Armed Robbery", 80,
+                "Fire", 75,
+                "Violent Crime", 70,
+                "Medical Emergency", 55,
+                "Traffic Accident", 40,
+                "Disturbance", 25,
+                "Other", 10
+        );
+        int score = typeWeights.getOrDefault(i.getType(), 10);
+
+        if (i.getTime() != null) {
+            int hour = i.getTime().getHour();
+            if (hour >= 22 || hour <= 5) {
+                score += 10;
+            }
+        }
+
+        String place = i.getPlace().toLowerCase();
+        if (place.contains("school") || place.contains("hospital") ||
+                place.contains("station") || place.contains("airport") ||
+                place.contains("market") || place.contains("stadium") ||
+                place.contains("mall") || place.contains("park")) {
+            score += 8;
+        }
+
+        String notes = i.getNotes().toLowerCase();
+
+        if (notes.contains("weapon") || notes.contains("gun") || notes.contains("knife") ||
+                notes.contains("armed") || notes.contains("hostage") || notes.contains("explosion") ||
+                notes.contains("gas leak")) {
+            score += 25;
+        }
+        if (notes.contains("fatality") || notes.contains("deceased") ||
+                notes.contains("unconscious") || notes.contains("severe injury") ||
+                notes.contains("cpr") || notes.contains("major trauma")) {
+            score += 20;
+        }
+        if (notes.contains("large fire") || notes.contains("multiple") ||
+                notes.contains("mass") || notes.contains("many people") ||
+                notes.contains("crowd")) {
+            score += 15;
+        }
+        if (notes.contains("injur") || notes.contains("bleeding") ||
+                notes.contains("child") || notes.contains("elderly") ||
+                notes.contains("pregnan")) {
+            score += 10;
+        }
+
+        if (i.getType().equals("Fire") && score < 75) score = 75;
+        if (i.getType().equals("Medical Emergency") && score < 55) score = 55;
+
+        if (i.getType().equals("Armed Robbery") && score < 85) {
+            if (notes.contains("weapon") || notes.contains("gun") || notes.contains("knife") ||
+                    notes.contains("hostage") || notes.contains("fatality") ||
+                    notes.contains("severe injury")) {
+                score = 90;
+            }
+        }
+
+        return Math.min(100, Math.max(0, score));
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.demo.service;
+
+import com.example.demo.controller.IncidentController;
+import com.example.demo.model.Incident;
+import com.example.demo.model.IncidentBatchResult;
+import com.example.demo.repository.IncidentRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for IncidentService.addNewIncidents(List).
+ *
+ * Partitions on the batch content:
+ *   - all incidents valid
+ *   - mixed: one incident cannot be scored (missing notes)
+ *   - more than poliz.incidents.max-batch: POST /batch answers 413 without saving
+ */
+@ExtendWith(MockitoExtension.class)
+class IncidentServiceBatchTest {
+
+    @Mock
+    IncidentRepository repository;
+
+    @Mock
+    ApplicationEventPublisher events;
+
+    @InjectMocks
+    IncidentService service;
+
+    private Incident incident(String type, String notes) {
+        Incident i = new Incident();
+        i.setType(type);
+        i.setTime(LocalDateTime.of(2025, 1, 1, 14, 0));
+        i.setPlace("office");
+        i.setNotes(notes);
+        return i;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubSaveAllAssigningIds() {
+        when(repository.saveAll(anyList())).thenAnswer(inv -> {
+            List<Incident> list = inv.getArgument(0, List.class);
+            long id = 100;
+            for (Incident i : list) i.setId(id++);
+            return list;
+        });
+    }
+
+    @Test
+    void allValid_savedWithSingleSaveAll_inRequestOrder() {
+        stubSaveAllAssigningIds();
+
+        IncidentBatchResult result = service.addNewIncidents(List.of(
+                incident("Fire", ""),
+                incident("Other", "suspect with weapon")));
+
+        assertEquals(2, result.submitted());
+        assertEquals(2, result.saved());
+        assertEquals(0, result.failed());
+        assertEquals(75, result.items().get(0).score());
+        assertEquals("HIGH", result.items().get(0).rankLevel());
+        assertEquals(100L, result.items().get(0).id());
+        assertEquals(35, result.items().get(1).score());
+        assertEquals(101L, result.items().get(1).id());
+
+        verify(repository, times(1)).saveAll(anyList());
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void invalidIncident_reportedAsFailed_othersStillSaved() {
+        stubSaveAllAssigningIds();
+
+        IncidentBatchResult result = service.addNewIncidents(List.of(
+                incident("Other", "calm"),
+                incident("Other", null),
+                incident("Medical Emergency", "")));
+
+        assertEquals(3, result.submitted());
+        assertEquals(2, result.saved());
+        assertEquals(1, result.failed());
+
+        IncidentBatchResult.ItemResult failed = result.items().get(1);
+        assertEquals(1, failed.index());
+        assertNull(failed.id());
+        assertNotNull(failed.error());
+        assertEquals(101L, result.items().get(2).id());
+
+        ArgumentCaptor<List<Incident>> captor = ArgumentCaptor.forClass(List.class);
+        verify(repository).saveAll(captor.capture());
+        assertEquals(2, captor.getValue().size());
+    }
+
+    @Test
+    void oversizedBatch_rejectedByController() {
+        IncidentService incidentService = mock(IncidentService.class);
+        IncidentController controller = new IncidentController(incidentService, mock(IncidentIngestQueue.class),
+                mock(IncidentLocationIndex.class), mock(IncidentEventStream.class), mock(IncidentReadService.class),
+                new IncidentDataVersion(), mock(OfficerActionLog.class), 2);
+
+        ResponseEntity<IncidentBatchResult> response = controller.addIncidents(List.of(
+                incident("Fire", ""), incident("Fire", ""), incident("Fire", "")));
+
+        assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, response.getStatusCode());
+        verifyNoInteractions(incidentService);
+    }
+}
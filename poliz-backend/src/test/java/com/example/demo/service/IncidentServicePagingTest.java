@@ -0,0 +1,93 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Incident;
+import com.example.demo.model.IncidentPage;
+import com.example.demo.repository.IncidentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Keyset pagination of IncidentService.getIncidentPage against the H2 schema.
+ *   - walking every page returns each incident once, in (time desc, id desc) order,
+ *     with incidents that have no time at the end
+ *   - type filter is case-insensitive and accepts several types
+ *   - a cursor that was not issued by the service is rejected
+ */
+@DataJpaTest
+@Import({IncidentService.class, NewIncidentCounter.class})
+class IncidentServicePagingTest {
+
+    @Autowired
+    IncidentRepository repository;
+
+    @Autowired
+    IncidentService service;
+
+    private final List<Incident> all = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        String[] types = {"Fire", "Traffic Accident", "Other"};
+        for (int n = 0; n < 23; n++) {
+            Incident i = new Incident();
+            i.setType(types[n % types.length]);
+            i.setPlace("office");
+            i.setNotes("");
+            // several incidents share a timestamp so the id tie-breaker matters
+            i.setTime(n % 7 == 0 ? null : LocalDateTime.of(2025, 1, 1, 0, 0).plusHours(n / 2));
+            all.add(repository.save(i));
+        }
+    }
+
+    @Test
+    void walkingAllPages_returnsEveryIncidentOnceInOrder() {
+        List<Long> walked = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            IncidentPage<Incident> page = service.getIncidentPage(cursor, 5, null);
+            page.items().forEach(i -> walked.add(i.getId()));
+            cursor = page.next();
+            pages++;
+        } while (cursor != null);
+
+        List<Long> expected = all.stream()
+                .sorted(Comparator.comparing(Incident::getTime, Comparator.nullsLast(Comparator.reverseOrder()))
+                        .thenComparing(Incident::getId, Comparator.reverseOrder()))
+                .map(Incident::getId)
+                .toList();
+
+        assertEquals(expected, walked);
+        assertEquals(5, pages);
+    }
+
+    @Test
+    void typeFilter_isCaseInsensitive() {
+        IncidentPage<Incident> page = service.getIncidentPage(null, 100, List.of("  traffic ACCIDENT "));
+
+        assertEquals(8, page.items().size());
+        assertTrue(page.items().stream().allMatch(i -> i.getType().equals("Traffic Accident")));
+        assertNull(page.next());
+    }
+
+    @Test
+    void severalTypes_areMatchedInOneQuery() {
+        assertEquals(15, service.getIncidentsByTypes(List.of("fire", "Other")).size());
+        assertEquals(15, service.getIncidentPage(null, 100, List.of("fire", "Other")).items().size());
+    }
+
+    @Test
+    void invalidCursor_isRejected() {
+        assertThrows(IllegalArgumentException.class, () -> service.getIncidentPage("not-a-cursor", 5, null));
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.demo.service;
+
+import com.example.demo.model.CrimeIncidentDto;
+import com.example.demo.model.Incident;
+import com.example.demo.repository.IncidentRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Dashboard rows selected straight into CrimeIncidentDto (IncidentService.getCrimeIncidents)
+ * against the H2 schema.
+ *   - same DTOs as the old path (load entities, map with fromIncident), with and without a type filter
+ *   - "HH:mm" formatting equals DateTimeFormatter for every minute of the day
+ *   - benchmark (opt-in, -Dbenchmark=true): allocated bytes per row and time, entity path vs projection
+ */
+@DataJpaTest
+@Import({IncidentService.class, NewIncidentCounter.class})
+class IncidentServiceProjectionTest {
+
+    @Autowired
+    IncidentRepository repository;
+
+    @Autowired
+    IncidentService service;
+
+    private static final List<String> TYPES = List.of("Fire", "Traffic Accident", "Other", "Medical Emergency");
+    private static final List<String> RANKS = List.of("CRITICAL", "HIGH", "MEDIUM", "LOW", "");
+
+    @Test
+    void projection_returnsSameRowsAsEntityMapping() {
+        repository.saveAll(randomIncidents(new Random(17), 500));
+
+        assertEquals(entityPath(null), sorted(service.getCrimeIncidents(null)));
+        assertEquals(entityPath(List.of("fire", "Other")), sorted(service.getCrimeIncidents(List.of("fire", "Other"))));
+    }
+
+    @Test
+    void timeFormatting_matchesDateTimeFormatter() {
+        DateTimeFormatter hhmm = DateTimeFormatter.ofPattern("HH:mm");
+        for (int minute = 0; minute < 24 * 60; minute++) {
+            LocalDateTime t = LocalDateTime.of(2025, 1, 1, 0, 0).plusMinutes(minute).plusSeconds(59);
+            CrimeIncidentDto dto = new CrimeIncidentDto(1L, "Other", "p", t, "", "LOW", true, null, null);
+            assertEquals(t.toLocalTime().format(hhmm), dto.time());
+        }
+    }
+
+    // runs without the test transaction, like a real request: no shared persistence context
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void benchmark_allocationPerRow() {
+        Random random = new Random(23);
+        int rows = 50_000;
+        for (int batch = 0; batch < rows / 5_000; batch++) {
+            repository.saveAll(randomIncidents(random, 5_000));
+        }
+        try {
+            Supplier<List<CrimeIncidentDto>> entities = () -> service.getAllIncidents().stream()
+                    .map(CrimeIncidentDto::fromIncident).toList();
+            Supplier<List<CrimeIncidentDto>> projection = () -> service.getCrimeIncidents(null);
+
+            for (int warmup = 0; warmup < 5; warmup++) {
+                entities.get();
+                projection.get();
+            }
+            long[] entityCost = measure(entities, rows);
+            long[] projectionCost = measure(projection, rows);
+
+            System.out.println("LOG: [dto benchmark] " + rows + " rows: entities + fromIncident "
+                    + entityCost[0] + " bytes/row, " + entityCost[1] + " ms/query; projection "
+                    + projectionCost[0] + " bytes/row, " + projectionCost[1] + " ms/query");
+            assertTrue(projectionCost[0] < entityCost[0]);
+        } finally {
+            repository.deleteAllInBatch();
+        }
+    }
+
+    /** {bytes allocated per row, ms per query}, averaged over a few rounds on this thread. */
+    private static long[] measure(Supplier<List<CrimeIncidentDto>> query, int rows) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        int rounds = 10;
+        long bytes0 = threads.getThreadAllocatedBytes(thread);
+        long t0 = System.nanoTime();
+        for (int r = 0; r < rounds; r++) {
+            assertEquals(rows, query.get().size());
+        }
+        long nanos = System.nanoTime() - t0;
+        long bytes = threads.getThreadAllocatedBytes(thread) - bytes0;
+        return new long[]{bytes / rounds / rows, nanos / rounds / 1_000_000};
+    }
+
+    private List<CrimeIncidentDto> entityPath(List<String> types) {
+        List<Incident> incidents = (types == null) ? service.getAllIncidents() : service.getIncidentsByTypes(types);
+        return sorted(incidents.stream().map(CrimeIncidentDto::fromIncident).toList());
+    }
+
+    private static List<CrimeIncidentDto> sorted(List<CrimeIncidentDto> rows) {
+        return rows.stream().sorted(Comparator.comparing(CrimeIncidentDto::id)).toList();
+    }
+
+    private static List<Incident> randomIncidents(Random random, int count) {
+        List<Incident> list = new ArrayList<>(count);
+        for (int n = 0; n < count; n++) {
+            Incident i = new Incident();
+            i.setType(TYPES.get(random.nextInt(TYPES.size())));
+            i.setPlace("place " + n);
+            i.setNotes("notes for incident " + n + " with some longer free text from the field unit");
+            i.setTime(random.nextInt(10) == 0 ? null
+                    : LocalDateTime.of(2025, 1, 1, 0, 0).plusMinutes(random.nextInt(60 * 24 * 30)));
+            String rank = RANKS.get(random.nextInt(RANKS.size()));
+            i.setRankLevel(rank.isEmpty() ? null : rank);
+            i.setNew(random.nextBoolean());
+            i.setScore(random.nextInt(100));
+            if (random.nextBoolean()) {
+                i.setLatitude(13.5 + random.nextDouble() * 0.5);
+                i.setLongitude(100.3 + random.nextDouble() * 0.6);
+            }
+            list.add(i);
+        }
+        return list;
+    }
+}
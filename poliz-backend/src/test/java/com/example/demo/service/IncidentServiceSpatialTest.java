@@ -0,0 +1,147 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Geohash;
+import com.example.demo.model.Incident;
+import com.example.demo.repository.IncidentRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Bounding-box lookups (IncidentService.getIncidentsInBox) against the H2 schema.
+ *   - geohash encoding matches the reference value
+ *   - bbox results equal a brute-force filter over all incidents, for random boxes
+ *   - benchmark (opt-in, -Dbenchmark=true): geohash index vs. full scan + in-memory filter
+ */
+@DataJpaTest
+@Import({IncidentService.class, NewIncidentCounter.class})
+class IncidentServiceSpatialTest {
+
+    @Autowired
+    IncidentRepository repository;
+
+    @Autowired
+    IncidentService service;
+
+    // Bangkok metropolitan area
+    private static final double MIN_LAT = 13.5, MAX_LAT = 14.0, MIN_LON = 100.3, MAX_LON = 100.9;
+
+    @Test
+    void geohash_matchesReferenceEncoding() {
+        assertEquals("u4pruydqq", Geohash.encode(57.64911, 10.40744));
+        assertEquals("w4rqq", Geohash.encode(13.7563, 100.5018, 5));
+    }
+
+    @Test
+    void bbox_returnsSameIncidentsAsBruteForce() {
+        Random random = new Random(7);
+        List<Incident> all = repository.saveAll(randomIncidents(random, 2_000));
+
+        for (int n = 0; n < 50; n++) {
+            double lat1 = between(random, MIN_LAT, MAX_LAT), lat2 = between(random, MIN_LAT, MAX_LAT);
+            double lon1 = between(random, MIN_LON, MAX_LON), lon2 = between(random, MIN_LON, MAX_LON);
+            double minLat = Math.min(lat1, lat2), maxLat = Math.max(lat1, lat2);
+            double minLon = Math.min(lon1, lon2), maxLon = Math.max(lon1, lon2);
+
+            Set<Long> expected = all.stream()
+                    .filter(i -> i.getLatitude() != null
+                            && i.getLatitude() >= minLat && i.getLatitude() <= maxLat
+                            && i.getLongitude() >= minLon && i.getLongitude() <= maxLon)
+                    .map(Incident::getId)
+                    .collect(Collectors.toSet());
+
+            List<Incident> found = service.getIncidentsInBox(minLat, minLon, maxLat, maxLon, null);
+
+            assertEquals(expected.size(), found.size(), "duplicates or misses for box #" + n);
+            assertEquals(expected, found.stream().map(Incident::getId).collect(Collectors.toSet()));
+        }
+    }
+
+    @Test
+    void bbox_invalidBox_isRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> service.getIncidentsInBox(14.0, 100.3, 13.5, 100.9, null));
+        // "NaN" parses as a double and would pass every range comparison
+        assertThrows(IllegalArgumentException.class,
+                () -> service.getIncidentsInBox(Double.NaN, 100.3, 14.0, 100.9, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.getIncidentsInBox(13.5, 100.3, 14.0, Double.NaN, null));
+    }
+
+    // runs without the test transaction so every query starts with an empty persistence context
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void benchmark_bboxVersusFullScan() {
+        Random random = new Random(11);
+        for (int batch = 0; batch < 20; batch++) {
+            repository.saveAll(randomIncidents(random, 5_000));
+        }
+        try {
+            runBenchmark();
+        } finally {
+            repository.deleteAllInBatch();
+        }
+    }
+
+    private void runBenchmark() {
+        // roughly a city-district viewport
+        double minLat = 13.72, maxLat = 13.76, minLon = 100.50, maxLon = 100.55;
+        int rounds = 20;
+
+        long fullScanNanos = 0, bboxNanos = 0;
+        int fullScanHits = 0, bboxHits = 0;
+        for (int r = 0; r < rounds; r++) {
+            long t0 = System.nanoTime();
+            fullScanHits = (int) service.getAllIncidents().stream()
+                    .filter(i -> i.getLatitude() != null
+                            && i.getLatitude() >= minLat && i.getLatitude() <= maxLat
+                            && i.getLongitude() >= minLon && i.getLongitude() <= maxLon)
+                    .count();
+            long t1 = System.nanoTime();
+            bboxHits = service.getIncidentsInBox(minLat, minLon, maxLat, maxLon, null).size();
+            long t2 = System.nanoTime();
+            fullScanNanos += t1 - t0;
+            bboxNanos += t2 - t1;
+        }
+
+        assertEquals(fullScanHits, bboxHits);
+        System.out.println("LOG: [bbox benchmark] 100000 incidents, " + bboxHits + " in viewport: full scan "
+                + fullScanNanos / rounds / 1_000_000 + " ms/query, geohash index "
+                + bboxNanos / rounds / 1_000_000 + " ms/query");
+    }
+
+    private static List<Incident> randomIncidents(Random random, int count) {
+        List<Incident> list = new ArrayList<>(count);
+        for (int n = 0; n < count; n++) {
+            Incident i = new Incident();
+            i.setType("Other");
+            i.setPlace("street");
+            i.setNotes("");
+            i.setTime(LocalDateTime.of(2025, 1, 1, 12, 0));
+            if (n % 50 != 0) { // some incidents have no location
+                i.setLatitude(between(random, MIN_LAT, MAX_LAT));
+                i.setLongitude(between(random, MIN_LON, MAX_LON));
+            }
+            list.add(i);
+        }
+        return list;
+    }
+
+    private static double between(Random random, double min, double max) {
+        return min + random.nextDouble() * (max - min);
+    }
+}
@@ -8,6 +8,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.LocalDateTime;
 
@@ -58,6 +59,9 @@ public class IncidentServiceTest {
     @Mock
     IncidentRepository repository;
 
+    @Mock
+    ApplicationEventPublisher events;
+
     @InjectMocks
     IncidentService service;
 
@@ -0,0 +1,80 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * LatencySketch (reply-time histogram).
+ *   - quantiles within 3.2% of the exact sorted value over a long-tailed sample; count/mean/min/max exact
+ *   - merging sketches = one sketch over all samples; bytes round-trip
+ *   - bucket count and encoded size stay bounded however many samples are added
+ */
+class LatencySketchTest {
+
+    @Test
+    void quantiles_areWithinRelativeError() {
+        Random random = new Random(47);
+        long[] values = new long[100_000];
+        LatencySketch sketch = new LatencySketch();
+        long sum = 0;
+        for (int n = 0; n < values.length; n++) {
+            values[n] = (long) Math.exp(random.nextDouble() * 16); // 1 ms .. ~2.5 h, long tail
+            sketch.add(values[n]);
+            sum += values[n];
+        }
+        Arrays.sort(values);
+
+        for (double q : new double[]{0.01, 0.1, 0.5, 0.9, 0.99, 1.0}) {
+            long exact = values[(int) Math.ceil(q * values.length) - 1];
+            long estimate = sketch.quantile(q);
+            assertTrue(Math.abs(estimate - exact) <= Math.max(1, exact * 0.032), q + ": " + estimate + " vs " + exact);
+        }
+        assertEquals(values.length, sketch.count());
+        assertEquals(Math.round((double) sum / values.length), sketch.mean());
+        assertEquals(values[values.length - 1], sketch.quantile(1.0));
+    }
+
+    @Test
+    void smallValues_areExact() {
+        LatencySketch sketch = new LatencySketch();
+        for (long v = 0; v < 32; v++) sketch.add(v);
+        assertEquals(15, sketch.quantile(0.5));
+        assertEquals(0, sketch.quantile(0.0));
+        assertEquals(0, new LatencySketch().quantile(0.5));
+        assertEquals(0, new LatencySketch().mean());
+    }
+
+    @Test
+    void merge_equalsOneSketchOverAllSamples_andBytesRoundTrip() {
+        Random random = new Random(53);
+        LatencySketch all = new LatencySketch(), a = new LatencySketch(), b = new LatencySketch();
+        for (int n = 0; n < 10_000; n++) {
+            long v = random.nextInt(3_600_000);
+            all.add(v);
+            (n % 3 == 0 ? a : b).add(v);
+        }
+        LatencySketch merged = LatencySketch.fromBytes(a.toBytes());
+        merged.merge(LatencySketch.fromBytes(b.toBytes()));
+        merged.merge(LatencySketch.fromBytes(null));
+
+        assertArrayEquals(all.toBytes(), merged.toBytes());
+        for (double q : new double[]{0.5, 0.9}) assertEquals(all.quantile(q), merged.quantile(q));
+        assertEquals(0, LatencySketch.fromBytes(new LatencySketch().toBytes()).count());
+    }
+
+    @Test
+    void size_isBounded() {
+        Random random = new Random(59);
+        LatencySketch sketch = new LatencySketch();
+        for (int n = 0; n < 200_000; n++) sketch.add(random.nextLong() & Long.MAX_VALUE);
+        sketch.add(-5); // clock skew counts as 0
+
+        assertEquals(1887, LatencySketch.index(Long.MAX_VALUE));
+        assertTrue(sketch.toBytes().length < 8192);
+        for (int i = 0; i < 1888; i++) assertEquals(i, LatencySketch.index(LatencySketch.lowerBound(i)));
+    }
+}
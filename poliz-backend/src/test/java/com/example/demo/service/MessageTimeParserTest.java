@@ -0,0 +1,120 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * MessageTimeParser fast path against the original formatter chain (parseLegacy).
+ *   - parity for every supported format, with valid and out-of-range fields, mixed in random order
+ *   - parity for edge cases the fast path hands back to the formatters (zone ids, leap day, 24:00, ...)
+ *   - benchmark (opt-in, -Dbenchmark=true): ns per parse, legacy vs fast path
+ */
+class MessageTimeParserTest {
+
+    @Test
+    void randomStrings_parseLikeTheFormatterChain() {
+        Random random = new Random(31);
+        for (String s : randomTimes(random, 50_000)) {
+            assertEquals(MessageTimeParser.parseLegacy(s), MessageTimeParser.parseToInstantUTC(s), s);
+        }
+    }
+
+    @Test
+    void edgeCases_parseLikeTheFormatterChain() {
+        List<String> cases = List.of(
+                "2025-11-11T01:23:45Z", "2025-11-11T01:23:45.5Z", "2025-11-11T01:23:45.123456789Z",
+                "2025-11-11T01:23:45.1234567890Z", "2025-11-11T01:23Z", "2025-11-11T01:23",
+                "2025-11-11T01:23:45", "2025-11-11T01:23:45+07:00", "2025-11-11T01:23:45-03:30",
+                "2025-11-11T01:23:45-00:00", "2025-11-11T01:23:45+18:00", "2025-11-11T01:23:45+19:00",
+                "2025-11-11T01:23:45+0700", "2025-11-11T01:23:45+07", "2025-11-11T01:23:45z",
+                "2025-11-11t01:23:45Z", "2025-11-11T01:23:45+07:00[Asia/Bangkok]", "2025-11-11T01:23:45.Z",
+                "2025-11-11T24:00:00Z", "2025-11-11T23:59:60Z", "2025-11-11T01:23:",
+                "2024-02-29 10:00", "2025-02-29 10:00", "2025-02-30 10:00:00", "2025/04/31 10:00:00",
+                "2025-13-01 10:00", "2025-00-10 10:00", "0000-01-01 10:00", "31-12-2025 23:59",
+                "29-02-2025 23:59", "01-01-2025 24:00", "2025-11-11 1:23", "2025-11-11  01:23",
+                "0:00", "9:59", "23:59", "24:00", "12:60", "123:45", "1:2",
+                "12:00 AM", "12:00 PM", "12:00 am", "1:05 pm", "01:05 PM", "0:30 AM", "13:30 PM",
+                "1:05PM", "1:05  PM", "1:05 XM", "1:05 AX",
+                "", " ", "12:30 PM ", " 12:30", "yesterday", "2025-11-11", "２０２５-11-11 10:00");
+        for (String s : cases) {
+            assertEquals(MessageTimeParser.parseLegacy(s), MessageTimeParser.parseToInstantUTC(s), s);
+        }
+        assertEquals(Optional.empty(), MessageTimeParser.parseToInstantUTC(null));
+    }
+
+    @Test
+    void supportedFormats_giveTheExpectedInstant() {
+        Instant expected = LocalDateTime.of(2025, 11, 11, 1, 23).toInstant(ZoneOffset.UTC);
+        for (String s : List.of("2025-11-11T01:23:00Z", "2025-11-11T08:23+07:00", "2025-11-11T01:23",
+                "2025-11-11 01:23:00", "2025/11/11 01:23:00", "2025-11-11 01:23", "11-11-2025 01:23")) {
+            assertEquals(Optional.of(expected), MessageTimeParser.parseToInstantUTC(s), s);
+        }
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmark_nanosPerParse() {
+        List<String> times = randomTimes(new Random(37), 200_000);
+        for (int warmup = 0; warmup < 5; warmup++) {
+            times.forEach(MessageTimeParser::parseLegacy);
+            times.forEach(MessageTimeParser::parseToInstantUTC);
+        }
+        long legacy = nanosPerParse(times, true);
+        long fast = nanosPerParse(times, false);
+
+        System.out.println("LOG: [time parser benchmark] " + times.size() + " strings: formatter chain "
+                + legacy + " ns/parse, fast path " + fast + " ns/parse");
+        assertTrue(fast < legacy);
+    }
+
+    private static long nanosPerParse(List<String> times, boolean legacy) {
+        int rounds = 10, parsed = 0;
+        long t0 = System.nanoTime();
+        for (int r = 0; r < rounds; r++) {
+            for (String s : times) {
+                Optional<Instant> t = legacy ? MessageTimeParser.parseLegacy(s) : MessageTimeParser.parseToInstantUTC(s);
+                if (t.isPresent()) parsed++;
+            }
+        }
+        assertTrue(parsed > 0);
+        return (System.nanoTime() - t0) / rounds / times.size();
+    }
+
+    /** Every supported format in random order; about one field in twenty is out of range. */
+    private static List<String> randomTimes(Random random, int count) {
+        List<String> list = new ArrayList<>(count);
+        for (int n = 0; n < count; n++) {
+            boolean bad = random.nextInt(20) == 0;
+            int y = 2020 + random.nextInt(8);
+            int mo = bad ? random.nextInt(14) : 1 + random.nextInt(12);
+            int d = bad ? random.nextInt(33) : 1 + random.nextInt(28);
+            int h = bad ? random.nextInt(26) : random.nextInt(24);
+            int mi = bad ? random.nextInt(62) : random.nextInt(60);
+            int s = bad ? random.nextInt(62) : random.nextInt(60);
+            list.add(switch (random.nextInt(10)) {
+                case 0 -> String.format("%04d-%02d-%02dT%02d:%02d:%02dZ", y, mo, d, h, mi, s);
+                case 1 -> String.format("%04d-%02d-%02dT%02d:%02d:%02d.%03dZ", y, mo, d, h, mi, s, random.nextInt(1000));
+                case 2 -> String.format("%04d-%02d-%02dT%02d:%02d:%02d+07:00", y, mo, d, h, mi, s);
+                case 3 -> String.format("%04d-%02d-%02dT%02d:%02d:%02d", y, mo, d, h, mi, s);
+                case 4 -> String.format("%04d-%02d-%02d %02d:%02d:%02d", y, mo, d, h, mi, s);
+                case 5 -> String.format("%04d/%02d/%02d %02d:%02d:%02d", y, mo, d, h, mi, s);
+                case 6 -> String.format("%04d-%02d-%02d %02d:%02d", y, mo, d, h, mi);
+                case 7 -> String.format("%02d-%02d-%04d %02d:%02d", d, mo, y, h, mi);
+                case 8 -> (random.nextBoolean() ? h : String.format("%02d", h)) + ":" + String.format("%02d", mi);
+                default -> (bad ? h : 1 + h % 12) + ":" + String.format("%02d", mi)
+                        + (random.nextBoolean() ? " PM" : " am");
+            });
+        }
+        return list;
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Message;
+import com.example.demo.repository.MessageRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Typed message timestamp (Message.sentAtMs) against the H2 schema.
+ *   - backfill parses the legacy time strings, leaves unparsable ones empty, and is idempotent
+ *   - backfill walks past full chunks
+ */
+@DataJpaTest
+@Import(MessageTimestampBackfill.class)
+class MessageTimestampTest {
+
+    @Autowired
+    MessageRepository repository;
+
+    @Autowired
+    MessageTimestampBackfill backfill;
+
+    @Test
+    void backfill_parsesLegacyStrings_andIsIdempotent() {
+        List<Message> legacy = repository.saveAll(List.of(
+                new Message("Pim", "Ploy", "a", "2025-11-11T01:23:45Z"),
+                new Message("Pim", "Ploy", "b", "2025-11-12 08:00"),
+                new Message("Ploy", "Pim", "c", "not a time"),
+                new Message("Ploy", "Pim", "d", null)));
+
+        assertEquals(2, backfill.backfill());
+        assertEquals(0, backfill.backfill());
+
+        assertEquals(Instant.parse("2025-11-11T01:23:45Z").toEpochMilli(),
+                repository.findById(legacy.get(0).getId()).orElseThrow().getSentAtMs());
+        assertEquals(Instant.parse("2025-11-12T08:00:00Z").toEpochMilli(),
+                repository.findById(legacy.get(1).getId()).orElseThrow().getSentAtMs());
+        assertNull(repository.findById(legacy.get(2).getId()).orElseThrow().getSentAtMs());
+    }
+
+    @Test
+    void backfill_walksPastFullChunks() {
+        List<Message> many = new ArrayList<>();
+        for (int n = 0; n < 1_200; n++) {
+            many.add(new Message("Pim", "Ploy", "m" + n, n % 3 == 0 ? "garbage" : "2025-11-12 08:00"));
+        }
+        repository.saveAll(many);
+
+        assertEquals(800, backfill.backfill());
+    }
+}
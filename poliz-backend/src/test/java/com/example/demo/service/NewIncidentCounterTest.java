@@ -0,0 +1,124 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Incident;
+import com.example.demo.repository.IncidentRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * In-memory unread counter (NewIncidentCounter) behind GET /api/v1/events/new/count.
+ *   - seeded from COUNT(*); reconcile() reports and fixes drift
+ *   - only isNew incidents count; mark-as-read subtracts what was flipped
+ *   - IncidentService.markAllAsRead publishes the rows its bulk update flipped (overlapping calls: 0)
+ *   - every move is announced with the already updated count (drives the SSE refresh)
+ *   - concurrent writers lose no updates
+ *   - IncidentService.getNewIncidentCount() does not query the repository
+ */
+@ExtendWith(MockitoExtension.class)
+class NewIncidentCounterTest {
+
+    @Mock
+    IncidentRepository repository;
+
+    @Mock
+    ApplicationEventPublisher counterEvents;
+
+    @InjectMocks
+    NewIncidentCounter counter;
+
+    @Test
+    void seed_usesDatabaseCount_andReconcileReportsDrift() {
+        when(repository.countByIsNewTrue()).thenReturn(5L, 7L);
+
+        counter.seed();
+        assertEquals(5, counter.get());
+
+        assertEquals(2, counter.reconcile());
+        assertEquals(7, counter.get());
+    }
+
+    @Test
+    void savedAndReadEvents_moveTheCounter() {
+        counter.onIncidentsSaved(new IncidentsSavedEvent(List.of(incident(true), incident(false), incident(true))));
+        assertEquals(2, counter.get());
+
+        counter.onIncidentsRead(new IncidentsReadEvent(2));
+        assertEquals(0, counter.get());
+
+        var inOrder = inOrder(counterEvents);
+        inOrder.verify(counterEvents).publishEvent(new NewIncidentCountChangedEvent(2));
+        inOrder.verify(counterEvents).publishEvent(new NewIncidentCountChangedEvent(0));
+        counter.onIncidentsSaved(new IncidentsSavedEvent(List.of(incident(false)))); // no move, no event
+        verifyNoMoreInteractions(counterEvents);
+    }
+
+    @Test
+    void concurrentWriters_loseNoUpdates() throws Exception {
+        int threads = 8, perThread = 5_000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        IncidentsSavedEvent one = new IncidentsSavedEvent(List.of(incident(true)));
+        try {
+            for (int t = 0; t < threads; t++) {
+                boolean reader = t % 4 == 0; // some threads also mark incidents as read
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int n = 0; n < perThread; n++) {
+                        counter.onIncidentsSaved(one);
+                        if (reader && n % 2 == 0) counter.onIncidentsRead(new IncidentsReadEvent(1));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> f : futures) f.get();
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(threads * perThread - 2 * (perThread / 2), counter.get());
+    }
+
+    @Test
+    void badgeCount_doesNotQueryTheDatabase() {
+        IncidentService service = new IncidentService(repository, mock(ApplicationEventPublisher.class), counter);
+        counter.onIncidentsSaved(new IncidentsSavedEvent(List.of(incident(true))));
+
+        assertEquals(1, service.getNewIncidentCount());
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void markAllAsRead_publishesOnlyRowsThisCallFlipped() {
+        ApplicationEventPublisher events = mock(ApplicationEventPublisher.class);
+        IncidentService service = new IncidentService(repository, events, counter);
+        when(repository.markAllAsRead()).thenReturn(3, 0); // the overlapping call finds nothing left
+
+        service.markAllAsRead();
+        service.markAllAsRead();
+
+        verify(events).publishEvent(new IncidentsReadEvent(3));
+        verifyNoMoreInteractions(events);
+    }
+
+    private static Incident incident(boolean isNew) {
+        Incident i = new Incident();
+        i.setNew(isNew);
+        return i;
+    }
+}
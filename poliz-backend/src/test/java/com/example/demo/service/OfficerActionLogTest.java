@@ -0,0 +1,169 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Incident;
+import com.example.demo.model.OfficerAction;
+import com.example.demo.model.PerformanceSummary.IncidentStats;
+import com.example.demo.repository.IncidentRepository;
+import com.example.demo.repository.OfficerActionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * OfficerActionLog (ring buffer + batched flush) and its totals in PerformanceService.getSummary.
+ *   - concurrent producers: every action stored exactly once
+ *   - full ring: extra actions dropped and counted, never blocking
+ *   - flush saves batch-size rows per saveAll, one OfficerActionsFlushedEvent per batch
+ *   - read-mark moves are counted from the feed-position range at flush time
+ *   - incidentsViewed / newAlertsCleared summed per officer and for the team, window bounds respected
+ */
+@DataJpaTest
+@Import(PerformanceService.class)
+class OfficerActionLogTest {
+
+    @Autowired
+    OfficerActionRepository actions;
+
+    @Autowired
+    IncidentRepository incidents;
+
+    @Autowired
+    PerformanceService performanceService;
+
+    private static final Instant NOW = Instant.parse("2025-11-10T03:00:00Z");
+
+    private final List<Object> published = Collections.synchronizedList(new ArrayList<>());
+
+    private OfficerActionLog newLog(int bufferSize, int batchSize) {
+        return new OfficerActionLog(actions, incidents, published::add,
+                Clock.fixed(NOW, ZoneOffset.UTC), bufferSize, batchSize, 60_000);
+    }
+
+    @Test
+    void concurrentProducers_everyActionStoredOnce() throws InterruptedException {
+        OfficerActionLog log = newLog(1 << 15, 500);
+        int threads = 8, perThread = 2_000;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> producers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            String officer = "officer" + t;
+            Thread producer = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int n = 0; n < perThread; n++) log.incidentsViewed(officer, 1 + n % 3);
+            });
+            producer.start();
+            producers.add(producer);
+        }
+        start.countDown();
+        for (Thread producer : producers) producer.join();
+
+        assertEquals(threads * perThread, log.flush());
+        assertEquals(0, log.getDropped());
+
+        int expectedPerOfficer = 0;
+        for (int n = 0; n < perThread; n++) expectedPerOfficer += 1 + n % 3;
+        Map<String, Integer> perOfficer = actions.findAll().stream()
+                .collect(Collectors.groupingBy(OfficerAction::getOfficer, Collectors.summingInt(OfficerAction::getCount)));
+        assertEquals(threads, perOfficer.size());
+        for (int total : perOfficer.values()) assertEquals(expectedPerOfficer, total);
+    }
+
+    @Test
+    void fullRing_dropsAndCounts() {
+        OfficerActionLog log = newLog(4, 500);
+        for (int n = 0; n < 6; n++) log.incidentsViewed("Pim", 1);
+
+        assertEquals(2, log.getDropped());
+        assertEquals(4, log.flush());
+        assertEquals(4, actions.count());
+
+        log.incidentsViewed("Pim", 1);                  // space again after the flush
+        assertEquals(1, log.flush());
+    }
+
+    @Test
+    void flush_savesInBatchesAndPublishesOneEventPerBatch() {
+        OfficerActionLog log = newLog(64, 3);
+        for (int n = 0; n < 7; n++) log.incidentsViewed(n % 2 == 0 ? "Pim" : "Nok", 2);
+        log.incidentsViewed(null, 5);                     // no officer: not recorded
+        log.incidentsViewed("Pim", 0);                    // nothing shown: not recorded
+
+        assertEquals(7, log.flush());
+        assertEquals(0, log.flush());
+        assertEquals(7, actions.count());
+        assertEquals(3, published.size());                // 3 + 3 + 1
+        OfficerActionsFlushedEvent first = (OfficerActionsFlushedEvent) published.get(0);
+        assertEquals(java.util.Set.of("Pim", "Nok"), first.officers());
+        assertEquals(NOW.toEpochMilli(), first.fromMs());
+    }
+
+    @Test
+    void readMarkMove_isCountedFromFeedPositions() {
+        List<Incident> saved = new ArrayList<>();
+        for (long seq = 1; seq <= 4; seq++) {
+            Incident i = incident();
+            i.setFeedSeq(seq);
+            saved.add(i);
+        }
+        incidents.saveAll(saved);
+        OfficerActionLog log = newLog(64, 500);
+
+        log.alertsCleared("Pim", 1, 4); // 3 newer incidents
+        log.alertsCleared("Nok", 4, 4); // no move: ignored
+        log.flush();
+
+        List<OfficerAction> rows = actions.findAll();
+        assertEquals(1, rows.size());
+        assertEquals(OfficerAction.ALERTS_CLEARED, rows.get(0).getAction());
+        assertEquals(3, rows.get(0).getCount());
+    }
+
+    @Test
+    void summary_sumsActionsInTheWindow() {
+        OfficerActionLog log = newLog(64, 500);
+        log.incidentsViewed("Pim", 20);
+        log.incidentsViewed("Pim", 5);
+        log.incidentsViewed("Nok", 7);
+        log.alertsCleared("Pim", 4);
+        log.flush();
+        actions.save(new OfficerAction("Pim", OfficerAction.INCIDENTS_VIEWED, 100,
+                Instant.parse("2025-11-11T00:00:00Z").toEpochMilli())); // the next day
+
+        Instant from = Instant.parse("2025-11-10T00:00:00Z");
+        Instant to = Instant.parse("2025-11-11T00:00:00Z").minusMillis(1);
+
+        IncidentStats pim = performanceService.getSummary(from, to, "Pim").getIncidents();
+        assertEquals(25, pim.getIncidentsViewed());
+        assertEquals(4, pim.getNewAlertsCleared());
+
+        IncidentStats team = performanceService.getSummary(from, to, null).getIncidents();
+        assertEquals(32, team.getIncidentsViewed());
+        assertEquals(4, team.getNewAlertsCleared());
+    }
+
+    private static Incident incident() {
+        Incident i = new Incident();
+        i.setType("Other");
+        i.setPlace("street");
+        i.setNotes("");
+        i.setRankLevel("LOW");
+        return i;
+    }
+}
@@ -0,0 +1,226 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Incident;
+import com.example.demo.model.Message;
+import com.example.demo.model.PerformanceSummary.MessagingStats;
+import com.example.demo.repository.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * PerformanceService sections running concurrently on the section pool.
+ *   - committed data: pooled summary and leaderboard equal the same service run inline
+ *   - a failing read surfaces as its own exception, as if it ran on the request thread
+ *   - section pool: named threads; a full queue runs sections on the caller instead of queueing
+ *   - benchmark (opt-in, -Dbenchmark=true): 1M-message fixture, summary latency of the
+ *     original path (load the window, stream it per metric) vs rollups inline vs rollups pooled
+ * Runs without the test transaction (sections only go to the pool outside a transaction).
+ */
+@DataJpaTest
+@Import({PerformanceService.class, MessageRollupService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PerformanceServiceParallelTest {
+
+    @Autowired OfficerDailyStatsRepository statsRepository;
+    @Autowired OfficerDailyPeerRepository peerRepository;
+    @Autowired OfficerDailyLatencyRepository latencyRepository;
+    @Autowired IncidentRepository incidentRepository;
+    @Autowired UserRepository userRepository;
+    @Autowired OfficerActionRepository actionRepository;
+    @Autowired MessageRepository messageRepository;
+    @Autowired MessageRollupService rollups;
+    @Autowired PerformanceService pooled;
+    @Autowired JdbcTemplate jdbc;
+
+    private static final List<String> OFFICERS = List.of("Pim", "Ploy", "Earn", "Beam", "Mind", "Nok");
+    private static final LocalDate START = LocalDate.of(2025, 1, 1);
+
+    @Test
+    void pooledSections_matchInlineSections() {
+        try {
+            Random random = new Random(67);
+            for (Message m : messageRepository.saveAll(randomMessages(random, 600, 30))) rollups.recordMessage(m);
+            incidentRepository.saveAll(randomIncidents(random, 300));
+            PerformanceService inline = new PerformanceService(statsRepository, peerRepository, latencyRepository,
+                    incidentRepository, userRepository, actionRepository, Runnable::run);
+
+            Instant from = START.atStartOfDay().toInstant(ZoneOffset.UTC);
+            Instant to = START.plusDays(20).atStartOfDay().toInstant(ZoneOffset.UTC).minusMillis(1);
+            for (String officer : Arrays.asList(null, "Pim", "Nok", "nobody")) {
+                assertEquals(inline.getSummary(from, to, officer), pooled.getSummary(from, to, officer), officer);
+            }
+            assertEquals(inline.getTeam(from, to, "conversations", 0, 10), pooled.getTeam(from, to, "conversations", 0, 10));
+        } finally {
+            cleanUp();
+        }
+    }
+
+    @Test
+    void failingSection_throwsItsOwnException() {
+        IncidentRepository broken = mock(IncidentRepository.class);
+        when(broken.countByRankLevel(any(), any())).thenThrow(new IllegalStateException("db down"));
+        PerformanceService service = new PerformanceService(statsRepository, peerRepository, latencyRepository,
+                broken, userRepository, actionRepository, Executors.newSingleThreadExecutor());
+        try {
+            Instant from = START.atStartOfDay().toInstant(ZoneOffset.UTC);
+            IllegalStateException e = assertThrows(IllegalStateException.class,
+                    () -> service.getSummary(from, from.plusSeconds(3_600), null));
+            assertEquals("db down", e.getMessage());
+        } finally {
+            service.stop();
+        }
+    }
+
+    @Test
+    void sectionPool_fullQueueRunsOnCaller() throws Exception {
+        ThreadPoolExecutor pool = PerformanceService.sectionPool(1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            CompletableFuture<String> busy = CompletableFuture.supplyAsync(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return Thread.currentThread().getName();
+            }, pool);
+            CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> Thread.currentThread().getName(), pool);
+            CompletableFuture<String> overflow = CompletableFuture.supplyAsync(() -> Thread.currentThread().getName(), pool);
+
+            assertEquals(Thread.currentThread().getName(), overflow.get(5, TimeUnit.SECONDS));
+            release.countDown();
+            assertEquals("performance-section-1", busy.get(5, TimeUnit.SECONDS));
+            assertEquals("performance-section-1", queued.get(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmark_millionMessages() {
+        try {
+            int total = 1_000_000;
+            Random random = new Random(71);
+            long start = START.atStartOfDay().toInstant(ZoneOffset.UTC).toEpochMilli();
+            List<Object[]> batch = new ArrayList<>(10_000);
+            for (int n = 0; n < total; n++) {
+                String sender = OFFICERS.get(random.nextInt(OFFICERS.size()));
+                String receiver = OFFICERS.get(random.nextInt(OFFICERS.size()));
+                batch.add(new Object[]{sender, receiver, "message " + n, "12:30 PM",
+                        start + (long) (random.nextDouble() * 365 * 86_400_000L)});
+                if (batch.size() == 10_000) {
+                    jdbc.batchUpdate("insert into messages (sender, receiver, text, time, sent_at_ms) values (?, ?, ?, ?, ?)", batch);
+                    batch.clear();
+                }
+            }
+            long t0 = System.nanoTime();
+            assertEquals(total, rollups.rebuildIfEmpty());
+            long rebuildMs = (System.nanoTime() - t0) / 1_000_000;
+
+            PerformanceService inline = new PerformanceService(statsRepository, peerRepository, latencyRepository,
+                    incidentRepository, userRepository, actionRepository, Runnable::run);
+            Instant from = START.atStartOfDay().toInstant(ZoneOffset.UTC);
+            Instant to = START.plusDays(90).atStartOfDay().toInstant(ZoneOffset.UTC).minusMillis(1);
+
+            MessagingStats expected = originalMessaging(from, to, "Pim");
+            assertEquals(expected.getMessagesSent(), pooled.getSummary(from, to, "Pim").getMessaging().getMessagesSent());
+            assertEquals(expected.getConversations(), pooled.getSummary(from, to, "Pim").getMessaging().getConversations());
+            assertEquals(expected.getActiveDays(), pooled.getSummary(from, to, "Pim").getMessaging().getActiveDays());
+
+            long original = millisPerCall(() -> originalMessaging(from, to, "Pim"), 5);
+            long rollupInline = millisPerCall(() -> inline.getSummary(from, to, "Pim"), 50);
+            long rollupPooled = millisPerCall(() -> pooled.getSummary(from, to, "Pim"), 50);
+            long teamInline = millisPerCall(() -> inline.getSummary(from, to, null), 50);
+            long teamPooled = millisPerCall(() -> pooled.getSummary(from, to, null), 50);
+
+            System.out.println("LOG: [summary benchmark] " + total + " messages (rollups rebuilt in " + rebuildMs
+                    + " ms), 90-day officer summary: original " + original + " ms, rollups inline "
+                    + rollupInline + " ms, pooled " + rollupPooled + " ms; team summary inline "
+                    + teamInline + " ms, pooled " + teamPooled + " ms");
+            assertTrue(rollupPooled < original);
+        } finally {
+            cleanUp();
+        }
+    }
+
+    /** Officer messaging as computed before the rollups: load the officer's window, one stream per metric. */
+    private MessagingStats originalMessaging(Instant from, Instant to, String me) {
+        List<MessageTimeRow> relevant = messageRepository.findTimeRows(from.toEpochMilli(), to.toEpochMilli(), me);
+        Set<String> peers = relevant.stream()
+                .map(m -> me.equals(m.getSender()) ? m.getReceiver() : m.getSender())
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        int sent = (int) relevant.stream().filter(m -> me.equals(m.getSender())).count();
+        int received = (int) relevant.stream().filter(m -> me.equals(m.getReceiver())).count();
+        int activeDays = relevant.stream()
+                .map(m -> Instant.ofEpochMilli(m.getSentAtMs()).atZone(ZoneOffset.UTC).toLocalDate())
+                .collect(Collectors.toSet()).size();
+        return MessagingStats.builder().conversations(peers.size()).messagesSent(sent)
+                .messagesReceived(received).activeDays(activeDays).build();
+    }
+
+    private static long millisPerCall(Supplier<?> call, int rounds) {
+        for (int warmup = 0; warmup < 3; warmup++) call.get();
+        long t0 = System.nanoTime();
+        for (int r = 0; r < rounds; r++) call.get();
+        return (System.nanoTime() - t0) / rounds / 1_000_000;
+    }
+
+    private void cleanUp() {
+        latencyRepository.deleteAllInBatch();
+        peerRepository.deleteAllInBatch();
+        statsRepository.deleteAllInBatch();
+        messageRepository.deleteAllInBatch();
+        incidentRepository.deleteAllInBatch();
+    }
+
+    private static List<Message> randomMessages(Random random, int count, int days) {
+        long start = START.atStartOfDay().toInstant(ZoneOffset.UTC).toEpochMilli();
+        List<Message> list = new ArrayList<>(count);
+        for (int n = 0; n < count; n++) {
+            Message m = new Message(OFFICERS.get(random.nextInt(OFFICERS.size())),
+                    OFFICERS.get(random.nextInt(OFFICERS.size())), "msg " + n, "12:30 PM");
+            m.setSentAtMs(start + (long) (random.nextDouble() * days * 86_400_000L));
+            list.add(m);
+        }
+        return list;
+    }
+
+    private static List<Incident> randomIncidents(Random random, int count) {
+        List<String> ranks = List.of("CRITICAL", "HIGH", "MEDIUM", "LOW");
+        List<Incident> list = new ArrayList<>(count);
+        for (int n = 0; n < count; n++) {
+            Incident i = new Incident();
+            i.setType("Other");
+            i.setPlace("street");
+            i.setNotes("");
+            i.setTime(START.atStartOfDay().plusMinutes(random.nextInt(60 * 24 * 30)));
+            i.setRankLevel(ranks.get(random.nextInt(ranks.size())));
+            list.add(i);
+        }
+        return list;
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Incident;
+import com.example.demo.model.PerformanceSummary;
+import com.example.demo.repository.IncidentRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Rank-level counts of PerformanceService.getSummary, now a GROUP BY in the database,
+ * against the original implementation (load the window, count toUpperCase(rankLevel) in Java).
+ * Random windows over incidents with mixed-case, unknown and missing rank levels.
+ */
+@DataJpaTest
+@Import(PerformanceService.class)
+class PerformanceServiceRankStatsTest {
+
+    @Autowired
+    IncidentRepository repository;
+
+    @Autowired
+    PerformanceService service;
+
+    private static final List<String> LEVELS = List.of("CRITICAL", "HIGH", "MEDIUM", "LOW", "high", "Low", "URGENT");
+    private static final LocalDate START = LocalDate.of(2025, 1, 1);
+
+    @Test
+    void rankCounts_matchInMemoryCounting() {
+        Random random = new Random(31);
+        List<Incident> incidents = new ArrayList<>();
+        for (int n = 0; n < 3_000; n++) {
+            Incident i = new Incident();
+            i.setType("Other");
+            i.setPlace("street");
+            i.setNotes("");
+            i.setTime(random.nextInt(20) == 0 ? null
+                    : START.atStartOfDay().plusMinutes(random.nextInt(60 * 24 * 90)));
+            i.setRankLevel(random.nextInt(10) == 0 ? null : LEVELS.get(random.nextInt(LEVELS.size())));
+            incidents.add(i);
+        }
+        repository.saveAll(incidents);
+
+        for (int n = 0; n < 40; n++) {
+            LocalDate from = START.plusDays(random.nextInt(80));
+            LocalDate to = from.plusDays(random.nextInt(31));
+            Instant fromUtc = from.atStartOfDay().toInstant(ZoneOffset.UTC);
+            Instant toUtc = to.plusDays(1).atStartOfDay().toInstant(ZoneOffset.UTC).minusMillis(1);
+
+            PerformanceSummary.RankDistribution actual =
+                    service.getSummary(fromUtc, toUtc, null).getIncidents().getByRankLevel();
+
+            assertEquals(legacyCounts(incidents, fromUtc, toUtc), actual, "window " + from + ".." + to);
+        }
+    }
+
+    /** The original loop: same window arithmetic, one toUpperCase per incident. */
+    private static PerformanceSummary.RankDistribution legacyCounts(List<Incident> all, Instant from, Instant toInclusive) {
+        ZoneId zone = ZoneId.systemDefault();
+        LocalDateTime start = LocalDateTime.ofInstant(from, zone).toLocalDate().atStartOfDay();
+        LocalDateTime end = LocalDateTime.ofInstant(toInclusive, zone).toLocalDate().plusDays(1).atStartOfDay();
+
+        int critical = 0, high = 0, medium = 0, low = 0;
+        for (Incident inc : all) {
+            if (inc.getTime() == null || inc.getTime().isBefore(start) || !inc.getTime().isBefore(end)) continue;
+            String level = inc.getRankLevel();
+            if (level == null) continue;
+            switch (level.toUpperCase(Locale.ROOT)) {
+                case "CRITICAL" -> critical++;
+                case "HIGH" -> high++;
+                case "MEDIUM" -> medium++;
+                case "LOW" -> low++;
+            }
+        }
+        return PerformanceSummary.RankDistribution.builder()
+                .CRITICAL(critical).HIGH(high).MEDIUM(medium).LOW(low)
+                .build();
+    }
+}
@@ -0,0 +1,341 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Chat;
+import com.example.demo.model.Message;
+import com.example.demo.model.OfficerDailyLatency;
+import com.example.demo.model.OfficerDailyPeer;
+import com.example.demo.model.PerformanceSummary.MessagingStats;
+import com.example.demo.model.PerformanceSummary.Percentiles;
+import com.example.demo.model.TeamPerformance;
+import com.example.demo.model.TeamPerformance.OfficerPerformance;
+import com.example.demo.model.User;
+import com.example.demo.repository.ChatRepository;
+import com.example.demo.repository.MessageRepository;
+import com.example.demo.repository.OfficerDailyLatencyRepository;
+import com.example.demo.repository.OfficerDailyPeerRepository;
+import com.example.demo.repository.OfficerDailyStatsRepository;
+import com.example.demo.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Messaging stats of PerformanceService.getSummary, now summed from the daily rollups,
+ * against the original implementation (load the window's messages, count in Java).
+ *   - rollups written per send (MessageRollupService.recordMessage), team and per officer,
+ *     random whole-day windows, self-messages included
+ *   - concurrent first sends / first replies of an officer-day (separate transactions): all counted, none fails
+ *   - rollups rebuilt from an existing messages table give the same numbers; rebuild runs once,
+ *     and not at all while any of the three rollup tables has rows
+ *   - reply times: first/latest unanswered message to the reply, per officer and team, live and rebuilt
+ *     (also after live sends left the chats mid-conversation)
+ *   - team leaderboard: every entry equals that officer's summary; roster users without messages
+ *     included; sort order, paging, bad arguments
+ */
+@DataJpaTest
+@Import({PerformanceService.class, MessageRollupService.class})
+class PerformanceServiceRollupTest {
+
+    @Autowired
+    MessageRepository messageRepository;
+
+    @Autowired
+    ChatRepository chatRepository;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    MessageRollupService rollups;
+
+    @Autowired
+    OfficerDailyStatsRepository statsRepository;
+
+    @Autowired
+    OfficerDailyPeerRepository peerRepository;
+
+    @Autowired
+    OfficerDailyLatencyRepository latencyRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    PerformanceService service;
+
+    private static final List<String> OFFICERS = List.of("Pim", "Ploy", "Earn", "Beam", "Mind", "Nok");
+    private static final LocalDate START = LocalDate.of(2025, 1, 1);
+
+    @Test
+    void rollupsWrittenPerSend_matchCountingMessages() {
+        Random random = new Random(41);
+        List<Message> messages = messageRepository.saveAll(randomMessages(random, 2_000));
+        messages.forEach(rollups::recordMessage);
+
+        assertWindowsMatch(random, messages);
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void concurrentFirstSendsAndRepliesOfTheDay_areAllCounted() throws Exception {
+        int threads = 8;
+        long at = START.plusDays(3).atStartOfDay().toInstant(ZoneOffset.UTC).toEpochMilli();
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> sends = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                Chat chat = new Chat("Nok", "Pim");
+                chat.recordSend("Nok", "Pim", at - 60_000);          // Pim owes a reply in every chat
+                Message m = chatMessage(chat, "Pim", "Nok", at + t);
+                sends.add(pool.submit(() -> {
+                    start.await();
+                    tx.executeWithoutResult(s -> {
+                        rollups.recordMessage(m);
+                        sleep(50);            // keep the new rows uncommitted while the others insert
+                    });
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> send : sends) send.get(30, TimeUnit.SECONDS);
+
+            Instant from = Instant.ofEpochMilli(at);
+            Instant to = from.plusSeconds(86_399);
+            assertEquals(threads, service.getSummary(from, to, "Pim").getMessaging().getMessagesSent());
+            assertEquals(threads, service.getSummary(from, to, "Nok").getMessaging().getMessagesReceived());
+            assertEquals(2, peerRepository.count());
+            OfficerDailyLatency replies = latencyRepository.findAll().get(0);
+            assertEquals(threads, LatencySketch.fromBytes(replies.getFirstResponse()).count());
+        } finally {
+            pool.shutdownNow();
+            statsRepository.deleteAllInBatch();
+            peerRepository.deleteAllInBatch();
+            latencyRepository.deleteAllInBatch();
+        }
+    }
+
+    @Test
+    void rebuildFromMessages_matchesCountingMessages() {
+        Random random = new Random(43);
+        List<Message> messages = messageRepository.saveAll(randomMessages(random, 1_200));
+
+        assertEquals(1_200, rollups.rebuildIfEmpty());
+        assertEquals(0, rollups.rebuildIfEmpty());
+
+        assertWindowsMatch(random, messages);
+    }
+
+    @Test
+    void rebuild_skippedWhileAnyRollupTableHasRows() {
+        conversation();
+        peerRepository.save(new OfficerDailyPeer("Pim", START, "Ploy")); // stats empty, peers not
+
+        assertEquals(0, rollups.rebuildIfEmpty());
+        assertEquals(0, statsRepository.count());
+    }
+
+    @Test
+    void replyTimes_areMeasuredPerOfficer() {
+        for (Message m : conversation()) rollups.recordMessage(m);
+
+        assertReplyTimes();
+    }
+
+    @Test
+    void replyTimes_areRebuiltFromMessages() {
+        conversation();
+
+        rollups.rebuildIfEmpty();
+
+        assertReplyTimes();
+    }
+
+    @Test
+    void replyTimes_rebuiltAfterLiveSends_replayFromTheStart() {
+        for (Message m : conversation()) rollups.recordMessage(m); // chats now await the last reply
+        statsRepository.deleteAllInBatch();
+        peerRepository.deleteAllInBatch();
+        latencyRepository.deleteAllInBatch();
+
+        rollups.rebuildIfEmpty();
+
+        assertReplyTimes();
+    }
+
+    @Test
+    void team_matchesPerOfficerSummaries() {
+        Random random = new Random(61);
+        List<Message> messages = messageRepository.saveAll(randomMessages(random, 1_500));
+        messages.forEach(rollups::recordMessage);
+        conversation().forEach(rollups::recordMessage);
+        userRepository.saveAll(List.of(new User("Pim", "x"), new User("Fah", "x"))); // Fah never messaged
+
+        Instant from = START.atStartOfDay().toInstant(ZoneOffset.UTC);
+        Instant to = START.plusDays(20).atStartOfDay().toInstant(ZoneOffset.UTC).minusMillis(1);
+
+        TeamPerformance team = service.getTeam(from, to, "messagesSent", 0, 50);
+        assertEquals(OFFICERS.size() + 1, team.totalOfficers());
+        for (OfficerPerformance row : team.officers()) {
+            assertEquals(service.getSummary(from, to, row.officer()).getMessaging(), row.messaging(), row.officer());
+        }
+        for (int n = 1; n < team.officers().size(); n++) {
+            assertTrue(team.officers().get(n - 1).messaging().getMessagesSent()
+                    >= team.officers().get(n).messaging().getMessagesSent());
+        }
+        assertEquals("Fah", team.officers().get(team.officers().size() - 1).officer());
+
+        // reply times: fastest first, officers without replies last
+        List<String> byReply = service.getTeam(from, to, "firstResponseTime", 0, 50).officers().stream()
+                .map(OfficerPerformance::officer).toList();
+        assertEquals(List.of("Ploy", "Pim"), byReply.subList(0, 2));
+
+        // pages of 3 cover everyone once, in name order
+        List<String> paged = new ArrayList<>();
+        for (int page = 0; page < 3; page++) {
+            service.getTeam(from, to, "officer", page, 3).officers().forEach(o -> paged.add(o.officer()));
+        }
+        assertEquals(paged.stream().sorted().toList(), paged);
+        assertEquals(OFFICERS.size() + 1, paged.size());
+        assertTrue(service.getTeam(from, to, "officer", 5, 3).officers().isEmpty());
+
+        assertThrows(IllegalArgumentException.class, () -> service.getTeam(from, to, "salary", 0, 10));
+        assertThrows(IllegalArgumentException.class, () -> service.getTeam(from, to, null, 0, 10));
+        assertThrows(IllegalArgumentException.class, () -> service.getTeam(from, to, "officer", -1, 10));
+        assertThrows(IllegalArgumentException.class, () -> service.getTeam(from, to, "officer", 0, 201));
+    }
+
+    private void assertReplyTimes() {
+        Instant from = START.atStartOfDay().toInstant(ZoneOffset.UTC);
+        Instant to = from.plusSeconds(86_399);
+
+        // Pim replied once: 60 s after Ploy's first message, 20 s after her second
+        MessagingStats pim = service.getSummary(from, to, "Pim").getMessaging();
+        assertEquals(new Percentiles(60_000, 60_000, 60_000), pim.getFirstResponseTimeMs());
+        assertEquals(new Percentiles(20_000, 20_000, 20_000), pim.getAvgResponseTimeMs());
+
+        // Ploy replied twice: 5 s and 30 s (both single messages)
+        MessagingStats ploy = service.getSummary(from, to, "Ploy").getMessaging();
+        assertEquals(17_500, ploy.getFirstResponseTimeMs().getAvg());
+        assertEquals(5_000, ploy.getFirstResponseTimeMs().getP50());
+        assertEquals(30_000, ploy.getAvgResponseTimeMs().getP90(), 30_000 * 0.032);
+
+        // team: {60 s, 5 s, 30 s}; the self-note and Earn's unanswered message do not count
+        MessagingStats team = service.getSummary(from, to, null).getMessaging();
+        assertEquals(31_667, team.getFirstResponseTimeMs().getAvg());
+        assertEquals(30_000, team.getFirstResponseTimeMs().getP50(), 30_000 * 0.032);
+        assertEquals(new Percentiles(0, 0, 0), service.getSummary(from, to, "Earn").getMessaging().getAvgResponseTimeMs());
+    }
+
+    /** Pim/Ploy chat with known reply times on START, plus a self-note and an unanswered message. */
+    private List<Message> conversation() {
+        Chat pimPloy = chatRepository.save(new Chat("Pim", "Ploy"));
+        Chat earnPim = chatRepository.save(new Chat("Earn", "Pim"));
+        Chat note = chatRepository.save(new Chat("Pim", "Pim"));
+        long t0 = START.atStartOfDay().toInstant(ZoneOffset.UTC).toEpochMilli() + 3_600_000;
+        List<Message> list = new ArrayList<>();
+        list.add(chatMessage(pimPloy, "Pim", "Ploy", t0));
+        list.add(chatMessage(pimPloy, "Ploy", "Pim", t0 + 5_000));        // Ploy replies after 5 s
+        list.add(chatMessage(pimPloy, "Ploy", "Pim", t0 + 45_000));
+        list.add(chatMessage(note, "Pim", "Pim", t0 + 50_000));
+        list.add(chatMessage(pimPloy, "Pim", "Ploy", t0 + 65_000));       // 60 s / 20 s
+        list.add(chatMessage(earnPim, "Earn", "Pim", t0 + 70_000));       // never answered
+        list.add(chatMessage(pimPloy, "Ploy", "Pim", t0 + 95_000));       // 30 s
+        return messageRepository.saveAll(list);
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Message chatMessage(Chat chat, String sender, String receiver, long atMs) {
+        Message m = new Message(sender, receiver, "hi", "12:30 PM");
+        m.setSentAtMs(atMs);
+        m.setChat(chat);
+        return m;
+    }
+
+    private void assertWindowsMatch(Random random, List<Message> messages) {
+        for (int n = 0; n < 30; n++) {
+            LocalDate from = START.plusDays(random.nextInt(50));
+            LocalDate to = from.plusDays(random.nextInt(20));
+            Instant fromUtc = from.atStartOfDay().toInstant(ZoneOffset.UTC);
+            Instant toUtc = to.plusDays(1).atStartOfDay().toInstant(ZoneOffset.UTC).minusMillis(1);
+
+            assertEquals(expected(messages, fromUtc, toUtc, null),
+                    service.getSummary(fromUtc, toUtc, null).getMessaging(), from + ".." + to);
+            String officer = OFFICERS.get(random.nextInt(OFFICERS.size()));
+            assertEquals(expected(messages, fromUtc, toUtc, officer),
+                    service.getSummary(fromUtc, toUtc, officer).getMessaging(), officer + " " + from + ".." + to);
+        }
+        Instant empty = START.minusYears(1).atStartOfDay().toInstant(ZoneOffset.UTC);
+        assertEquals(0, service.getSummary(empty, empty.plusSeconds(86_399), null).getMessaging().getMessagesSent());
+    }
+
+    /** The original in-memory computation over the window's messages. */
+    private static MessagingStats expected(List<Message> all, Instant from, Instant to, String officer) {
+        List<Message> window = all.stream()
+                .filter(m -> m.getSentAtMs() >= from.toEpochMilli() && m.getSentAtMs() <= to.toEpochMilli())
+                .filter(m -> officer == null || officer.equals(m.getSender()) || officer.equals(m.getReceiver()))
+                .toList();
+        Set<String> conversations = new HashSet<>();
+        Set<LocalDate> days = new HashSet<>();
+        int sent = 0, received = 0;
+        for (Message m : window) {
+            String a = m.getSender(), b = m.getReceiver();
+            if (officer == null) {
+                conversations.add((a.compareTo(b) < 0) ? a + "|" + b : b + "|" + a);
+            } else {
+                conversations.add(officer.equals(a) ? b : a);
+                if (officer.equals(a)) sent++;
+                if (officer.equals(b)) received++;
+            }
+            days.add(Instant.ofEpochMilli(m.getSentAtMs()).atZone(ZoneOffset.UTC).toLocalDate());
+        }
+        if (officer == null) sent = received = window.size();
+        return MessagingStats.builder()
+                .conversations(conversations.size())
+                .messagesSent(sent)
+                .messagesReceived(received)
+                .firstResponseTimeMs(new Percentiles(0, 0, 0))
+                .avgResponseTimeMs(new Percentiles(0, 0, 0))
+                .activeDays(days.size())
+                .unreadClearedCount(0)
+                .build();
+    }
+
+    private static List<Message> randomMessages(Random random, int count) {
+        long start = START.atStartOfDay().toInstant(ZoneOffset.UTC).toEpochMilli();
+        List<Message> list = new ArrayList<>(count);
+        for (int n = 0; n < count; n++) {
+            String sender = OFFICERS.get(random.nextInt(OFFICERS.size()));
+            String receiver = random.nextInt(50) == 0 ? sender : OFFICERS.get(random.nextInt(OFFICERS.size()));
+            Message m = new Message(sender, receiver, "msg " + n, "12:30 PM");
+            m.setSentAtMs(start + (long) (random.nextDouble() * 70 * 86_400_000L));
+            list.add(m);
+        }
+        return list;
+    }
+}
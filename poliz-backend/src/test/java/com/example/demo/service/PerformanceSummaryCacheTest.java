@@ -0,0 +1,166 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Incident;
+import com.example.demo.model.PerformanceSummary;
+import com.example.demo.model.SummaryCacheStats;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.*;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * PerformanceSummaryCache in front of a mocked PerformanceService, on a settable clock
+ * (Asia/Bangkok, so UTC and local days differ).
+ *   - hit / miss counting; closed ranges outlive the TTL, ranges touching today do not
+ *   - a message invalidates only entries whose UTC days contain it (team + its officers)
+ *   - incidents invalidate entries whose local days contain them, for every officer
+ *   - flushed officer actions invalidate the team entries and the actors' entries
+ *   - LRU eviction at max-entries; a summary computed while a write committed is not stored
+ */
+@ExtendWith(MockitoExtension.class)
+class PerformanceSummaryCacheTest {
+
+    @Mock
+    PerformanceService performanceService;
+
+    private final SettableClock clock = new SettableClock(Instant.parse("2025-11-20T05:00:00Z"), ZoneId.of("Asia/Bangkok"));
+    private PerformanceSummaryCache cache;
+
+    private static final Instant OCT_FROM = Instant.parse("2025-10-01T00:00:00Z");
+    private static final Instant OCT_TO = Instant.parse("2025-11-01T00:00:00Z").minusMillis(1);
+    private static final Instant NOV_FROM = Instant.parse("2025-11-01T00:00:00Z");
+    private static final Instant NOV_TO = Instant.parse("2025-12-01T00:00:00Z").minusMillis(1);
+
+    @BeforeEach
+    void setUp() {
+        cache = new PerformanceSummaryCache(performanceService, clock, 3, 60_000);
+        lenient().when(performanceService.getSummary(any(), any(), any()))
+                .thenAnswer(call -> PerformanceSummary.builder().officer(call.getArgument(2)).build());
+    }
+
+    @Test
+    void closedRange_isKeptPastTtl_openRangeExpires() {
+        cache.getSummary(OCT_FROM, OCT_TO, "Pim");
+        cache.getSummary(NOV_FROM, NOV_TO, "Pim");
+        cache.getSummary(OCT_FROM, OCT_TO, "Pim");
+        cache.getSummary(NOV_FROM, NOV_TO, "Pim");
+
+        clock.advance(Duration.ofMinutes(5));
+        cache.getSummary(OCT_FROM, OCT_TO, "Pim");   // still cached
+        cache.getSummary(NOV_FROM, NOV_TO, "Pim");   // expired, recomputed
+
+        verify(performanceService, times(1)).getSummary(OCT_FROM, OCT_TO, "Pim");
+        verify(performanceService, times(2)).getSummary(NOV_FROM, NOV_TO, "Pim");
+        SummaryCacheStats stats = cache.getStats();
+        assertEquals(3, stats.hits());
+        assertEquals(3, stats.misses());
+        assertEquals(0.5, stats.hitRate());
+    }
+
+    @Test
+    void message_invalidatesItsWindowAndOfficers() {
+        cache.getSummary(NOV_FROM, NOV_TO, null);
+        cache.getSummary(NOV_FROM, NOV_TO, "Pim");
+        cache.getSummary(NOV_FROM, NOV_TO, "Earn");
+
+        cache.onMessageRecorded(new MessageRecordedEvent("Pim", "Ploy", clock.millis()));
+        cache.onMessageRecorded(new MessageRecordedEvent("Earn", "Ploy", OCT_TO.toEpochMilli())); // other window
+
+        cache.getSummary(NOV_FROM, NOV_TO, null);
+        cache.getSummary(NOV_FROM, NOV_TO, "Pim");
+        cache.getSummary(NOV_FROM, NOV_TO, "Earn");
+        verify(performanceService, times(2)).getSummary(NOV_FROM, NOV_TO, null);
+        verify(performanceService, times(2)).getSummary(NOV_FROM, NOV_TO, "Pim");
+        verify(performanceService, times(1)).getSummary(NOV_FROM, NOV_TO, "Earn");
+        assertEquals(2, cache.getStats().invalidations());
+    }
+
+    @Test
+    void flushedActions_invalidateTeamAndActors() {
+        cache.getSummary(NOV_FROM, NOV_TO, null);
+        cache.getSummary(NOV_FROM, NOV_TO, "Pim");
+        cache.getSummary(NOV_FROM, NOV_TO, "Earn");
+
+        cache.onOfficerActionsFlushed(new OfficerActionsFlushedEvent(
+                java.util.Set.of("Pim", "Ploy"), clock.millis() - 1_000, clock.millis()));
+        cache.onOfficerActionsFlushed(new OfficerActionsFlushedEvent(
+                java.util.Set.of("Earn"), OCT_TO.toEpochMilli(), OCT_TO.toEpochMilli())); // other window
+
+        assertEquals(2, cache.getStats().invalidations());   // team + Pim
+        cache.getSummary(NOV_FROM, NOV_TO, "Earn");
+        assertEquals(1, cache.getStats().hits());
+    }
+
+    @Test
+    void lateIncident_invalidatesClosedRangeByLocalDay() {
+        cache.getSummary(OCT_FROM, OCT_TO, "Pim");
+        cache.getSummary(OCT_FROM, OCT_TO, null);
+
+        // incident window = local days of the UTC bounds: Oct 1 .. Nov 1 in Bangkok
+        cache.onIncidentsSaved(new IncidentsSavedEvent(List.of(incident(LocalDateTime.of(2025, 11, 2, 3, 0)))));
+        assertEquals(0, cache.getStats().invalidations());
+
+        cache.onIncidentsSaved(new IncidentsSavedEvent(List.of(incident(null), incident(LocalDateTime.of(2025, 11, 1, 3, 0)))));
+        assertEquals(2, cache.getStats().invalidations());
+        assertEquals(0, cache.getStats().size());
+    }
+
+    @Test
+    void leastRecentlyUsed_isEvicted() {
+        cache.getSummary(OCT_FROM, OCT_TO, "a");
+        cache.getSummary(OCT_FROM, OCT_TO, "b");
+        cache.getSummary(OCT_FROM, OCT_TO, "c");
+        cache.getSummary(OCT_FROM, OCT_TO, "a");     // a is now the most recent
+        cache.getSummary(OCT_FROM, OCT_TO, "d");     // evicts b
+
+        cache.getSummary(OCT_FROM, OCT_TO, "a");
+        cache.getSummary(OCT_FROM, OCT_TO, "b");
+        verify(performanceService, times(1)).getSummary(OCT_FROM, OCT_TO, "a");
+        verify(performanceService, times(2)).getSummary(OCT_FROM, OCT_TO, "b");
+        assertEquals(2, cache.getStats().evictions());
+        assertEquals(3, cache.getStats().size());
+    }
+
+    @Test
+    void summaryComputedDuringWrite_isNotStored() {
+        when(performanceService.getSummary(OCT_FROM, OCT_TO, "Pim")).thenAnswer(call -> {
+            cache.onMessageRecorded(new MessageRecordedEvent("Nok", "Mind", clock.millis())); // commits meanwhile
+            return PerformanceSummary.builder().officer("Pim").build();
+        });
+
+        assertEquals("Pim", cache.getSummary(OCT_FROM, OCT_TO, "Pim").getOfficer());
+        assertEquals(0, cache.getStats().size());
+    }
+
+    private static Incident incident(LocalDateTime time) {
+        Incident i = new Incident();
+        i.setTime(time);
+        return i;
+    }
+
+    private static final class SettableClock extends Clock {
+        private Instant now;
+        private final ZoneId zone;
+
+        SettableClock(Instant now, ZoneId zone) {
+            this.now = now;
+            this.zone = zone;
+        }
+
+        void advance(Duration d) {
+            now = now.plus(d);
+        }
+
+        @Override public ZoneId getZone() { return zone; }
+        @Override public Clock withZone(ZoneId zone) { return new SettableClock(now, zone); }
+        @Override public Instant instant() { return now; }
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Incident;
+import com.example.demo.model.Message;
+import com.example.demo.model.PerformanceSummary.MessagingStats;
+import com.example.demo.model.PerformanceTimeseries;
+import com.example.demo.repository.IncidentRepository;
+import com.example.demo.repository.MessageRepository;
+import org.h2.util.DateTimeUtils;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.*;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * PerformanceTimeseriesService against the H2 schema, in a non-UTC JVM zone (Incident.time is local).
+ *   - day buckets: messages equal a per-day /summary (team and officer)
+ *   - hour buckets add up to the day buckets; bucket labels are UTC hour/day starts
+ *   - incidents by rankLevel equal counting the saved incidents per UTC bucket (not per local day)
+ *   - bad bucket, reversed or too long range
+ */
+@DataJpaTest
+@Import({PerformanceService.class, MessageRollupService.class, PerformanceTimeseriesService.class})
+class PerformanceTimeseriesServiceTest {
+
+    @Autowired MessageRepository messageRepository;
+    @Autowired IncidentRepository incidentRepository;
+    @Autowired MessageRollupService rollups;
+    @Autowired PerformanceService performanceService;
+    @Autowired PerformanceTimeseriesService service;
+
+    private static final List<String> OFFICERS = List.of("Pim", "Ploy", "Earn", "Beam");
+    private static final List<String> RANKS = List.of("CRITICAL", "HIGH", "MEDIUM", "LOW", "low", "URGENT");
+    private static final LocalDate START = LocalDate.of(2025, 3, 1);
+    private static final int DAYS = 10;
+
+    private static TimeZone defaultZone;
+
+    // before this class's context starts; H2 caches the JVM zone on first use, so it is reset too
+    @BeforeAll
+    static void useLocalZone() {
+        defaultZone = TimeZone.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone("Asia/Bangkok")); // UTC+7: local days != UTC days
+        DateTimeUtils.resetCalendar();
+    }
+
+    @AfterAll
+    static void restoreZone() {
+        TimeZone.setDefault(defaultZone);
+        DateTimeUtils.resetCalendar();
+    }
+
+    @Test
+    void series_matchSummaryAndSourceRows() {
+        Random random = new Random(73);
+        long startMs = START.atStartOfDay().toInstant(ZoneOffset.UTC).toEpochMilli();
+        List<Message> messages = new ArrayList<>();
+        for (int n = 0; n < 1_500; n++) {
+            Message m = new Message(OFFICERS.get(random.nextInt(4)), OFFICERS.get(random.nextInt(4)), "m", "12:30 PM");
+            m.setSentAtMs(startMs + (long) (random.nextDouble() * DAYS * 86_400_000L));
+            messages.add(m);
+        }
+        messageRepository.saveAll(messages).forEach(rollups::recordMessage);
+        List<Incident> incidents = new ArrayList<>();
+        for (int n = 0; n < 800; n++) {
+            Incident i = new Incident();
+            i.setType("Other");
+            i.setPlace("street");
+            i.setNotes("");
+            i.setTime(START.atStartOfDay().minusDays(1).plusMinutes(random.nextInt(60 * 24 * (DAYS + 2))));
+            i.setRankLevel(random.nextInt(10) == 0 ? null : RANKS.get(random.nextInt(RANKS.size())));
+            incidents.add(i);
+        }
+        incidentRepository.saveAll(incidents);
+
+        Instant from = START.atStartOfDay().toInstant(ZoneOffset.UTC);
+        Instant to = START.plusDays(DAYS).atStartOfDay().toInstant(ZoneOffset.UTC).minusMillis(1);
+
+        for (String officer : Arrays.asList(null, "Pim")) {
+            PerformanceTimeseries days = service.getTimeseries(from, to, "day", officer);
+            PerformanceTimeseries hours = service.getTimeseries(from, to, "hour", officer);
+            assertEquals(DAYS, days.buckets().size());
+            assertEquals(DAYS * 24, hours.buckets().size());
+            assertEquals("2025-03-01T00:00:00Z", days.buckets().get(0));
+            assertEquals("2025-03-01T01:00:00Z", hours.buckets().get(1));
+
+            for (int d = 0; d < DAYS; d++) {
+                Instant dayFrom = from.plus(Duration.ofDays(d));
+                MessagingStats summary = performanceService
+                        .getSummary(dayFrom, dayFrom.plus(Duration.ofDays(1)).minusMillis(1), officer).getMessaging();
+                assertEquals(summary.getMessagesSent(), days.messagesSent()[d], officer + " day " + d);
+                assertEquals(summary.getMessagesReceived(), days.messagesReceived()[d]);
+                assertEquals(days.messagesSent()[d], sum(hours.messagesSent(), d * 24, 24));
+                assertEquals(days.messagesReceived()[d], sum(hours.messagesReceived(), d * 24, 24));
+                assertEquals(days.critical()[d], sum(hours.critical(), d * 24, 24));
+            }
+            assertArrayEquals(expectedIncidents(incidents, from, "CRITICAL", DAYS), days.critical());
+            assertArrayEquals(expectedIncidents(incidents, from, "LOW", DAYS), days.low());
+        }
+    }
+
+    @Test
+    void invalidArguments_areRejected() {
+        Instant from = START.atStartOfDay().toInstant(ZoneOffset.UTC);
+        assertThrows(IllegalArgumentException.class, () -> service.getTimeseries(from, from.plusSeconds(60), "week", null));
+        assertThrows(IllegalArgumentException.class, () -> service.getTimeseries(from, from.minusSeconds(60), "day", null));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.getTimeseries(from, from.plus(Duration.ofDays(93)), "hour", null));
+        assertEquals(93, service.getTimeseries(from, from.plus(Duration.ofDays(92)), "day", null).buckets().size());
+    }
+
+    private static long[] expectedIncidents(List<Incident> incidents, Instant from, String rank, int days) {
+        long[] counts = new long[days];
+        for (Incident i : incidents) {
+            if (i.getTime() == null || i.getRankLevel() == null || !rank.equalsIgnoreCase(i.getRankLevel())) continue;
+            long offset = i.getTime().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() - from.toEpochMilli();
+            if (offset >= 0 && offset < days * 86_400_000L) counts[(int) (offset / 86_400_000L)]++;
+        }
+        return counts;
+    }
+
+    private static long sum(long[] values, int from, int count) {
+        long total = 0;
+        for (int i = from; i < from + count; i++) total += values[i];
+        return total;
+    }
+}